@@ -0,0 +1,250 @@
+package bst;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @Description:  JMH benchmarks of the core BST operations across tree
+ * implementations, key distributions and sizes.
+ *
+ * The tree holds the even keys 0, 2, ..., 2(size-1) inserted in the order
+ * given by the distribution.  Lookups and deletes target those keys; inserts
+ * use the odd key just above a lookup key so that the new node is always a
+ * fresh leaf, and insertDelete removes it again so the tree is unchanged.
+ * deleteByCopy and deleteByMerge delete a key and insert it back, so their
+ * cost includes the drift in shape each strategy causes over time.
+ *
+ * Each benchmark method gets its own freshly built tree.  Run through
+ * BenchmarkMain (the jar's main class) to get allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class BSTBenchmark {
+
+    //Number of precomputed lookup keys (power of two)
+    private static final int LOOKUPS = 1 << 16;
+
+    //Keys per batch in searchAll
+    private static final int BATCH = 1 << 10;
+
+    //Keys held by the lookup cache in cachedSearch
+    private static final int CACHE_CAPACITY = 1 << 12;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"UNIFORM", "SORTED", "REVERSE", "ZIPF"})
+    KeyDistribution distribution;
+
+    @Param({"BST", "AVL", "SPLAY"})
+    String treeType;
+
+    private BST<Integer, Integer> tree;
+    private FrozenBST<Integer, Integer> frozen;
+    private CachedBST<Integer, Integer> cached;
+    private Integer [] lookups;
+    private Integer [] absent;
+    private Integer [] batch;
+    private Integer [] batchInfos;
+    private int next;
+    private SumVisitor sum;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(42);
+
+        Integer [] keys = distribution.insertionOrder(size, rnd);
+        for (int i = 0; i < size; i++)
+            keys[i] = 2 * keys[i];
+
+        lookups = distribution.lookups(size, LOOKUPS, rnd);
+        absent = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = 2 * lookups[i];
+            absent[i] = lookups[i] + 1;
+        }
+
+        batch = Arrays.copyOf(lookups, BATCH);
+        batchInfos = new Integer[BATCH];
+
+        tree = build(keys);
+        frozen = tree.freeze();
+        cached = new CachedBST<>(tree, CACHE_CAPACITY);
+        next = 0;
+        sum = new SumVisitor();
+    }
+
+    /**
+     * Builds the tree that repeated insert() produces for keys.  For the plain
+     * BST, sorted input produces a chain; it is linked directly because
+     * inserting n sorted keys one at a time takes O(n^2).  A splay tree
+     * inserts sorted keys in O(1) each, so it is built by insert().
+     * @param keys - keys in insertion order
+     * @return tree holding every key
+     */
+    private BST<Integer, Integer> build(Integer [] keys) {
+        BST<Integer, Integer> result = treeType.equals("AVL") ? new AVLTree<>()
+                : treeType.equals("SPLAY") ? new SplayTree<>() : new BST<>();
+
+        if (result.getClass() != BST.class
+                || (distribution != KeyDistribution.SORTED
+                    && distribution != KeyDistribution.REVERSE)) {
+            for (Integer key : keys)
+                result.insert(key, key);
+            return result;
+        }
+
+        BTNode<Integer, Integer> chain = null;
+        for (int i = keys.length - 1; i >= 0; i--) {
+            BTNode<Integer, Integer> node = new BTNode<>(keys[i], keys[i]);
+            if (distribution == KeyDistribution.SORTED)
+                node.right = chain;
+            else
+                node.left = chain;
+            node.count = node.height = keys.length - i;
+            chain = node;
+        }
+
+        result.root = chain;
+        result.size = keys.length;
+        return result;
+    }
+
+    /**
+     * @return next lookup index
+     */
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (LOOKUPS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Integer search() {
+        return tree.search(lookups[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer frozenSearch() {
+        return frozen.search(lookups[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer cachedSearch() {
+        return cached.search(lookups[nextIndex()]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int searchAll() {
+        return tree.searchAll(batch, batchInfos);
+    }
+
+    @Benchmark
+    public Integer searchMissing() {
+        return tree.search(absent[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer upsert() {
+        return tree.merge(lookups[nextIndex()], 1, Integer::sum);
+    }
+
+    @Benchmark
+    public int insertDelete() {
+        Integer key = absent[nextIndex()];
+        tree.insert(key, key);
+        tree.deleteNodeByCopy(key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int deleteByCopy() {
+        Integer key = lookups[nextIndex()];
+        tree.deleteNodeByCopy(key);
+        tree.insert(key, key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    public int deleteByMerge() {
+        Integer key = lookups[nextIndex()];
+        tree.deleteNodeByMerge(key);
+        tree.insert(key, key);
+        return tree.getSize();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int rebalance() {
+        tree.rebalance();
+        return tree.getSize();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long inOrderTraverse() {
+        sum.total = 0;
+        tree.inOrderTraverse(sum);
+        return sum.total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long preOrderTraverse() {
+        sum.total = 0;
+        tree.preOrderTraverse(sum);
+        return sum.total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long postOrderTraverse() {
+        sum.total = 0;
+        tree.postOrderTraverse(sum);
+        return sum.total;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long levelOrderTraverse() {
+        long total = 0;
+        LevelCursor<Integer, Integer> levels = tree.levelCursor();
+
+        while (levels.nextLevel())
+            for (int i = 0; i < levels.getLevelSize(); i++)
+                total += levels.get(i).key;
+        return total;
+    }
+
+    /**
+     * Visitor summing keys; reused so traversals allocate nothing per call.
+     */
+    static final class SumVisitor implements TreeVisitor<Integer, Integer> {
+        long total;
+
+        public boolean visit(BTNode<Integer, Integer> node) {
+            total += node.key;
+            return true;
+        }
+    }
+}
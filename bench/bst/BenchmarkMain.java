@@ -0,0 +1,27 @@
+package bst;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @Description:  Entry point of benchmarks.jar.  Accepts the usual JMH
+ * command line (benchmark regex, -p param=values, -f, -wi, ...) and always
+ * enables the GC profiler so results include allocation rates
+ * (gc.alloc.rate.norm = bytes allocated per operation).
+ */
+public class BenchmarkMain {
+
+    public static void main(String [] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package bst;
+
+import java.util.Random;
+
+/**
+ * @Description:  Key distributions used by the benchmarks.  Each produces the
+ * order in which keys 0 .. n-1 are inserted and a stream of lookup keys.
+ *
+ *  UNIFORM - random insertion order, uniformly random lookups
+ *  SORTED  - ascending insertion order (worst case for BST.insert)
+ *  REVERSE - descending insertion order
+ *  ZIPF    - random insertion order, Zipfian (theta = 0.99) lookups whose
+ *            hot keys are scattered across the key space
+ */
+public enum KeyDistribution {
+
+    UNIFORM, SORTED, REVERSE, ZIPF;
+
+    //Skew of the Zipfian lookups (YCSB default)
+    private static final double THETA = 0.99;
+
+    /**
+     * @param n - number of keys
+     * @param rnd - random source
+     * @return keys 0 .. n-1 in insertion order
+     */
+    public Integer [] insertionOrder(int n, Random rnd) {
+        Integer [] keys = new Integer[n];
+
+        for (int i = 0; i < n; i++)
+            keys[i] = (this == REVERSE) ? n - 1 - i : i;
+
+        if (this == UNIFORM || this == ZIPF)
+            shuffle(keys, rnd);
+
+        return keys;
+    }
+
+    /**
+     * @param n - number of keys in the tree (keys are 0 .. n-1)
+     * @param count - number of lookups to generate
+     * @param rnd - random source
+     * @return lookup keys, every one of which is in the tree
+     */
+    public Integer [] lookups(int n, int count, Random rnd) {
+        Integer [] lookups = new Integer[count];
+
+        if (this != ZIPF) {
+            for (int i = 0; i < count; i++)
+                lookups[i] = rnd.nextInt(n);
+            return lookups;
+        }
+
+        //Map popularity rank to a random key so hot keys are not clustered
+        Integer [] byRank = insertionOrder(n, rnd);
+
+        //Gray et al. "Quickly generating billion-record synthetic databases"
+        double zetan = zeta(n);
+        double zeta2 = 1 + Math.pow(0.5, THETA);
+        double alpha = 1 / (1 - THETA);
+        double eta = (1 - Math.pow(2.0 / n, 1 - THETA)) / (1 - zeta2 / zetan);
+
+        for (int i = 0; i < count; i++) {
+            double u = rnd.nextDouble();
+            double uz = u * zetan;
+
+            int rank;
+            if (uz < 1)
+                rank = 0;
+            else if (uz < zeta2)
+                rank = 1;
+            else
+                rank = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+
+            lookups[i] = byRank[Math.min(rank, n - 1)];
+        }
+        return lookups;
+    }
+
+    /**
+     * @param n - number of items
+     * @return generalized harmonic number sum(1 / i^THETA) for i = 1 .. n
+     */
+    private static double zeta(int n) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++)
+            sum += 1 / Math.pow(i, THETA);
+        return sum;
+    }
+
+    /**
+     * Fisher-Yates shuffle.
+     * @param keys - array to shuffle in place
+     * @param rnd - random source
+     */
+    private static void shuffle(Integer [] keys, Random rnd) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            Integer tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+    }
+}
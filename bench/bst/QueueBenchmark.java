@@ -0,0 +1,93 @@
+package bst;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @Description:  JMH benchmarks of single-threaded queue operations.
+ *
+ * enqueueDequeue measures one enqueue and one dequeue on a half-full queue;
+ * fillDrain enqueues size values into an empty queue and dequeues them all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"ArrayQueue", "RingBufferQueue", "SpscQueue", "MpmcQueue"})
+    String queueType;
+
+    private Queue<Integer> queue;
+    private Integer [] values;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (queueType) {
+            case "ArrayQueue":
+                queue = new ArrayQueue<>(size);
+                break;
+            case "RingBufferQueue":
+                queue = new RingBufferQueue<>(size);
+                break;
+            case "SpscQueue":
+                queue = new SpscQueue<>(size);
+                break;
+            case "MpmcQueue":
+                queue = new MpmcQueue<>(size);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown queue: " + queueType);
+        }
+
+        values = new Integer[1024];
+        for (int i = 0; i < values.length; i++)
+            values[i] = i;
+
+        //Steady state for enqueueDequeue: half full
+        for (int i = 0; i < size / 2; i++)
+            queue.enqueue(values[i & 1023]);
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer enqueueDequeue() {
+        queue.enqueue(values[next]);
+        next = (next + 1) & 1023;
+        return queue.dequeue();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long fillDrain() {
+        //Empty the steady-state contents left by setup
+        while (!queue.isEmpty())
+            queue.dequeue();
+
+        for (int i = 0; i < size; i++)
+            queue.enqueue(values[i & 1023]);
+
+        long total = 0;
+        for (int i = 0; i < size; i++)
+            total += queue.dequeue();
+        return total;
+    }
+}
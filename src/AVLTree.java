@@ -0,0 +1,343 @@
+/**
+ * @Description:  This is an implementation of a self-balancing (AVL) binary
+ * search tree.  Each node caches the height of its subtree so that insert and
+ * both delete operations can restore the AVL property (|balance factor| <= 1)
+ * with rotations along the search path, keeping the height at O(log n)
+ * regardless of the order in which keys arrive.
+ */
+public class AVLTree<K extends Comparable<K>, T> extends BST<K, T> {
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public AVLTree() {
+        super();
+        this.cacheHeights = true;
+    }
+
+
+    /**
+     * Inserts a tree node into the tree as a leaf in the appropriate
+     * location within the tree and then rebalances the search path.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    public void insert(K key, T info) {
+
+        size++;
+        modCount++;
+
+        //Traverse the tree recording the path, moving left or right based
+        // upon new key's value relative to each node's key.
+        int depth = 0;
+        boolean left = false;
+        BTNode<K,T> prev = null;
+        BTNode<K,T> cur = root;
+
+        while (cur != null) {
+            push(depth++, cur);
+            prev = cur;
+
+            left = key.compareTo(cur.key) < 0;
+            cur = left ? cur.left : cur.right;
+        }
+
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+
+        if (prev == null)
+            root = node;
+        else if (left)
+            prev.left = node;
+        else
+            prev.right = node;
+
+        retrace(depth);
+        releasePath();
+        if (metrics != null) metrics.recordInsert(depth);
+    }
+
+
+    /**
+     * Performs a delete using deleteByMerge operations if deleted node has two
+     * children.  Hanging the right subtree below the predecessor (as the plain
+     * BST does) would break the AVL property, so the subtrees are merged by
+     * relinking the predecessor node itself in place of the deleted node.
+     * Unlike deleteNodeByCopy, no key or info is moved between nodes.
+     * @param key - key of node we wish to delete
+     */
+    @Override
+    public void deleteNodeByMerge(K key) {
+
+        int depth = locate(key);
+        if (metrics != null) metrics.recordDelete(locateLength);
+        if (depth < 0) {
+            releasePath();
+            return;
+        }
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+        modCount++;
+
+        int curDepth = depth;
+        BTNode<K,T> cur = path[curDepth];
+
+        //At most one child - splice it into the deleted node's place
+        if (cur.left == null || cur.right == null) {
+            replaceChild(depth, cur.left != null ? cur.left : cur.right);
+            retrace(depth);
+            releasePath();
+            return;
+        }
+
+        //Both children - detach the immediate predecessor from the left subtree
+        depth = pushPredecessorPath(depth);
+        BTNode<K,T> tmp = path[depth];
+        replaceChild(depth, tmp.left);
+
+        //Merge both subtrees below the predecessor and put it in cur's place
+        tmp.left = cur.left;
+        tmp.right = cur.right;
+        tmp.height = cur.height;
+        replaceChild(curDepth, tmp);
+        path[curDepth] = tmp;
+
+        retrace(depth);
+        releasePath();
+    }
+
+
+    /**
+     * Heights are what keep the tree balanced, so caching cannot be disabled.
+     * @param enabled - must be true
+     */
+    @Override
+    public void setHeightCaching(boolean enabled) {
+        if (!enabled)
+            throw new UnsupportedOperationException("AVLTree always caches heights");
+    }
+
+    /**
+     * @return new empty AVLTree
+     */
+    @Override
+    BST<K,T> newEmpty() {
+        return new AVLTree<K,T>();
+    }
+
+    /**
+     * Inserts one key of a sorted batch with insert, since every insert must
+     * rebalance its path.
+     * @param finger - finger shared by the batch (unused)
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    void insertAt(BSTFinger<K,T> finger, K key, T info) {
+        insert(key, info);
+    }
+
+    /**
+     * Deletes one key of a sorted batch with deleteNodeByCopy, since every delete
+     * must rebalance its path.
+     * @param finger - finger shared by the batch (unused)
+     * @param key - key of node we wish to delete
+     */
+    @Override
+    void deleteAt(BSTFinger<K,T> finger, K key) {
+        deleteNodeByCopy(key);
+    }
+
+    /**
+     * Adds a node for key where the last locate ended, then rebalances the
+     * path.
+     * @param depth - number of nodes on the path (from locate)
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    void attach(int depth, K key, T info) {
+        size++;
+        modCount++;
+
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+
+        if (depth == 0)
+            root = node;
+        else if (locateLeft)
+            path[depth - 1].left = node;
+        else
+            path[depth - 1].right = node;
+
+        retrace(depth);
+        if (metrics != null) metrics.recordInsert(locateLength);
+    }
+
+    /**
+     * Removes the node found by the last locate, copying from its immediate
+     * predecessor if it has two children, then rebalances the path above
+     * the removed node.
+     * @param depth - depth of the node within path (from locate)
+     */
+    @Override
+    void detach(int depth) {
+        if (metrics != null) metrics.recordDelete(locateLength);
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+        modCount++;
+
+        BTNode<K,T> cur = path[depth];
+
+        //At most one child - splice it into the deleted node's place
+        if (cur.left == null || cur.right == null) {
+            replaceChild(depth, cur.left != null ? cur.left : cur.right);
+            retrace(depth);
+            return;
+        }
+
+        //Both children - find right most of left subtree, recording the path
+        depth = pushPredecessorPath(depth);
+        BTNode<K,T> tmp = path[depth];
+
+        //Copy value into node to be deleted.
+        cur.key = tmp.key;
+        cur.info = tmp.info;
+
+        //Delete copied node
+        replaceChild(depth, tmp.left);
+        retrace(depth);
+    }
+
+
+    ///////////////////////////////////
+    // PATH HELPERS
+
+    /**
+     * Extends the path from the node at depth down to its immediate
+     * predecessor (right most node of its left subtree).
+     * @param depth - depth of a node with two children
+     * @return depth of the predecessor within path
+     */
+    private int pushPredecessorPath(int depth) {
+        BTNode<K,T> tmp = path[depth].left;
+        push(++depth, tmp);
+
+        while (tmp.right != null) {
+            tmp = tmp.right;
+            push(++depth, tmp);
+        }
+        return depth;
+    }
+
+    /**
+     * Replaces the node at the given depth of path with node inside
+     * its parent (or as the root).
+     * @param depth - depth of node being replaced
+     * @param node - replacement subtree
+     */
+    private void replaceChild(int depth, BTNode<K,T> node) {
+        BTNode<K,T> old = path[depth];
+
+        if (depth == 0)
+            root = node;
+        else if (path[depth - 1].left == old)
+            path[depth - 1].left = node;
+        else
+            path[depth - 1].right = node;
+    }
+
+    /**
+     * Walks back up the path from depth-1 to the root updating heights and
+     * subtree sizes and rotating any node whose balance factor has left
+     * [-1, 1].  Once a subtree's height is unchanged no ancestor can need a
+     * rotation, so only the subtree sizes are updated from there on.
+     * @param depth - number of nodes on the path above the modification.
+     */
+    private void retrace(int depth) {
+        boolean settled = false;
+
+        for (int i = depth - 1; i >= 0; i--) {
+            BTNode<K,T> node = path[i];
+
+            if (settled) {
+                updateCount(node);
+                continue;
+            }
+
+            int oldHeight = node.height;
+
+            BTNode<K,T> sub = balance(node);
+            if (sub != node)
+                replaceChild(i, sub);
+            else if (node.height == oldHeight)
+                settled = true;
+        }
+    }
+
+
+    ///////////////////////////////////
+    // ROTATIONS
+
+    /**
+     * Updates node's height and restores the AVL property with a single or
+     * double rotation if needed.
+     * @param node - root of subtree
+     * @return new root of the subtree
+     */
+    private BTNode<K,T> balance(BTNode<K,T> node) {
+        update(node);
+
+        int factor = height(node.right) - height(node.left);
+
+        //Right heavy
+        if (factor > 1) {
+            if (height(node.right.left) > height(node.right.right))
+                node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+
+        //Left heavy
+        if (factor < -1) {
+            if (height(node.left.right) > height(node.left.left))
+                node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Rotates node's left child up into its place.
+     * @param node - root of subtree
+     * @return new root of the subtree
+     */
+    private BTNode<K,T> rotateRight(BTNode<K,T> node) {
+        BTNode<K,T> child = node.left;
+        node.left = child.right;
+        child.right = node;
+
+        update(node);
+        update(child);
+        if (metrics != null) metrics.recordRotation();
+        return child;
+    }
+
+    /**
+     * Rotates node's right child up into its place.
+     * @param node - root of subtree
+     * @return new root of the subtree
+     */
+    private BTNode<K,T> rotateLeft(BTNode<K,T> node) {
+        BTNode<K,T> child = node.right;
+        node.right = child.left;
+        child.left = node;
+
+        update(node);
+        update(child);
+        if (metrics != null) metrics.recordRotation();
+        return child;
+    }
+
+}
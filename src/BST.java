@@ -3,17 +3,57 @@
  * @date 10/29/2017
  * @Description:  This is an implementation of a binary tree node.
  */
-public class BST<K extends Comparable<K>, T> {
+public class BST<K extends Comparable<K>, T>
+    implements Iterable<BTNode<K, T>> {
 
     BTNode<K, T> root;
     int size;
 
+    //Number of structural modifications; lets cursors detect stale state
+    int modCount;
+
+    //Number of in-place info changes (put, compute, merge); cursors ignore
+    // these, but caches of infos must not
+    int infoModCount;
+
+    //When true, every node's cached height is kept up to date by insert
+    // and delete so that height/balance checks are O(1) per node.
+    boolean cacheHeights;
+
+    //Scratch stack of nodes visited on the current search path (path[0] is
+    // the root); reused by every operation so that no per-call allocation is
+    // needed, and emptied by releasePath() when the operation is done.
+    BTNode<K,T> [] path;
+
+    //Entries [0, pathTop) of path may still hold nodes
+    int pathTop;
+
+    //A path grown past this (by a deep tree) is dropped rather than kept
+    static final int MAX_RETAINED_PATH = 1024;
+
+    //Initial capacity of traversal stacks; grown on demand
+    static final int STACK_SIZE = 32;
+
+    //Operation counters, or null while metrics are disabled
+    TreeMetrics metrics;
+
+    //Set by locate(): the side of path[depth-1] on which a missing key
+    // belongs, and the number of keys compared
+    boolean locateLeft;
+    int locateLength;
+
+    //Incremented by every locate(), so that an operation which runs a user
+    // callback between locate and store can tell that path was reused
+    int locateCount;
+
     /**
      * Default constructor.  Creates an empty tree.
      */
     public BST() {
         this.root = null;
         this.size = 0;
+        this.cacheHeights = false;
+        this.path = new BTNode[STACK_SIZE];
     }
 
 
@@ -26,10 +66,12 @@ public class BST<K extends Comparable<K>, T> {
     public void insert(K key, T info) {
 
         size++;
+        modCount++;
 
         //Special case - empty tree
         if (root == null) {
             root = new BTNode<K,T>(key, info);
+            if (metrics != null) metrics.recordInsert(0);
             return;
         }
 
@@ -38,31 +80,34 @@ public class BST<K extends Comparable<K>, T> {
         //References to track traversal
         BTNode <K, T> prev = null;
         BTNode <K, T> cur = root;
+        boolean left = false;
+        int depth = 0;
 
         //Traverse list moving left or right based upon
         // new key's value relative to each node's key.
         while (cur != null) {
 
             prev = cur;
+            push(depth++, cur);
 
             //If key's value is less than cur's key, traverse left.
-            if (key.compareTo(cur.key) < 0) {
-                cur = cur.left;
-            }
-            //Otherwise, traverse right.
-            else {
-                cur = cur.right;
-            }
+            // Otherwise, traverse right.
+            left = key.compareTo(cur.key) < 0;
+            cur = left ? cur.left : cur.right;
         }
 
         //Insert new key relative to prev (i.e. the last node
-        // visited in the traversal
-        if (key.compareTo(prev.key) < 0) {
+        // visited in the traversal), on the side last chosen
+        if (left) {
             prev.left = new BTNode<K, T>(key, info);
         }
         else {
             prev.right = new BTNode<K, T>(key, info);
         }
+
+        updatePath(depth);
+        releasePath();
+        if (metrics != null) metrics.recordInsert(depth);
     }
 
     /**
@@ -72,27 +117,33 @@ public class BST<K extends Comparable<K>, T> {
      * @return info of target node, or null if not found
      */
     public T search(K key) {
-
-        return search(key, root);
+        BTNode<K,T> node = findNode(key);
+        return (node == null) ? null : node.info;
     }
 
     /**
-     * Recursive method that searches for a key within a subtree
-     * defined by cur as its root.
-     *
-     * @param key - traget node's key
-     * @param cur - current root of subtree being searched.
-     * @return info of target node, or null if not found.
+     * Returns the node whose info search returns.  Subclasses that
+     * restructure the tree on search override this rather than search.
+     * @param key - target node's key
+     * @return node with key, or null if not found
      */
-    private T search(K key, BTNode<K, T> cur) {
-        if (cur == null) return null;
+    BTNode<K,T> findNode(K key) {
+        BTNode<K,T> cur = root;
+        int depth = 0;
 
-        if (key.compareTo(cur.key) == 0)
-            return cur.info;
-        else if (key.compareTo(cur.key) < 0)
-            return search(key, cur.left);
-        else
-            return search(key, cur.right);
+        //Iterative descent comparing each node's key once
+        while (cur != null) {
+            depth++;
+
+            int cmp = key.compareTo(cur.key);
+            if (cmp == 0)
+                break;
+
+            cur = (cmp < 0) ? cur.left : cur.right;
+        }
+
+        if (metrics != null) metrics.recordSearch(depth);
+        return cur;
     }
 
     /**
@@ -148,88 +199,298 @@ public class BST<K extends Comparable<K>, T> {
         return cur;
     }
 
+    ///////////////////////////////////
+    // ORDERED NAVIGATION
+
+    /**
+     * @param key - target key
+     * @return node with the greatest key <= key, or null if none.
+     */
+    public BTNode<K,T> floor(K key) {
+        BTNode<K,T> best = null, cur = root;
+
+        while (cur != null) {
+            if (key.compareTo(cur.key) < 0)
+                cur = cur.left;
+            else {
+                best = cur;
+                cur = cur.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param key - target key
+     * @return node with the least key >= key, or null if none.
+     */
+    public BTNode<K,T> ceiling(K key) {
+        BTNode<K,T> best = null, cur = root;
+
+        while (cur != null) {
+            if (key.compareTo(cur.key) <= 0) {
+                best = cur;
+                cur = cur.left;
+            }
+            else
+                cur = cur.right;
+        }
+        return best;
+    }
+
+    /**
+     * @param key - target key
+     * @return node with the least key > key, or null if none.
+     */
+    public BTNode<K,T> higher(K key) {
+        BTNode<K,T> best = null, cur = root;
+
+        while (cur != null) {
+            if (key.compareTo(cur.key) < 0) {
+                best = cur;
+                cur = cur.left;
+            }
+            else
+                cur = cur.right;
+        }
+        return best;
+    }
+
+    /**
+     * @param key - target key
+     * @return node with the greatest key < key, or null if none.
+     */
+    public BTNode<K,T> lower(K key) {
+        BTNode<K,T> best = null, cur = root;
+
+        while (cur != null) {
+            if (key.compareTo(cur.key) > 0) {
+                best = cur;
+                cur = cur.right;
+            }
+            else
+                cur = cur.left;
+        }
+        return best;
+    }
+
+    /**
+     * @return cursor over every node in ascending key order.
+     */
+    public java.util.Iterator<BTNode<K,T>> iterator() {
+        return new BSTCursor<K,T>(this, null, null, true);
+    }
+
+    /**
+     * @return size-aware spliterator over every node in ascending key order
+     */
+    public java.util.Spliterator<BTNode<K,T>> spliterator() {
+        return new BSTSpliterator<K,T>(this, null, root);
+    }
+
+    /**
+     * @return sequential stream of every node in ascending key order
+     */
+    public java.util.stream.Stream<BTNode<K,T>> stream() {
+        return java.util.stream.StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return parallel stream of every node, split at subtree boundaries
+     */
+    public java.util.stream.Stream<BTNode<K,T>> parallelStream() {
+        return java.util.stream.StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Reduces every node of the tree in parallel on the common fork-join pool,
+     * forking one task per sufficiently large subtree.  The tree must not be
+     * modified during the reduction.
+     * @param identity - identity value for combiner
+     * @param mapper - maps a node to a partial result
+     * @param combiner - associative function combining partial results
+     * @return combiner applied over mapper of every node in inorder
+     */
+    public <R> R parallelReduce(R identity,
+                                java.util.function.Function<? super BTNode<K,T>, ? extends R> mapper,
+                                java.util.function.BinaryOperator<R> combiner) {
+
+        //Aim for several tasks per worker, but keep tasks coarse
+        int parallelism = java.util.concurrent.ForkJoinPool.getCommonPoolParallelism();
+        int threshold = Math.max(1024, count(root) / (4 * parallelism));
+
+        return java.util.concurrent.ForkJoinPool.commonPool().invoke(
+                new SubtreeReduceTask<K,T,R>(root, identity, mapper, combiner, threshold));
+    }
+
+    /**
+     * Returns a lazy cursor over the nodes with lo <= key < hi in ascending
+     * key order.  The tree must not be modified while the cursor is in use.
+     * @param lo - lower bound (inclusive), or null for no lower bound
+     * @param hi - upper bound (exclusive), or null for no upper bound
+     * @return cursor over the range
+     */
+    public BSTCursor<K,T> cursor(K lo, K hi) {
+        return new BSTCursor<K,T>(this, lo, hi, true);
+    }
+
+    /**
+     * Returns a lazy cursor over the nodes with lo <= key < hi in descending
+     * key order.  The tree must not be modified while the cursor is in use.
+     * @param lo - lower bound (inclusive), or null for no lower bound
+     * @param hi - upper bound (exclusive), or null for no upper bound
+     * @return cursor over the range
+     */
+    public BSTCursor<K,T> descendingCursor(K lo, K hi) {
+        return new BSTCursor<K,T>(this, lo, hi, false);
+    }
+
     /**
      * Performs an inorder traversal of the free.
      */
     public void inOrderTraverse() {
-        inOrderTraverse(root);
+        inOrderTraverse(node -> { visit(node); return true; });
     }
 
     /**
-     * Performs an inorder traversal of the tree given
-     * current node as root of subtree being traversed.
-     * @param node - root of current subtree.
+     * Performs an iterative inorder traversal of the tree using an explicit
+     * stack, applying visitor to each node until it returns false.
+     * @param visitor - operation applied to each node.
+     * @return true if every node was visited, false if stopped early.
      */
-    private void inOrderTraverse(BTNode<K,T> node) {
-        //Base case
-        if (node == null) return;
+    public boolean inOrderTraverse(TreeVisitor<K,T> visitor) {
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int top = 0;
+        BTNode<K,T> cur = root;
 
-        //Progress case
-        inOrderTraverse(node.left);
-        visit(node);
-        inOrderTraverse(node.right);
+        while (cur != null || top > 0) {
+
+            //Push the left spine of the current subtree
+            while (cur != null) {
+                if (top == stack.length) stack = grow(stack);
+                stack[top++] = cur;
+                cur = cur.left;
+            }
+
+            cur = stack[--top];
+            if (!visitor.visit(cur))
+                return false;
+            cur = cur.right;
+        }
+        return true;
     }
 
     /**
      * Performs an preorder traversal of the free.
      */
     public void preOrderTraverse() {
-        preOrderTraverse(root);
+        preOrderTraverse(node -> { visit(node); return true; });
     }
 
     /**
-     * Performs an preorder traversal of the tree given
-     * current node as root of subtree being traversed.
-     * @param node - root of current subtree.
+     * Performs an iterative preorder traversal of the tree using an explicit
+     * stack, applying visitor to each node until it returns false.
+     * @param visitor - operation applied to each node.
+     * @return true if every node was visited, false if stopped early.
      */
-    private void preOrderTraverse(BTNode<K,T> node) {
-        //Base Case
-        if (node == null) return;
-
-        visit(node);
-        preOrderTraverse(node.left);
-        preOrderTraverse(node.right);
+    public boolean preOrderTraverse(TreeVisitor<K,T> visitor) {
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int top = 0;
+
+        if (root != null)
+            stack[top++] = root;
+
+        while (top > 0) {
+            BTNode<K,T> cur = stack[--top];
+            if (!visitor.visit(cur))
+                return false;
+
+            //Push right first so the left subtree is visited first
+            if (top + 2 > stack.length) stack = grow(stack);
+            if (cur.right != null) stack[top++] = cur.right;
+            if (cur.left != null) stack[top++] = cur.left;
+        }
+        return true;
     }
 
     /**
      * Performs an postorder traversal of the free.
      */
     public void postOrderTraverse() {
-        postOrderTraverse(root);
+        postOrderTraverse(node -> { visit(node); return true; });
     }
 
     /**
-     * Performs an postorder traversal of the tree given
-     * current node as root of subtree being traversed.
-     * @param node - root of current subtree.
+     * Performs an iterative postorder traversal of the tree using an explicit
+     * stack, applying visitor to each node until it returns false.
+     * @param visitor - operation applied to each node.
+     * @return true if every node was visited, false if stopped early.
      */
-    private void postOrderTraverse(BTNode<K,T> node) {
-        //Base Case
-        if (node == null) return;
+    public boolean postOrderTraverse(TreeVisitor<K,T> visitor) {
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int top = 0;
+        BTNode<K,T> cur = root, last = null;
 
+        while (cur != null || top > 0) {
+            if (cur != null) {
+                if (top == stack.length) stack = grow(stack);
+                stack[top++] = cur;
+                cur = cur.left;
+                continue;
+            }
+
+            BTNode<K,T> peek = stack[top - 1];
 
-        postOrderTraverse(node.left);
-        postOrderTraverse(node.right);
-        visit(node);
+            //Right subtree not yet visited - descend into it
+            if (peek.right != null && peek.right != last) {
+                cur = peek.right;
+                continue;
+            }
+
+            top--;
+            if (!visitor.visit(peek))
+                return false;
+            last = peek;
+        }
+        return true;
     }
 
+    /**
+     * Performs a breadth first (level order) traversal of the tree.
+     * Only non-null children are queued and the queue grows as needed.
+     */
     public void breadthTraverse()
     {
-        Queue<BTNode<K,T>> queue = new ArrayQueue<>(size);
+        if (root == null) return;
+
+        Queue<BTNode<K,T>> queue = new RingBufferQueue<>();
         queue.enqueue(root);
 
         BTNode<K,T> cur;
         while (!queue.isEmpty()) {
             cur = queue.dequeue();
+            visit(cur);
 
-            if (cur != null) {
-                visit(cur);
-                queue.enqueue(cur.left);
-                queue.enqueue(cur.right);
-            }
+            if (cur.left != null) queue.enqueue(cur.left);
+            if (cur.right != null) queue.enqueue(cur.right);
         }
     }
 
+    /**
+     * @return cursor yielding every level of the tree, one batch at a time
+     */
+    public LevelCursor<K,T> levelCursor() {
+        return new LevelCursor<K,T>(this, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxLevels - number of levels to yield (1 = root only)
+     * @return cursor yielding the top maxLevels levels, one batch at a time
+     */
+    public LevelCursor<K,T> levelCursor(int maxLevels) {
+        return new LevelCursor<K,T>(this, maxLevels);
+    }
+
     /**
      * @return size of tree
      */
@@ -243,143 +504,220 @@ public class BST<K extends Comparable<K>, T> {
      * @return height of tree
      */
     public int getHeight() {
-        return getHeight(root);
-    }
-
-    /**
-     * Recursive private method to determine the height of a subtree given cur.
-     * @param cur - root of current subtree
-     * @return height of tree
-     */
-    private int getHeight(BTNode<K,T> cur) {
-        if (cur == null) return 0;
-
-        int leftHeight = getHeight(cur.left);
-        int rightHeight = getHeight(cur.right);
-
-        if (leftHeight > rightHeight)
-            return 1 + leftHeight;
+        if (cacheHeights)
+            return height(root);
         else
-            return 1 + rightHeight;
+            return getStats().getHeight();
     }
 
 
     /**
      * Determines if tree is full or not.
-     * @return true if balanced, false otherwise
+     * @return true if full, false otherwise
      */
     public boolean isFull() {
-        if (root == null) return false;
-        else
-            return isFull(root);
+        return getStats().isFull();
     }
 
     /**
-     * Determines if subtree with cur as root is full.
+     * Uses cached heights so only valid when cacheHeights is set.
      * @param cur - root of subtree
-     * @return true if full, false otherwise.
+     * @return height of right subtree minus height of left subtree
      */
-    private boolean isFull(BTNode<K,T> cur) {
-
-        if (cur.left == null && (cur.right == null))
-            return true;
-
-        else if (cur.left == null || (cur.right == null))
-            return false;
-
-        else
-            return isFull(cur.left) && isFull(cur.right);
-    }
-
     private int getBalanceFactor(BTNode<K,T> cur)
     {
-        return getHeight(cur.right) - getHeight(cur.left);
+        return height(cur.right) - height(cur.left);
     }
 
 
+    /**
+     * Determines if every node's balance factor is within [-1, 1].  Checks each
+     * node in O(1) when heights are cached, otherwise runs a single analysis pass.
+     * @return true if balanced, false otherwise
+     */
     public boolean isBalanced() {
-            return isBalanced(root);
-    }
+        if (!cacheHeights)
+            return getStats().isBalanced();
+
+        //Iterative preorder walk with a local stack, so readers share nothing
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int top = 0;
+        if (root != null)
+            stack[top++] = root;
 
-    private boolean isBalanced(BTNode<K,T> cur) {
+        while (top > 0) {
+            BTNode<K,T> cur = stack[--top];
 
-        if (cur == null)
-            return true;
+            if (Math.abs(getBalanceFactor(cur)) > 1)
+                return false;
 
-        if (Math.abs(getBalanceFactor(cur)) <= 1) {
-            return isBalanced(cur.left) && isBalanced(cur.right);
-        } else {
-            return false;
+            if (top + 2 > stack.length) stack = grow(stack);
+            if (cur.left != null) stack[top++] = cur.left;
+            if (cur.right != null) stack[top++] = cur.right;
         }
+        return true;
     }
 
     /**
-     * Performs a delete using deleteByCopy operations if deleted node has two children.
-     * @param key - key of node we wish to delete
+     * Computes height, node count, fullness, balance and the depth histogram
+     * of the tree in one iterative postorder pass with no recursion.  Nodes
+     * are only read (heights are computed on the side, not cached), so
+     * concurrent readers of an unmodified tree may call this safely.
+     * @return structural statistics of the tree
      */
-    public void deleteNodeByCopy(K key) {
-
-        //////////////////////
-        //Find Node
-        BTNode<K,T> prev=null, cur = root;
-        while (cur != null && !cur.key.equals(key)) {
-            prev = cur;
-            if (key.compareTo(cur.key) <= 0)
+    public TreeStats getStats() {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+
+        int count = 0;
+        boolean full = (root != null);
+        boolean balanced = true;
+        int [] histogram = new int[8];
+
+        //Iterative postorder traversal; a node's depth is its index in stack,
+        // and the heights of its finished subtrees are kept beside it
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int [] leftHeights = new int[STACK_SIZE];
+        int [] rightHeights = new int[STACK_SIZE];
+        int top = 0, height = 0;
+        BTNode<K,T> cur = root, last = null;
+
+        while (cur != null || top > 0) {
+            if (cur != null) {
+                if (top == stack.length) {
+                    stack = grow(stack);
+                    leftHeights = java.util.Arrays.copyOf(leftHeights, stack.length);
+                    rightHeights = java.util.Arrays.copyOf(rightHeights, stack.length);
+                }
+                stack[top] = cur;
+                leftHeights[top] = 0;
+                rightHeights[top] = 0;
+                top++;
                 cur = cur.left;
-            else
-                cur = cur.right;
-        }
+                continue;
+            }
 
-        if (cur == null) return;
+            BTNode<K,T> peek = stack[top - 1];
 
-        //Decrement size since deletion is now guaranteed
-        size--;
+            //Right subtree not yet visited - descend into it
+            if (peek.right != null && peek.right != last) {
+                cur = peek.right;
+                continue;
+            }
 
-        //////////////////////
-        //  Handle Copy from Immediate Predecessor
+            //Both subtrees done - visit peek
+            top--;
+            int leftHeight = leftHeights[top], rightHeight = rightHeights[top];
+            height = 1 + Math.max(leftHeight, rightHeight);
+
+            if ((peek.left == null) != (peek.right == null))
+                full = false;
+            if (Math.abs(rightHeight - leftHeight) > 1)
+                balanced = false;
+
+            if (top >= histogram.length)
+                histogram = java.util.Arrays.copyOf(histogram,
+                        Math.max(top + 1, histogram.length * 2));
+            histogram[top]++;
+            count++;
+
+            //Report the finished subtree's height to its parent
+            if (top > 0) {
+                if (stack[top - 1].left == peek) leftHeights[top - 1] = height;
+                else rightHeights[top - 1] = height;
+            }
 
-        BTNode<K,T> node = cur;
+            last = peek;
+        }
 
-        //No left child
-        if (cur.left == null)
-            node = cur.right;
+        //The root finishes last, so height is the tree's (0 if empty)
+        commitEvent(event, "getStats", height);
+        return new TreeStats(height, count, full, balanced,
+                java.util.Arrays.copyOf(histogram, height));
+    }
 
-            //No right child
-        else if (cur.right == null)
-            node = cur.left;
+    /**
+     * Enables or disables keeping a cached height in every node.  Enabling
+     * computes all heights once in O(n); afterwards insert and delete update
+     * the heights along the modified path only.
+     * @param enabled - true to cache heights
+     */
+    public void setHeightCaching(boolean enabled) {
+        if (enabled && !cacheHeights)
+            refreshHeights();
 
-            //If both children - then delete by copy
-        else {
-            //Find Right Most of Left Subtree
+        cacheHeights = enabled;
+    }
 
-            BTNode<K,T> tmp = cur.left,
-                    previous = cur;
+    /**
+     * Recomputes every node's cached height bottom-up in one iterative
+     * postorder pass.
+     */
+    private void refreshHeights() {
+        BTNode<K,T> [] stack = new BTNode[STACK_SIZE];
+        int top = 0;
+        BTNode<K,T> cur = root, last = null;
 
-            while(tmp.right != null) {
-                previous = tmp;
-                tmp = tmp.right;
+        while (cur != null || top > 0) {
+            if (cur != null) {
+                if (top == stack.length) stack = grow(stack);
+                stack[top++] = cur;
+                cur = cur.left;
+                continue;
             }
 
-            //Copy value into node to be deleted.
-            cur.key = tmp.key;
-            cur.info = tmp.info;
+            BTNode<K,T> peek = stack[top - 1];
+            if (peek.right != null && peek.right != last) {
+                cur = peek.right;
+                continue;
+            }
 
-            //Delete copied node
-            if (previous == cur)
-                previous.left = tmp.left;
-            else previous.right = tmp.left;
+            top--;
+            updateHeight(peek);
+            last = peek;
         }
+    }
 
+    /**
+     * @return true if node heights are cached
+     */
+    public boolean isHeightCaching() {
+        return cacheHeights;
+    }
 
-        //Update the appropriate "parent" node of the deleted
-        if (cur == root)
-            root = node;
-        else if (cur == prev.left)
-            prev.left = node;
+    /**
+     * Enables or disables operation counters.  While disabled (the default)
+     * each operation pays only a null check; enabling starts from zero.
+     * @param enabled - true to collect metrics
+     * @see TreeMetrics
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (!enabled)
+            metrics = null;
+        else if (metrics == null)
+            metrics = new TreeMetrics();
+    }
 
-        else
-            prev.right = node;
+    /**
+     * @return operation counters, or null if metrics are disabled
+     */
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Performs a delete using deleteByCopy operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByCopy(K key) {
+        int depth = locate(key);
 
+        if (depth < 0) {
+            if (metrics != null) metrics.recordDelete(locateLength);
+        }
+        else
+            detach(depth);
+        releasePath();
     }
 
 
@@ -391,19 +729,20 @@ public class BST<K extends Comparable<K>, T> {
 
         //////////////////////
         //Find Node
-        BTNode<K,T> prev=null, cur = root;
-        while (cur != null && !cur.key.equals(key)) {
-            prev = cur;
-            if (key.compareTo(cur.key) <= 0)
-                cur = cur.left;
-            else
-                cur = cur.right;
+        int depth = locate(key);
+
+        if (metrics != null) metrics.recordDelete(locateLength);
+        if (depth < 0) {
+            releasePath();
+            return;
         }
 
-        if (cur == null) return;
+        BTNode<K,T> cur = path[depth];
+        BTNode<K,T> prev = (depth == 0) ? null : path[depth - 1];
 
         //Decrement size since deletion is now guaranteed
         size--;
+        modCount++;
 
         //////////////////////
         //  Handle Delete
@@ -425,9 +764,13 @@ public class BST<K extends Comparable<K>, T> {
             BTNode<K,T> tmp = cur.left,
                     previous = cur;
 
+            //Left spine down to tmp replaces cur on the modified path
+            push(depth++, tmp);
+
             while(tmp.right != null) {
                 previous = tmp;
                 tmp = tmp.right;
+                push(depth++, tmp);
             }
             //At this point tmp is our immediate predecessor.
             //We need to move the deleted node's RST as temp's RST
@@ -446,6 +789,8 @@ public class BST<K extends Comparable<K>, T> {
         else
             prev.right = node;
 
+        updatePath(depth);
+        releasePath();
     }
 
     /**
@@ -453,90 +798,984 @@ public class BST<K extends Comparable<K>, T> {
      */
      int getCount()
     {
-        return getCount(root);
+        return count(root);
     }
 
     /**
-     *
-     * @param cur - root of current subtree
-     * @return number of nodes in subtree
+     * @return number of changes of any kind made through the tree's
+     * methods; while it is unchanged, so is every search result
      */
-    private int getCount(BTNode<K,T> cur) {
-        if (cur == null) return 0;
-        else
-            return 1 + getCount(cur.left) + getCount(cur.right);
+    int version() {
+        return modCount + infoModCount;
     }
 
     /**
-     * A method that "visits" a node to do some operation
-     * for this example it only prints the node.
-     * @param node - node to visit.
+     * Creates an empty tree that inserts and deletes exactly as this one
+     * does, so replaying the same operations into it gives the same shape.
+     * Subclasses override this to return their own type.
+     * @return new empty tree
      */
-    public void visit(BTNode<K,T> node) {
-        System.out.print(node.info + " ");
+    BST<K,T> newEmpty() {
+        BST<K,T> tree = new BST<K,T>();
+        tree.cacheHeights = cacheHeights;
+        return tree;
     }
 
 
+    ///////////////////////////////////
+    // MAP OPERATIONS
+
+    //Each of these treats the tree as a map and costs a single walk from
+    // the root: it acts on the node search would find, inserting at the
+    // point where that walk ended if there is none.  Changing the info of
+    // an existing node is not a structural modification, so it bumps
+    // infoModCount rather than modCount.
+
     /**
-     *
-     * @return array of all nodes from an inoder traversal
+     * Sets the info of key, inserting it if it is not in the tree.
+     * @param key - target key
+     * @param info - new info
+     * @return previous info of key, or null if it was not in the tree
      */
-    public BTNode<K,T> [] getTreeData() {
-        BTNode<K,T> [] data = new BTNode[size];
-        getTreeData(root, data, 0);
-        return data;
+    public T put(K key, T info) {
+        int depth = locate(key);
+
+        if (depth < 0) {
+            attach(-depth - 1, key, info);
+            releasePath();
+            return null;
+        }
+
+        if (metrics != null) metrics.recordSearch(locateLength);
+        BTNode<K,T> node = path[depth];
+        releasePath();
+
+        T old = node.info;
+        node.info = info;
+        infoModCount++;
+        return old;
     }
 
     /**
-     * Generates an array of all nodes recursively using inorder traversal
-     * @param cur - current node
-     * @param data - data array
-     * @param index - index for next insert in array
-     * @return updated index for next insert in array
+     * Inserts key with info unless key is already in the tree.
+     * @param key - target key
+     * @param info - info of the new node
+     * @return info of key if it was already in the tree, otherwise null
      */
-    private  int getTreeData(BTNode<K,T> cur, BTNode<K,T> [] data, int index)
-    {
-        //Base case
-        if (cur == null) return index;
+    public T putIfAbsent(K key, T info) {
+        int depth = locate(key);
 
-        //Inorder Traversal recursion
-        index = getTreeData(cur.left, data, index);
-        data[index] = cur;
-        index++;
-        index = getTreeData(cur.right, data, index);
+        if (depth < 0) {
+            attach(-depth - 1, key, info);
+            releasePath();
+            return null;
+        }
 
-        return index;
+        if (metrics != null) metrics.recordSearch(locateLength);
+        T old = path[depth].info;
+        releasePath();
+        return old;
     }
 
     /**
-     * Rebalances the tree kickoff function
+     * Replaces the info of key with remapping(key, info), where info is null
+     * if key is not in the tree.  A null result deletes key (by copy) or
+     * leaves it absent.
+     * @param key - target key
+     * @param remapping - computes the new info; must not modify the tree
+     * @return new info, or null if key is now absent
+     * @throws java.util.ConcurrentModificationException if remapping
+     * modified the tree
      */
-    public void rebalance() {
+    public T compute(K key,
+                     java.util.function.BiFunction<? super K, ? super T, ? extends T> remapping) {
+        try {
+            int depth = locate(key);
+            int expectedModCount = modCount;
+            int expectedLocates = locateCount;
+
+            T info = remapping.apply(key, (depth < 0) ? null : path[depth].info);
+            if (modCount != expectedModCount)
+                throw new java.util.ConcurrentModificationException();
+
+            //A read-only call from remapping may have overwritten path
+            if (locateCount != expectedLocates)
+                depth = locate(key);
+            return store(depth, key, info);
+        }
+        finally {
+            releasePath();
+        }
+    }
 
-        //Get data in sorted array
-        BTNode<K,T> [] data = getTreeData();
+    /**
+     * Inserts key with mapping(key) if key is not in the tree and the result
+     * is not null.
+     * @param key - target key
+     * @param mapping - computes the info of a new node; must not modify the tree
+     * @return info of key after the call, or null if it is absent
+     * @throws java.util.ConcurrentModificationException if mapping
+     * modified the tree
+     */
+    public T computeIfAbsent(K key,
+                             java.util.function.Function<? super K, ? extends T> mapping) {
+        try {
+            int depth = locate(key);
+
+            if (depth >= 0) {
+                if (metrics != null) metrics.recordSearch(locateLength);
+                return path[depth].info;
+            }
 
-        //Reset the tree
-        root = null;
+            int expectedModCount = modCount;
+            int expectedLocates = locateCount;
+            T info = mapping.apply(key);
+            if (modCount != expectedModCount)
+                throw new java.util.ConcurrentModificationException();
 
-        //Rebalance method
-        rebalance(data, 0, size-1);
+            //A read-only call from mapping may have overwritten path
+            if (locateCount != expectedLocates)
+                depth = locate(key);
+            return store(depth, key, info);
+        }
+        finally {
+            releasePath();
+        }
     }
 
     /**
-     * Recursive method to rebalance an array of tree node data.
-     * @param data - sorted array of tree data
-     * @param first - first index of subarray
-     * @param last - last index of subarray
+     * Inserts key with info if key is not in the tree, otherwise replaces its
+     * info with remapping(old info, info).  A null result deletes key (by
+     * copy).
+     * @param key - target key
+     * @param info - info of a new node, and second argument of remapping
+     * @param remapping - combines the old and given info; must not modify
+     *                    the tree
+     * @return new info, or null if key was deleted
+     * @throws java.util.ConcurrentModificationException if remapping
+     * modified the tree
      */
-    private void rebalance(BTNode<K,T> [] data, int first, int last) {
-        if (first <= last) {
-            int middle = (int) (first + last) / 2;
-            insert(data[middle].key, data[middle].info);
-            rebalance(data, first, middle - 1);
-            rebalance(data, middle+1, last);
+    public T merge(K key, T info,
+                   java.util.function.BiFunction<? super T, ? super T, ? extends T> remapping) {
+        try {
+            int depth = locate(key);
+
+            if (depth >= 0) {
+                int expectedModCount = modCount;
+                int expectedLocates = locateCount;
+                info = remapping.apply(path[depth].info, info);
+                if (modCount != expectedModCount)
+                    throw new java.util.ConcurrentModificationException();
+
+                //A read-only call from remapping may have overwritten path
+                if (locateCount != expectedLocates)
+                    depth = locate(key);
+            }
 
+            return store(depth, key, info);
         }
+        finally {
+            releasePath();
+        }
+    }
+
+    /**
+     * Deletes key (by copy) and returns its info.
+     * @param key - key of node we wish to delete
+     * @return info of the deleted node, or null if key was not in the tree
+     */
+    public T remove(K key) {
+        int depth = locate(key);
+
+        if (depth < 0) {
+            if (metrics != null) metrics.recordDelete(locateLength);
+            releasePath();
+            return null;
+        }
+
+        T info = path[depth].info;
+        detach(depth);
+        releasePath();
+        return info;
+    }
+
+    /**
+     * Applies the outcome of compute, computeIfAbsent or merge at the
+     * position found by locate.
+     * @param depth - result of locate
+     * @param key - target key
+     * @param info - new info, or null to delete key
+     * @return info
+     */
+    private T store(int depth, K key, T info) {
+        if (depth < 0) {
+            if (info != null)
+                attach(-depth - 1, key, info);
+            else if (metrics != null)
+                metrics.recordSearch(locateLength);
+        }
+        else if (info == null)
+            detach(depth);
+        else {
+            if (metrics != null) metrics.recordSearch(locateLength);
+            path[depth].info = info;
+            infoModCount++;
+        }
+        return info;
+    }
+
+    /**
+     * Searches for key recording every node visited in path, and sets
+     * locateLeft and locateLength.  Subclasses that restructure the tree
+     * on access override locate, attach and detach together.
+     * @param key - target key
+     * @return depth of the node with key within path, or (-depth - 1) where
+     * depth is the number of nodes on the path if key was not found
+     */
+    int locate(K key) {
+        BTNode<K,T> cur = root;
+        int depth = 0;
+        boolean left = false;
+        locateCount++;
+
+        while (cur != null) {
+            push(depth, cur);
+
+            int cmp = key.compareTo(cur.key);
+            if (cmp == 0) {
+                locateLength = depth + 1;
+                return depth;
+            }
+
+            depth++;
+            left = cmp < 0;
+            cur = left ? cur.left : cur.right;
+        }
+
+        locateLeft = left;
+        locateLength = depth;
+        return -depth - 1;
+    }
+
+    /**
+     * Adds a node for key where the last locate ended.
+     * @param depth - number of nodes on the path (from locate)
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    void attach(int depth, K key, T info) {
+        size++;
+        modCount++;
+
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+
+        if (depth == 0)
+            root = node;
+        else if (locateLeft)
+            path[depth - 1].left = node;
+        else
+            path[depth - 1].right = node;
+
+        updatePath(depth);
+        if (metrics != null) metrics.recordInsert(locateLength);
+    }
+
+    /**
+     * Removes the node found by the last locate, copying from its immediate
+     * predecessor if it has two children.
+     * @param depth - depth of the node within path (from locate)
+     */
+    void detach(int depth) {
+        if (metrics != null) metrics.recordDelete(locateLength);
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+        modCount++;
+
+        BTNode<K,T> cur = path[depth];
+        BTNode<K,T> node;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+            //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+            //If both children - then delete by copy
+        else {
+            //Find Right Most of Left Subtree; cur stays in the tree, so it
+            // remains on the modified path
+            BTNode<K,T> tmp = cur.left,
+                    previous = cur;
+            int end = depth + 1;
+
+            while(tmp.right != null) {
+                previous = tmp;
+                push(end++, tmp);
+                tmp = tmp.right;
+            }
+
+            //Copy value into node to be deleted.
+            cur.key = tmp.key;
+            cur.info = tmp.info;
+
+            //Delete copied node
+            if (previous == cur)
+                previous.left = tmp.left;
+            else previous.right = tmp.left;
+
+            updatePath(end);
+            return;
+        }
+
+        //Update the appropriate "parent" node of the deleted
+        if (depth == 0)
+            root = node;
+        else if (path[depth - 1].left == cur)
+            path[depth - 1].left = node;
+        else
+            path[depth - 1].right = node;
+
+        updatePath(depth);
+    }
+
+
+    ///////////////////////////////////
+    // ORDER STATISTICS
+
+    /**
+     * Returns the number of keys in the tree strictly less than key,
+     * i.e. the index key would have within an inorder traversal.
+     * @param key - target key (need not be in the tree)
+     * @return rank of key
+     */
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * Returns the node holding the index-th smallest key (0 = minimum).
+     * @param index - rank of the node to find
+     * @return node with the given rank, or null if index is out of range.
+     */
+    public BTNode<K,T> select(int index) {
+        if (index < 0 || index >= count(root)) return null;
+
+        BTNode<K,T> cur = root;
+        while (cur != null) {
+            int leftCount = count(cur.left);
+
+            if (index < leftCount)
+                cur = cur.left;
+            else if (index == leftCount)
+                return cur;
+            else {
+                index -= leftCount + 1;
+                cur = cur.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of keys k in the tree such that lo <= k <= hi.
+     * @param lo - lower bound (inclusive)
+     * @param hi - upper bound (inclusive)
+     * @return number of keys within the range
+     */
+    public int countInRange(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) return 0;
+
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    /**
+     * Counts keys less than (or equal to) key with a single root to leaf walk
+     * using the subtree sizes cached in each node.
+     * @param key - bound
+     * @param inclusive - true to also count keys equal to key
+     * @return number of keys below the bound
+     */
+    private int countBelow(K key, boolean inclusive) {
+        int below = 0;
+        BTNode<K,T> cur = root;
+
+        while (cur != null) {
+            int cmp = key.compareTo(cur.key);
+
+            //Node (and everything to its right) is not below the bound
+            if (cmp < 0 || (cmp == 0 && !inclusive))
+                cur = cur.left;
+            else {
+                below += count(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return below;
+    }
+
+    /**
+     * A method that "visits" a node to do some operation
+     * for this example it only prints the node.
+     * @param node - node to visit.
+     */
+    public void visit(BTNode<K,T> node) {
+        System.out.print(node.info + " ");
+    }
+
+
+    /**
+     *
+     * @return array of all nodes from an inoder traversal
+     */
+    public BTNode<K,T> [] getTreeData() {
+        BTNode<K,T> [] data = new BTNode[size];
+
+        inOrderTraverse(new TreeVisitor<K,T>() {
+            int index = 0;  //index for next insert in array
+
+            public boolean visit(BTNode<K,T> node) {
+                data[index++] = node;
+                return true;
+            }
+        });
+        return data;
+    }
+
+    /**
+     * Builds an immutable, read-optimized copy of the tree in O(n) whose
+     * keys are laid out in Eytzinger order in a flat array (see FrozenBST).
+     * Later changes to this tree do not affect the copy.
+     * @return frozen index of the current contents
+     */
+    public FrozenBST<K,T> freeze() {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+
+        FrozenBST<K,T> frozen = new FrozenBST<K,T>(this);
+
+        commitEvent(event, "freeze", cacheHeights ? height(root) : -1);
+        return frozen;
+    }
+
+    ///////////////////////////////////
+    // BATCH OPERATIONS
+
+    /**
+     * Returns a finger: a search that resumes from where the previous one
+     * ended, so that nearby keys cost comparisons proportional to their
+     * distance in the tree rather than its depth (see BSTFinger).
+     * @return new finger positioned at the root
+     */
+    public BSTFinger<K,T> finger() {
+        return new BSTFinger<K,T>(this);
+    }
+
+    /**
+     * Searches for every key in one pass over the tree: the keys are visited
+     * in sorted order by a single finger, so consecutive keys share the
+     * prefix of their search paths.
+     * @param keys - target keys, in any order
+     * @param infos - receives the info for each key (null if not found)
+     * @return number of keys found
+     */
+    public int searchAll(K [] keys, T [] infos) {
+        if (keys.length != infos.length)
+            throw new IllegalArgumentException("keys and infos differ in length");
+
+        BSTFinger<K,T> finger = finger();
+        int found = 0;
+
+        for (int i : sortedOrder(keys)) {
+            BTNode<K,T> node = finger.find(keys[i]);
+            infos[i] = (node == null) ? null : node.info;
+            if (node != null) found++;
+        }
+        return found;
+    }
+
+    /**
+     * Inserts every key, visiting them in sorted order so that consecutive
+     * keys share the prefix of their insertion paths.  Equal keys are
+     * inserted in their order within the batch, so the result is the same
+     * as inserting the sorted batch one key at a time, except that an empty
+     * tree is bulk loaded into a balanced one instead.  Sorted insertion
+     * into a plain BST chains keys that fall between the same two existing
+     * keys; call rebalance() after large batches.
+     *
+     * Cost: sorting is O(m log m) for m keys.  The finger shares only key
+     * comparisons between consecutive keys; every insert still walks its
+     * whole path from the root to fix subtree sizes (and cached heights),
+     * so each key costs O(depth) node updates, as insert does.  AVLTree and
+     * SplayTree insert each key with a plain insert.
+     * @param keys - keys of the new nodes, in any order
+     * @param infos - info for each key
+     */
+    public void insertAll(K [] keys, T [] infos) {
+        if (keys.length != infos.length)
+            throw new IllegalArgumentException("keys and infos differ in length");
+
+        int [] order = sortedOrder(keys);
+
+        if (root == null) {
+            K [] sortedKeys = keys.clone();
+            T [] sortedInfos = infos.clone();
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedInfos[i] = infos[order[i]];
+            }
+            bulkLoad(sortedKeys, sortedInfos, false, Duplicates.KEEP_ALL);
+            return;
+        }
+
+        BSTFinger<K,T> finger = finger();
+        for (int i : order)
+            insertAt(finger, keys[i], infos[i]);
+    }
+
+    /**
+     * Performs deleteNodeByCopy for every key, visiting them in sorted order
+     * so that consecutive keys share the prefix of their search paths.  As
+     * with insertAll, each delete still fixes sizes along its whole path, so
+     * it costs O(depth) node updates.
+     * @param keys - keys of the nodes to delete, in any order
+     */
+    public void deleteAll(K [] keys) {
+        BSTFinger<K,T> finger = finger();
+        for (int i : sortedOrder(keys))
+            deleteAt(finger, keys[i]);
+    }
+
+    /**
+     * Inserts one key of a sorted batch.  Subclasses that restructure the
+     * tree on insert override this with a plain insert.
+     * @param finger - finger shared by the batch
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    void insertAt(BSTFinger<K,T> finger, K key, T info) {
+        finger.insert(key, info);
+    }
+
+    /**
+     * Deletes one key of a sorted batch.  Subclasses that restructure the
+     * tree on delete override this with a plain deleteNodeByCopy.
+     * @param finger - finger shared by the batch
+     * @param key - key of node we wish to delete
+     */
+    void deleteAt(BSTFinger<K,T> finger, K key) {
+        finger.deleteByCopy(key);
+    }
+
+    /**
+     * @param keys - batch of keys
+     * @return indices of keys in ascending key order, equal keys in batch
+     * order
+     */
+    private static <K extends Comparable<K>> int [] sortedOrder(K [] keys) {
+        int [] order = new int[keys.length];
+        boolean sorted = true;
+
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = i;
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) > 0)
+                sorted = false;
+        }
+        if (sorted) return order;
+
+        //Stable sort of the indices
+        Integer [] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            boxed[i] = i;
+        java.util.Arrays.sort(boxed, (a, b) -> keys[a].compareTo(keys[b]));
+
+        for (int i = 0; i < keys.length; i++)
+            order[i] = boxed[i];
+        return order;
+    }
+
+    ///////////////////////////////////
+    // BULK LOADING
+
+    /**
+     * How bulkLoad treats consecutive entries with equal keys.
+     */
+    public enum Duplicates {
+        KEEP_ALL,     //keep every entry (same as repeated insert)
+        KEEP_FIRST,   //keep only the first entry for each key
+        KEEP_LAST,    //keep the key once with the last entry's info
+        REJECT        //throw IllegalArgumentException
+    }
+
+    /**
+     * Builds a perfectly balanced tree from keys already in ascending order.
+     * @param keys - sorted keys
+     * @param infos - info for each key
+     * @return new tree holding every key
+     */
+    public static <K extends Comparable<K>, T> BST<K,T> fromSorted(K [] keys, T [] infos) {
+        BST<K,T> tree = new BST<K,T>();
+        tree.bulkLoad(keys, infos, true, Duplicates.KEEP_ALL);
+        return tree;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from entries already in ascending
+     * key order.
+     * @param entries - sorted key/info pairs
+     * @return new tree holding every entry
+     */
+    public static <K extends Comparable<K>, T> BST<K,T> fromSorted(
+            Iterable<? extends java.util.Map.Entry<K,T>> entries) {
+        BST<K,T> tree = new BST<K,T>();
+        tree.bulkLoad(entries, true, Duplicates.KEEP_ALL);
+        return tree;
+    }
+
+    /**
+     * Replaces the contents of the tree with sorted keys in O(n).  The keys
+     * are linked into a vine which is then folded into a perfectly balanced
+     * tree, so no key is compared against the tree.  The tree is left
+     * untouched if an exception is thrown.
+     * @param keys - keys in ascending order
+     * @param infos - info for each key
+     * @param validate - true to check ordering (throws IllegalArgumentException)
+     * @param duplicates - how to treat equal consecutive keys
+     */
+    public void bulkLoad(K [] keys, T [] infos, boolean validate, Duplicates duplicates) {
+        if (keys.length != infos.length)
+            throw new IllegalArgumentException("keys and infos differ in length");
+
+        BTNode<K,T> pseudoRoot = new BTNode<K,T>(null, null);
+        BTNode<K,T> tail = pseudoRoot;
+        int count = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            BTNode<K,T> next = appendToVine(pseudoRoot, tail, keys[i], infos[i],
+                    validate, duplicates);
+            if (next != tail) {
+                tail = next;
+                count++;
+            }
+        }
+
+        finishBulkLoad(pseudoRoot, count);
+    }
+
+    /**
+     * Replaces the contents of the tree with sorted entries in O(n).
+     * @param entries - key/info pairs in ascending key order
+     * @param validate - true to check ordering (throws IllegalArgumentException)
+     * @param duplicates - how to treat equal consecutive keys
+     * @see #bulkLoad(Comparable[], Object[], boolean, Duplicates)
+     */
+    public void bulkLoad(Iterable<? extends java.util.Map.Entry<K,T>> entries,
+                         boolean validate, Duplicates duplicates) {
+        BTNode<K,T> pseudoRoot = new BTNode<K,T>(null, null);
+        BTNode<K,T> tail = pseudoRoot;
+        int count = 0;
+
+        for (java.util.Map.Entry<K,T> entry : entries) {
+            BTNode<K,T> next = appendToVine(pseudoRoot, tail, entry.getKey(),
+                    entry.getValue(), validate, duplicates);
+            if (next != tail) {
+                tail = next;
+                count++;
+            }
+        }
+
+        finishBulkLoad(pseudoRoot, count);
+    }
+
+    /**
+     * Appends a key to the end of a vine being built by bulkLoad.
+     * @param pseudoRoot - head of the vine
+     * @param tail - last node of the vine
+     * @param key - next key
+     * @param info - next info
+     * @param validate - true to check key is not less than tail's key
+     * @param duplicates - how to treat a key equal to tail's key
+     * @return new tail of the vine (tail itself if key was not added)
+     */
+    private BTNode<K,T> appendToVine(BTNode<K,T> pseudoRoot, BTNode<K,T> tail,
+                                     K key, T info, boolean validate,
+                                     Duplicates duplicates) {
+
+        //Only compare with the previous key when something depends on it
+        if (tail != pseudoRoot && (validate || duplicates != Duplicates.KEEP_ALL)) {
+            int cmp = key.compareTo(tail.key);
+
+            if (cmp < 0 && validate)
+                throw new IllegalArgumentException("Keys not in sorted order: "
+                        + key + " follows " + tail.key);
+
+            if (cmp == 0) {
+                switch (duplicates) {
+                    case KEEP_FIRST:
+                        return tail;
+                    case KEEP_LAST:
+                        tail.info = info;
+                        return tail;
+                    case REJECT:
+                        throw new IllegalArgumentException("Duplicate key: " + key);
+                    default:
+                        break;
+                }
+            }
+        }
+
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+        tail.right = node;
+        return node;
+    }
+
+    /**
+     * Folds a completed vine into a balanced tree and installs it as the tree.
+     * @param pseudoRoot - head of the vine
+     * @param count - number of nodes in the vine
+     */
+    private void finishBulkLoad(BTNode<K,T> pseudoRoot, int count) {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+
+        vineToTree(pseudoRoot, count);
+
+        root = pseudoRoot.right;
+        size = count;
+        modCount++;
+
+        if (metrics != null) metrics.recordRebuild();
+        commitEvent(event, "bulkLoad", balancedHeight(count));
+    }
+
+    /**
+     * Rebalances the tree in place using the Day-Stout-Warren algorithm.
+     * The existing nodes are relinked into a perfectly balanced shape in
+     * O(n) time without copying the tree data or allocating per node.
+     */
+    public void rebalance() {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+
+        //Pseudo-root whose right subtree is the tree being rebalanced
+        BTNode<K,T> pseudoRoot = new BTNode<K,T>(null, null);
+        pseudoRoot.right = root;
+
+        modCount++;
+
+        //Flatten the tree into a sorted right-leaning "vine"
+        size = treeToVine(pseudoRoot);
+
+        //Fold the vine back into a balanced tree
+        vineToTree(pseudoRoot, size);
+
+        root = pseudoRoot.right;
+
+        if (metrics != null) metrics.recordRebuild();
+        commitEvent(event, "rebalance", balancedHeight(size));
+    }
+
+    /**
+     * Flattens the subtree to the right of pseudoRoot into a vine (a linked
+     * list through the right references) in sorted order using right rotations.
+     * @param pseudoRoot - node whose right subtree is flattened
+     * @return number of nodes in the vine
+     */
+    private int treeToVine(BTNode<K,T> pseudoRoot) {
+        BTNode<K,T> tail = pseudoRoot;
+        BTNode<K,T> rest = tail.right;
+        int count = 0;
+
+        while (rest != null) {
+            //Nothing to the left - advance along the vine
+            if (rest.left == null) {
+                tail = rest;
+                rest = rest.right;
+                count++;
+            }
+            //Otherwise rotate the left child up into the vine
+            else {
+                BTNode<K,T> tmp = rest.left;
+                rest.left = tmp.right;
+                tmp.right = rest;
+                rest = tmp;
+                tail.right = tmp;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Turns the vine to the right of pseudoRoot into a perfectly balanced
+     * tree by repeated passes of left rotations.
+     * @param pseudoRoot - node whose right subtree is the vine
+     * @param count - number of nodes in the vine
+     */
+    private void vineToTree(BTNode<K,T> pseudoRoot, int count) {
+
+        //Each vine node's subtree is the rest of the vine below it
+        int remaining = count;
+        for (BTNode<K,T> cur = pseudoRoot.right; cur != null; cur = cur.right) {
+            cur.count = remaining;
+            cur.height = remaining;
+            remaining--;
+        }
+
+        //Largest complete tree that fits; the remainder become bottom leaves
+        int complete = Integer.highestOneBit(count + 1) - 1;
+        compress(pseudoRoot, count - complete);
+
+        while (complete > 1) {
+            complete /= 2;
+            compress(pseudoRoot, complete);
+        }
+    }
+
+    /**
+     * Performs a left rotation on every other node along the vine, keeping
+     * the subtree sizes and heights of the rotated nodes up to date.
+     * @param pseudoRoot - node whose right subtree is the vine
+     * @param count - number of rotations to perform
+     */
+    private void compress(BTNode<K,T> pseudoRoot, int count) {
+        BTNode<K,T> scanner = pseudoRoot;
+
+        for (int i = 0; i < count; i++) {
+            BTNode<K,T> child = scanner.right;
+            scanner.right = child.right;
+            scanner = scanner.right;
+            child.right = scanner.left;
+            scanner.left = child;
+
+            update(child);
+            update(scanner);
+        }
+    }
+
+
+
+
+    /**
+     * @param count - number of nodes
+     * @return height of the tree vineToTree builds from count nodes
+     */
+    private static int balancedHeight(int count) {
+        return 32 - Integer.numberOfLeadingZeros(count);
+    }
+
+    /**
+     * Completes a whole-tree operation event and commits it if the flight
+     * recorder is recording it.
+     * @param event - event begun when the operation started
+     * @param operation - name of the operation
+     * @param height - height of the tree afterwards (-1 if unknown)
+     */
+    void commitEvent(TreeOperationEvent event, String operation, int height) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.treeClass = getClass().getSimpleName();
+            event.nodes = size;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+
+    ///////////////////////////////////
+    // PATH AND HEIGHT HELPERS
+
+    /**
+     * Records node at the given depth of path, growing it if needed.
+     * @param depth - index within path
+     * @param node - node visited at that depth
+     */
+    void push(int depth, BTNode<K,T> node) {
+        if (depth == path.length)
+            path = grow(path);
+        path[depth] = node;
+        if (depth >= pathTop)
+            pathTop = depth + 1;
+    }
+
+    /**
+     * Ends an operation's use of path: clears the entries it used so that
+     * deleted nodes (and their keys and infos) are not kept reachable, and
+     * drops a path grown long by a deep tree back to its initial size.
+     */
+    void releasePath() {
+        if (path.length > MAX_RETAINED_PATH)
+            path = new BTNode[STACK_SIZE];
+        else
+            java.util.Arrays.fill(path, 0, pathTop, null);
+        pathTop = 0;
+    }
+
+    /**
+     * @param stack - full traversal stack
+     * @return copy of stack with double the capacity
+     */
+    static <K extends Comparable<K>, T> BTNode<K,T> [] grow(BTNode<K,T> [] stack) {
+        BTNode<K,T> [] bigger = new BTNode[stack.length * 2];
+        System.arraycopy(stack, 0, bigger, 0, stack.length);
+        return bigger;
+    }
+
+    /**
+     * @param node - root of subtree or null
+     * @return cached height of the subtree (0 if empty)
+     */
+    int height(BTNode<K,T> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Recomputes the cached height of node from its children.
+     * @param node - node to update.
+     */
+    void updateHeight(BTNode<K,T> node) {
+        int leftHeight = height(node.left);
+        int rightHeight = height(node.right);
+        node.height = 1 + ((leftHeight > rightHeight) ? leftHeight : rightHeight);
+    }
+
+    /**
+     * @param node - root of subtree or null
+     * @return number of nodes in the subtree (0 if empty)
+     */
+    int count(BTNode<K,T> node) {
+        return (node == null) ? 0 : node.count;
+    }
+
+    /**
+     * Recomputes the subtree size of node from its children.
+     * @param node - node to update.
+     */
+    void updateCount(BTNode<K,T> node) {
+        node.count = 1 + count(node.left) + count(node.right);
+    }
+
+    /**
+     * Recomputes the subtree size, and the height if heights are cached,
+     * of node from its children.
+     * @param node - node to update.
+     */
+    void update(BTNode<K,T> node) {
+        updateCount(node);
+        if (cacheHeights)
+            updateHeight(node);
+    }
+
+    /**
+     * Recomputes subtree sizes (and cached heights) bottom-up for
+     * path[depth-1] ... path[0].
+     * @param depth - number of nodes on the modified path
+     */
+    private void updatePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--)
+            update(path[i]);
     }
 
 
@@ -0,0 +1,125 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @Description:  A lazy, ordered cursor over the nodes of a BST whose keys lie
+ * within [lo, hi).  The constructor descends once to the first node in range;
+ * afterwards each call to next() streams the inorder successor (or predecessor
+ * when descending) in amortized O(1) time using an explicit stack of the
+ * pending ancestors.  Nothing is copied out of the tree.
+ */
+public class BSTCursor<K extends Comparable<K>, T>
+    implements Iterator<BTNode<K, T>> {
+
+    private BST<K,T> tree;
+    private K lo;               //lower bound (inclusive), null if unbounded
+    private K hi;               //upper bound (exclusive), null if unbounded
+    private boolean ascending;
+    private int expectedModCount;
+
+    private BTNode<K,T> [] stack;  //ancestors still to be returned
+    private int top;
+    private BTNode<K,T> next;      //next node to return, null when exhausted
+
+    /**
+     * Default constructor
+     * @param tree - tree to iterate over
+     * @param lo - lower bound (inclusive), or null for no lower bound
+     * @param hi - upper bound (exclusive), or null for no upper bound
+     * @param ascending - true for increasing key order, false for decreasing
+     */
+    public BSTCursor(BST<K,T> tree, K lo, K hi, boolean ascending) {
+        this.tree = tree;
+        this.lo = lo;
+        this.hi = hi;
+        this.ascending = ascending;
+        this.expectedModCount = tree.modCount;
+        this.stack = new BTNode[BST.STACK_SIZE];
+        this.top = 0;
+
+        //Descend once recording every node that may still be in range
+        BTNode<K,T> cur = tree.root;
+        while (cur != null) {
+            if (ascending) {
+                if (lo == null || cur.key.compareTo(lo) >= 0) {
+                    push(cur);
+                    cur = cur.left;
+                }
+                else
+                    cur = cur.right;
+            }
+            else {
+                if (hi == null || cur.key.compareTo(hi) < 0) {
+                    push(cur);
+                    cur = cur.right;
+                }
+                else
+                    cur = cur.left;
+            }
+        }
+
+        advance();
+    }
+
+    /**
+     * @return true if there is another node in range.
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Returns the next node in range and moves the cursor past it.
+     * @return next node in key order.
+     */
+    public BTNode<K,T> next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        if (tree.modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+
+        BTNode<K,T> node = next;
+        advance();
+        return node;
+    }
+
+    /**
+     * Pops the next node off the stack, pushes the spine of its other subtree
+     * and checks it against the far bound of the range.
+     */
+    private void advance() {
+        if (top == 0) {
+            next = null;
+            return;
+        }
+
+        BTNode<K,T> node = stack[--top];
+
+        //Stop as soon as the far bound is crossed
+        if (ascending ? (hi != null && node.key.compareTo(hi) >= 0)
+                      : (lo != null && node.key.compareTo(lo) < 0)) {
+            next = null;
+            top = 0;
+            return;
+        }
+
+        BTNode<K,T> cur = ascending ? node.right : node.left;
+        while (cur != null) {
+            push(cur);
+            cur = ascending ? cur.left : cur.right;
+        }
+
+        next = node;
+    }
+
+    /**
+     * Pushes node onto the stack, growing it if needed.
+     * @param node - pending ancestor
+     */
+    private void push(BTNode<K,T> node) {
+        if (top == stack.length)
+            stack = BST.grow(stack);
+        stack[top++] = node;
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.Arrays;
+
+/**
+ * @Description:  A search finger: a search that resumes from the position
+ * of the previous one instead of restarting at the root.
+ *
+ * The finger keeps the path from the root to the last node it visited
+ * along with, for each node on that path, the keys of its nearest
+ * ancestors reached from the left and from the right.  Those two keys
+ * bound every key whose search passes through the node, so a new search
+ * climbs the path only until the key is within bounds and descends from
+ * there.  For nearby keys the comparisons are proportional to the distance
+ * to their common ancestor rather than to the depth of the tree, and a
+ * pass over keys in sorted order visits each node a small constant number
+ * of times.  Only comparisons are saved this way: insert and deleteByCopy
+ * fix subtree sizes along the whole path from the root, so every update
+ * still costs O(depth).
+ *
+ * Results match BST.search.  If the tree is changed other than through the
+ * finger, the next search restarts at the root.
+ */
+public class BSTFinger<K extends Comparable<K>, T> {
+
+    private final BST<K,T> tree;
+    private int expectedModCount;
+
+    //nodes[0..depth-1] is the path from the root; lows[i] (highs[i]) is the
+    // key of the nearest ancestor of nodes[i] reached from its right (left),
+    // or null if there is none
+    private BTNode<K,T> [] nodes;
+    private K [] lows;
+    private K [] highs;
+    private int depth;
+
+    /**
+     * Default constructor
+     * @param tree - tree to search
+     */
+    BSTFinger(BST<K,T> tree) {
+        this.tree = tree;
+        this.nodes = new BTNode[BST.STACK_SIZE];
+        this.lows = (K []) new Comparable[BST.STACK_SIZE];
+        this.highs = (K []) new Comparable[BST.STACK_SIZE];
+        this.depth = 0;
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        BTNode<K,T> node = find(key);
+        return (node == null) ? null : node.info;
+    }
+
+    /**
+     * Returns the node with the target key, leaving the finger on it (or on
+     * the last node of its search path).
+     * @param key - target node's key
+     * @return node with key, or null if not found
+     */
+    public BTNode<K,T> find(K key) {
+        int length = resume(key, false);
+        int start = depth;
+        BTNode<K,T> node = descend(key);
+        length += (depth == 0) ? 0 : depth - start + 1;
+
+        if (tree.metrics != null) tree.metrics.recordSearch(length);
+        return node;
+    }
+
+
+    ///////////////////////////////////
+    // UPDATES (used by BST's batch operations)
+
+    /**
+     * Inserts a leaf exactly as BST.insert does.  The descent resumes from
+     * the finger, but every node on the path from the root is updated.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    void insert(K key, T info) {
+        int length = resume(key, true);
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+
+        tree.size++;
+        tree.modCount++;
+        expectedModCount = tree.modCount;
+
+        //Special case - empty tree
+        if (depth == 0) {
+            tree.root = node;
+            push(node, null, null);
+            if (tree.metrics != null) tree.metrics.recordInsert(0);
+            return;
+        }
+
+        //Equal keys go right, as in BST.insert
+        BTNode<K,T> cur = nodes[depth - 1];
+        int start = depth;
+        boolean left;
+        while (true) {
+            left = key.compareTo(cur.key) < 0;
+            BTNode<K,T> next = left ? cur.left : cur.right;
+
+            if (next == null) {
+                if (left) cur.left = node;
+                else cur.right = node;
+                break;
+            }
+            descendTo(next, left);
+            cur = next;
+        }
+
+        for (int i = depth - 1; i >= 0; i--)
+            tree.update(nodes[i]);
+
+        length += depth - start + 1;
+        descendTo(node, left);
+        if (tree.metrics != null) tree.metrics.recordInsert(length);
+    }
+
+    /**
+     * Deletes a node with key exactly as BST.deleteNodeByCopy does.  The
+     * descent resumes from the finger, but every node on the path from the
+     * root is updated.
+     * @param key - key of node we wish to delete
+     */
+    void deleteByCopy(K key) {
+        int length = resume(key, false);
+        int start = depth;
+        BTNode<K,T> cur = descend(key);
+        length += (depth == 0) ? 0 : depth - start + 1;
+
+        if (tree.metrics != null) tree.metrics.recordDelete(length);
+        if (cur == null) return;
+
+        tree.size--;
+        tree.modCount++;
+        expectedModCount = tree.modCount;
+
+        //cur is nodes[depth - 1]
+        int level = depth - 1;
+
+        if (cur.left != null && cur.right != null) {
+            //Copy from the immediate predecessor; cur keeps its place
+            descendTo(cur.left, true);
+            BTNode<K,T> tmp = cur.left;
+            while (tmp.right != null) {
+                tmp = tmp.right;
+                descendTo(tmp, false);
+            }
+
+            cur.key = tmp.key;
+            cur.info = tmp.info;
+
+            //Unlink tmp from its parent, the path's next to last node
+            BTNode<K,T> previous = nodes[depth - 2];
+            if (previous == cur)
+                previous.left = tmp.left;
+            else
+                previous.right = tmp.left;
+
+            for (int i = depth - 2; i > level; i--)
+                tree.update(nodes[i]);
+
+            //Bounds below cur named its old key, so stop the path at cur
+            depth = level + 1;
+        }
+        else {
+            BTNode<K,T> child = (cur.left != null) ? cur.left : cur.right;
+
+            if (level == 0)
+                tree.root = child;
+            else if (nodes[level - 1].left == cur)
+                nodes[level - 1].left = child;
+            else
+                nodes[level - 1].right = child;
+
+            depth = level;
+        }
+
+        for (int i = depth - 1; i >= 0; i--)
+            tree.update(nodes[i]);
+    }
+
+
+    ///////////////////////////////////
+    // PATH
+
+    /**
+     * Climbs the path until its last node's bounds admit key, or restarts
+     * at the root if the tree has changed.
+     * @param key - target key
+     * @param insert - true to route equal keys right (insert) rather than
+     *                 stopping at them (search)
+     * @return number of key comparisons made
+     */
+    private int resume(K key, boolean insert) {
+        if (tree.modCount != expectedModCount || depth == 0) {
+            expectedModCount = tree.modCount;
+            depth = 0;
+            if (tree.root != null)
+                push(tree.root, null, null);
+            return 0;
+        }
+
+        int compares = 0;
+        int i = depth - 1;
+        boolean inside = false;
+
+        while (i > 0) {
+            //A level with the same bounds as the one below it fails as well
+            if (i == depth - 1 || lows[i] != lows[i + 1] || highs[i] != highs[i + 1]) {
+                inside = true;
+                if (lows[i] != null) {
+                    compares++;
+                    int cmp = key.compareTo(lows[i]);
+                    inside = insert ? cmp >= 0 : cmp > 0;
+                }
+                if (inside && highs[i] != null) {
+                    compares++;
+                    inside = key.compareTo(highs[i]) < 0;
+                }
+                if (inside) break;
+            }
+            i--;
+        }
+
+        depth = i + 1;
+        return compares;
+    }
+
+    /**
+     * Descends from the last node of the path by search order, extending
+     * the path with every node visited.
+     * @param key - target key
+     * @return node with key, or null if not found
+     */
+    private BTNode<K,T> descend(K key) {
+        if (depth == 0) return null;
+
+        BTNode<K,T> cur = nodes[depth - 1];
+        while (true) {
+            int cmp = key.compareTo(cur.key);
+            if (cmp == 0)
+                return cur;
+
+            BTNode<K,T> next = (cmp < 0) ? cur.left : cur.right;
+            if (next == null)
+                return null;
+
+            descendTo(next, cmp < 0);
+            cur = next;
+        }
+    }
+
+    /**
+     * Appends a child of the path's last node to the path.
+     * @param child - child of nodes[depth - 1]
+     * @param left - true if it is the left child
+     */
+    private void descendTo(BTNode<K,T> child, boolean left) {
+        BTNode<K,T> parent = nodes[depth - 1];
+        if (left)
+            push(child, lows[depth - 1], parent.key);
+        else
+            push(child, parent.key, highs[depth - 1]);
+    }
+
+    /**
+     * @param node - node to append to the path
+     * @param low - key of its nearest ancestor reached from the right
+     * @param high - key of its nearest ancestor reached from the left
+     */
+    private void push(BTNode<K,T> node, K low, K high) {
+        if (depth == nodes.length) {
+            nodes = BST.grow(nodes);
+            lows = Arrays.copyOf(lows, depth * 2);
+            highs = Arrays.copyOf(highs, depth * 2);
+        }
+        nodes[depth] = node;
+        lows[depth] = low;
+        highs[depth] = high;
+        depth++;
+    }
+}
@@ -0,0 +1,313 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @Description:  Writes a BST to a compact binary file and loads it back with
+ * exactly the same shape.
+ *
+ * File layout (big-endian):
+ *   int     MAGIC
+ *   int     VERSION
+ *   int     n, the number of nodes
+ *   bytes   structure bitmap, 2 bits per node in preorder (bit 0 = has left
+ *           child, bit 1 = has right child), four nodes per byte
+ *   records key then info of every node in preorder, as written by the codecs
+ *
+ * Writing streams the file through a small buffer.  Loading memory-maps the
+ * file and relinks the nodes in one O(n) pass without comparing any keys;
+ * subtree sizes and heights are computed as each subtree completes, so the
+ * result is valid for AVLTree and trees that cache heights.
+ */
+public class BSTSerializer<K extends Comparable<K>, T> {
+
+    //"BSTF"
+    public static final int MAGIC = 0x42535446;
+    public static final int VERSION = 1;
+
+    //Structure bits of a node
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+
+    //Size of the write buffer
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Codec<K> keyCodec;
+    private final Codec<T> infoCodec;
+
+    /**
+     * Default constructor
+     * @param keyCodec - codec for keys
+     * @param infoCodec - codec for info (see Codecs.nullable for null info)
+     */
+    public BSTSerializer(Codec<K> keyCodec, Codec<T> infoCodec) {
+        this.keyCodec = keyCodec;
+        this.infoCodec = infoCodec;
+    }
+
+
+    ///////////////////////////////////
+    // WRITING
+
+    /**
+     * Writes tree to file, replacing any existing contents.
+     * @param tree - tree to write
+     * @param file - destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(BST<K,T> tree, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(tree, channel);
+        }
+    }
+
+    /**
+     * Streams tree to channel.  The tree must not be modified meanwhile.
+     * @param tree - tree to write
+     * @param channel - destination channel (left open)
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(BST<K,T> tree, WritableByteChannel channel) throws IOException {
+        int n = tree.size;
+        BTNode<K,T> [] stack = new BTNode[BST.STACK_SIZE];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n);
+
+        //First preorder pass - structure bitmap
+        byte [] bitmap = new byte[bitmapLength(n)];
+        int index = 0, top = 0;
+        if (tree.root != null)
+            stack[top++] = tree.root;
+
+        while (top > 0) {
+            BTNode<K,T> cur = stack[--top];
+            int bits = (cur.left != null ? LEFT : 0) | (cur.right != null ? RIGHT : 0);
+            bitmap[index >>> 2] |= (byte) (bits << ((index & 3) * 2));
+            index++;
+
+            //Right pushed first so that left is visited first
+            if (top + 2 > stack.length) stack = BST.grow(stack);
+            if (cur.right != null) stack[top++] = cur.right;
+            if (cur.left != null) stack[top++] = cur.left;
+        }
+
+        if (index != n)
+            throw new IllegalStateException("Tree has " + index + " nodes but size " + n);
+
+        for (int offset = 0; offset < bitmap.length; ) {
+            if (!buffer.hasRemaining())
+                flush(buffer, channel);
+
+            int length = Math.min(buffer.remaining(), bitmap.length - offset);
+            buffer.put(bitmap, offset, length);
+            offset += length;
+        }
+
+        //Second preorder pass - keys and info
+        if (tree.root != null)
+            stack[top++] = tree.root;
+
+        while (top > 0) {
+            BTNode<K,T> cur = stack[--top];
+            buffer = encode(keyCodec, cur.key, buffer, channel);
+            buffer = encode(infoCodec, cur.info, buffer, channel);
+
+            if (top + 2 > stack.length) stack = BST.grow(stack);
+            if (cur.right != null) stack[top++] = cur.right;
+            if (cur.left != null) stack[top++] = cur.left;
+        }
+
+        flush(buffer, channel);
+    }
+
+    /**
+     * Encodes value into buffer, first draining the buffer to channel (or
+     * replacing it with a larger one) if the value does not fit.
+     * @param codec - codec for value
+     * @param value - value to write
+     * @param buffer - current write buffer
+     * @param channel - destination channel
+     * @return buffer now holding value (possibly a new, larger buffer)
+     * @throws IOException if the channel cannot be written
+     */
+    private <E> ByteBuffer encode(Codec<E> codec, E value, ByteBuffer buffer,
+                                  WritableByteChannel channel) throws IOException {
+        while (true) {
+            int start = buffer.position();
+            try {
+                codec.encode(value, buffer);
+                return buffer;
+            }
+            catch (BufferOverflowException e) {
+                buffer.position(start);
+
+                //Value alone is larger than the buffer
+                if (start == 0)
+                    buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                else
+                    flush(buffer, channel);
+            }
+        }
+    }
+
+    /**
+     * Writes everything in buffer to channel and clears it.
+     * @param buffer - write buffer
+     * @param channel - destination channel
+     * @throws IOException if the channel cannot be written
+     */
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+
+    ///////////////////////////////////
+    // LOADING
+
+    /**
+     * Loads a tree written by write().
+     * @param file - source file
+     * @return new tree with the saved contents and shape
+     * @throws IOException if the file cannot be read or is not a valid tree file
+     */
+    public BST<K,T> read(Path file) throws IOException {
+        BST<K,T> tree = new BST<K,T>();
+        read(file, tree);
+        return tree;
+    }
+
+    /**
+     * Replaces the contents of tree with a tree written by write(), e.g. to
+     * load into an AVLTree.  The shape is restored as saved, so an AVLTree
+     * should only be loaded from a file written from an AVLTree.  The tree
+     * is left untouched if an exception is thrown.
+     * @param file - source file
+     * @param tree - tree to load into
+     * @throws IOException if the file cannot be read or is not a valid tree file
+     */
+    public void read(Path file, BST<K,T> tree) throws IOException {
+        TreeOperationEvent event = new TreeOperationEvent();
+        event.begin();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE)
+                throw new IOException("Tree file too large to map: " + file);
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (length < 12 || buffer.getInt() != MAGIC)
+                throw new IOException("Not a tree file: " + file);
+            if (buffer.getInt() != VERSION)
+                throw new IOException("Unsupported tree file version: " + file);
+
+            int n = buffer.getInt();
+            if (n < 0 || bitmapLength(n) > buffer.remaining())
+                throw new IOException("Corrupt tree file: " + file);
+
+            BTNode<K,T> root = decode(buffer, n, tree);
+
+            tree.root = root;
+            tree.size = n;
+            tree.modCount++;
+        }
+        catch (BufferUnderflowException e) {
+            throw new EOFException("Truncated tree file: " + file);
+        }
+        catch (RuntimeException e) {
+            //A codec rejected damaged bytes
+            throw new IOException("Corrupt tree file: " + file, e);
+        }
+
+        tree.commitEvent(event, "load", tree.height(tree.root));
+    }
+
+    /**
+     * Rebuilds the saved shape from the bitmap and records at buffer's position.
+     *
+     * Nodes arrive in preorder, so each one is the next unfilled child of the
+     * deepest node still missing one.  The stack holds the nodes whose
+     * subtrees are not yet complete; a node is popped, and its size and
+     * height computed, as soon as every child its bits call for is present
+     * and complete.
+     * @param buffer - mapped file positioned at the bitmap
+     * @param n - number of nodes
+     * @param tree - tree providing the size/height helpers
+     * @return root of the rebuilt tree
+     * @throws IOException if the structure is inconsistent
+     */
+    private BTNode<K,T> decode(ByteBuffer buffer, int n, BST<K,T> tree) throws IOException {
+        int bitmapStart = buffer.position();
+        buffer.position(bitmapStart + bitmapLength(n));
+
+        BTNode<K,T> root = null;
+        BTNode<K,T> [] stack = new BTNode[BST.STACK_SIZE];
+        byte [] stackBits = new byte[BST.STACK_SIZE];
+        int top = 0;
+
+        for (int i = 0; i < n; i++) {
+            int bits = (buffer.get(bitmapStart + (i >>> 2)) >>> ((i & 3) * 2)) & 3;
+            BTNode<K,T> node = new BTNode<K,T>(keyCodec.decode(buffer),
+                    infoCodec.decode(buffer));
+
+            //Attach to the deepest incomplete node
+            if (top == 0) {
+                if (root != null)
+                    throw new IOException("Corrupt tree file: more than one root");
+                root = node;
+            }
+            else {
+                BTNode<K,T> parent = stack[top - 1];
+                if ((stackBits[top - 1] & LEFT) != 0 && parent.left == null)
+                    parent.left = node;
+                else
+                    parent.right = node;
+            }
+
+            if (top == stack.length) {
+                stack = BST.grow(stack);
+                stackBits = java.util.Arrays.copyOf(stackBits, stack.length);
+            }
+            stack[top] = node;
+            stackBits[top++] = (byte) bits;
+
+            //Pop every node whose subtree is now complete
+            while (top > 0) {
+                BTNode<K,T> cur = stack[top - 1];
+                int curBits = stackBits[top - 1];
+
+                if (((curBits & LEFT) != 0 && cur.left == null)
+                        || ((curBits & RIGHT) != 0 && cur.right == null))
+                    break;
+
+                top--;
+                tree.updateCount(cur);
+                tree.updateHeight(cur);
+            }
+        }
+
+        if (top != 0)
+            throw new IOException("Corrupt tree file: missing nodes");
+        return root;
+    }
+
+    /**
+     * @param n - number of nodes
+     * @return number of bytes in the structure bitmap
+     */
+    private static int bitmapLength(int n) {
+        return (int) ((2L * n + 7) / 8);
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @Description:  A size-aware Spliterator over the nodes of a BST in inorder.
+ * It covers an optional single node followed by every node of a subtree.
+ * Splitting hands the left subtree (and the pending node) to the new
+ * spliterator and keeps the subtree root and its right subtree, so splits
+ * follow subtree boundaries and the subtree sizes cached in each node give
+ * exact estimates without walking the tree.
+ */
+public class BSTSpliterator<K extends Comparable<K>, T>
+    implements Spliterator<BTNode<K, T>> {
+
+    private BST<K,T> tree;
+    private int expectedModCount;
+
+    private BTNode<K,T> first;     //node returned before the subtree, or null
+    private BTNode<K,T> subtree;   //subtree not yet started, or null
+
+    private BTNode<K,T> [] stack;  //traversal stack, null until started
+    private int top;
+
+    /**
+     * Default constructor
+     * @param tree - tree being traversed
+     * @param first - node returned first, or null
+     * @param subtree - subtree traversed after first, or null
+     */
+    BSTSpliterator(BST<K,T> tree, BTNode<K,T> first, BTNode<K,T> subtree) {
+        this.tree = tree;
+        this.expectedModCount = tree.modCount;
+        this.first = first;
+        this.subtree = subtree;
+        this.stack = null;
+        this.top = 0;
+    }
+
+    /**
+     * Processes the next node in inorder, if any.
+     * @param action - operation applied to the node
+     * @return false if no nodes remain
+     */
+    public boolean tryAdvance(Consumer<? super BTNode<K,T>> action) {
+        start();
+
+        BTNode<K,T> node;
+        if (first != null) {
+            node = first;
+            first = null;
+        }
+        else if (top > 0) {
+            node = stack[--top];
+            pushLeftSpine(node.right);
+        }
+        else
+            return false;
+
+        action.accept(node);
+
+        if (tree.modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+        return true;
+    }
+
+    /**
+     * Processes every remaining node in inorder.
+     * @param action - operation applied to each node
+     */
+    public void forEachRemaining(Consumer<? super BTNode<K,T>> action) {
+        start();
+
+        if (first != null) {
+            action.accept(first);
+            first = null;
+        }
+
+        while (top > 0) {
+            BTNode<K,T> node = stack[--top];
+            pushLeftSpine(node.right);
+            action.accept(node);
+        }
+
+        if (tree.modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Splits off the nodes that precede the current subtree root.
+     * @return spliterator over the first part, or null if not splittable
+     */
+    public Spliterator<BTNode<K,T>> trySplit() {
+        while (stack == null && subtree != null) {
+            BTNode<K,T> split = subtree;
+
+            //Prefix: pending node, then left subtree
+            BTNode<K,T> prefixFirst = first;
+            BTNode<K,T> prefixSubtree = split.left;
+
+            //This keeps the subtree root followed by its right subtree
+            first = split;
+            subtree = split.right;
+
+            if (prefixFirst != null || prefixSubtree != null)
+                return new BSTSpliterator<K,T>(tree, prefixFirst, prefixSubtree);
+        }
+        return null;
+    }
+
+    /**
+     * @return exact number of remaining nodes
+     */
+    public long estimateSize() {
+        long size = (first != null) ? 1 : 0;
+
+        if (stack == null)
+            return size + tree.count(subtree);
+
+        //Each stacked node brings its right subtree
+        for (int i = 0; i < top; i++)
+            size += 1 + tree.count(stack[i].right);
+        return size;
+    }
+
+    /**
+     * @return characteristics of an inorder traversal of a BST
+     */
+    public int characteristics() {
+        return ORDERED | SORTED | SIZED | SUBSIZED | NONNULL;
+    }
+
+    /**
+     * @return null since nodes are sorted by their natural (key) order
+     */
+    public java.util.Comparator<? super BTNode<K,T>> getComparator() {
+        return null;
+    }
+
+    /**
+     * Begins the traversal of the subtree if not already started.
+     */
+    private void start() {
+        if (stack != null) return;
+
+        stack = new BTNode[BST.STACK_SIZE];
+        pushLeftSpine(subtree);
+        subtree = null;
+    }
+
+    /**
+     * Pushes cur and its chain of left descendants.
+     * @param cur - root of subtree
+     */
+    private void pushLeftSpine(BTNode<K,T> cur) {
+        while (cur != null) {
+            if (top == stack.length) stack = BST.grow(stack);
+            stack[top++] = cur;
+            cur = cur.left;
+        }
+    }
+}
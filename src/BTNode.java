@@ -13,6 +13,9 @@ public class BTNode<K extends Comparable<K>,T>
     BTNode<K,T> left;
     BTNode<K,T> right;
 
+    int height;  //Cached height of subtree rooted here (leaf = 1); see BST.setHeightCaching
+    int count;   //Number of nodes in subtree rooted here (leaf = 1)
+
     /**
      * Default constructor
      * @param key - key for the node
@@ -23,6 +26,8 @@ public class BTNode<K extends Comparable<K>,T>
         this.info = info;
         this.left = null;
         this.right = null;
+        this.height = 1;
+        this.count = 1;
     }
 
     ///////////////////////////////////
@@ -56,6 +61,20 @@ public class BTNode<K extends Comparable<K>,T>
         return right;
     }
 
+    /**
+     * @return cached height of the subtree rooted at this node
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return number of nodes in the subtree rooted at this node
+     */
+    public int getCount() {
+        return count;
+    }
+
 
     ///////////////////////////////////
     // SETTERS
@@ -0,0 +1,242 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * @Description:  A bounded cache of fixed-size pages of a file.
+ *
+ * A page is pinned while in use and unpinned (marking it dirty if it was
+ * changed) when done.  When a page that is not cached is pinned and the pool
+ * is full, the least recently used unpinned page is evicted, and written
+ * back first if it is dirty.  Pages past the end of the file read as zeros.
+ * Not thread-safe.
+ */
+public class BufferPool implements Closeable {
+
+    /**
+     * Cached copy of one page.
+     */
+    private static final class Frame {
+        long pageId;
+        final ByteBuffer data;
+        int pins;
+        boolean dirty;
+
+        Frame(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int capacity;
+
+    //Cached frames, least recently used first
+    private final LinkedHashMap<Long, Frame> frames;
+
+    private long hits;
+    private long misses;
+    private long writes;
+
+    /**
+     * Default constructor
+     * @param channel - file holding the pages (closed with the pool)
+     * @param pageSize - bytes per page
+     * @param capacity - maximum number of cached pages
+     */
+    public BufferPool(FileChannel channel, int pageSize, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.capacity = capacity;
+        this.frames = new LinkedHashMap<Long, Frame>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached page, reading it (and evicting another) if needed.
+     * Every pin must be matched by an unpin.
+     * @param pageId - page number within the file
+     * @return page contents; valid until unpinned
+     * @throws UncheckedIOException if the file cannot be read or written
+     * @throws IllegalStateException if every cached page is pinned
+     */
+    public ByteBuffer pin(long pageId) {
+        Frame frame = frames.get(pageId);
+
+        if (frame != null)
+            hits++;
+        else {
+            misses++;
+            frame = victim();
+            frame.pageId = pageId;
+            read(frame);
+            frames.put(pageId, frame);
+        }
+
+        frame.pins++;
+        return frame.data;
+    }
+
+    /**
+     * Releases a pin taken by pin().
+     * @param pageId - page number within the file
+     * @param dirty - true if the page was modified
+     */
+    public void unpin(long pageId, boolean dirty) {
+        Frame frame = frames.get(pageId);
+        if (frame == null || frame.pins == 0)
+            throw new IllegalStateException("Page not pinned: " + pageId);
+
+        frame.pins--;
+        frame.dirty |= dirty;
+    }
+
+    /**
+     * Writes every dirty page back and forces the file to disk.
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public void flush() {
+        for (Frame frame : frames.values())
+            if (frame.dirty)
+                write(frame);
+
+        try {
+            channel.force(false);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the pool and closes the file.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return bytes per page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return maximum number of cached pages
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of pins satisfied from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of pins that read the page from the file
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of pages written back
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+
+    ///////////////////////////////////
+    // FRAMES
+
+    /**
+     * @return a free frame: a new one while below capacity, otherwise the
+     * least recently used unpinned frame after writing it back if dirty.
+     */
+    private Frame victim() {
+        if (frames.size() < capacity)
+            return new Frame(ByteBuffer.allocate(pageSize));
+
+        Iterator<Frame> iterator = frames.values().iterator();
+        while (iterator.hasNext()) {
+            Frame frame = iterator.next();
+            if (frame.pins > 0)
+                continue;
+
+            if (frame.dirty)
+                write(frame);
+            iterator.remove();
+            return frame;
+        }
+
+        throw new IllegalStateException("All " + capacity + " buffer pool pages are pinned");
+    }
+
+    /**
+     * Fills a frame from the file, zero-filling anything past its end.
+     * @param frame - frame whose pageId is set
+     */
+    private void read(Frame frame) {
+        ByteBuffer data = frame.data;
+        long position = frame.pageId * pageSize;
+        data.clear();
+
+        try {
+            while (data.hasRemaining()) {
+                if (channel.read(data, position + data.position()) < 0)
+                    break;
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        while (data.hasRemaining())
+            data.put((byte) 0);
+        data.clear();
+        frame.dirty = false;
+    }
+
+    /**
+     * Writes a frame back to its page of the file.
+     * @param frame - dirty frame
+     */
+    private void write(Frame frame) {
+        ByteBuffer data = frame.data;
+        long position = frame.pageId * pageSize;
+        data.clear();
+
+        try {
+            while (data.hasRemaining())
+                channel.write(data, position + data.position());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        data.clear();
+        frame.dirty = false;
+        writes++;
+    }
+}
@@ -0,0 +1,256 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Description:  A bounded read-through cache of search results in front of
+ * a BST.
+ *
+ * search answers repeated lookups of the same keys from a hash map instead
+ * of descending the tree.  Both hits and misses (keys not in the tree) are
+ * cached, and once the cache holds capacity keys the least recently used
+ * key is evicted.  insert, both deletes and the map operations (put,
+ * putIfAbsent, compute, computeIfAbsent, merge and remove) go to the tree
+ * and drop only the changed key from the cache, since none of them changes
+ * the info found for any other key.
+ *
+ * Coherence: any change made through the tree's own methods, including
+ * calls on getTree(), is detected, and the whole cache is dropped on the
+ * next search.  Writing to a node the tree hands out (e.g. setInfo on the
+ * result of floor or select) is not detected; call clear() after doing so.
+ *
+ * Not thread-safe.
+ */
+public class CachedBST<K extends Comparable<K>, T> {
+
+    //Cached value for a key whose search returned null
+    private static final Object NULL_INFO = new Object();
+
+    private final BST<K,T> tree;
+    private final int capacity;
+
+    //Cached search results, least recently used first
+    private final LinkedHashMap<K, Object> cache;
+
+    //tree.version() when the cache was last known to match the tree
+    private int expectedVersion;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Default constructor
+     * @param tree - tree to search
+     * @param capacity - maximum number of cached keys
+     */
+    public CachedBST(BST<K,T> tree, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        this.tree = tree;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Object> eldest) {
+                return size() > CachedBST.this.capacity;
+            }
+        };
+        this.expectedVersion = tree.version();
+    }
+
+    /**
+     * Inserts key with info into the tree.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public void insert(K key, T info) {
+        boolean current = (tree.version() == expectedVersion);
+        tree.insert(key, info);
+        invalidate(key, current);
+    }
+
+    /**
+     * Performs a BST.deleteNodeByCopy.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByCopy(K key) {
+        boolean current = (tree.version() == expectedVersion);
+        tree.deleteNodeByCopy(key);
+        invalidate(key, current);
+    }
+
+    /**
+     * Performs a BST.deleteNodeByMerge.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByMerge(K key) {
+        boolean current = (tree.version() == expectedVersion);
+        tree.deleteNodeByMerge(key);
+        invalidate(key, current);
+    }
+
+    /**
+     * Performs a BST.put.
+     * @param key - target key
+     * @param info - new info
+     * @return previous info of key, or null if it was not in the tree
+     */
+    public T put(K key, T info) {
+        boolean current = (tree.version() == expectedVersion);
+        T old = tree.put(key, info);
+        invalidate(key, current);
+        return old;
+    }
+
+    /**
+     * Performs a BST.putIfAbsent.
+     * @param key - target key
+     * @param info - info of the new node
+     * @return info of key if it was already in the tree, otherwise null
+     */
+    public T putIfAbsent(K key, T info) {
+        boolean current = (tree.version() == expectedVersion);
+        T old = tree.putIfAbsent(key, info);
+        invalidate(key, current);
+        return old;
+    }
+
+    /**
+     * Performs a BST.compute.
+     * @param key - target key
+     * @param remapping - computes the new info; must not modify the tree
+     * @return new info, or null if key is now absent
+     */
+    public T compute(K key,
+                     java.util.function.BiFunction<? super K, ? super T, ? extends T> remapping) {
+        boolean current = (tree.version() == expectedVersion);
+        T info = tree.compute(key, remapping);
+        invalidate(key, current);
+        return info;
+    }
+
+    /**
+     * Performs a BST.computeIfAbsent.
+     * @param key - target key
+     * @param mapping - computes the info of a new node; must not modify the tree
+     * @return info of key after the call, or null if it is absent
+     */
+    public T computeIfAbsent(K key,
+                             java.util.function.Function<? super K, ? extends T> mapping) {
+        boolean current = (tree.version() == expectedVersion);
+        T info = tree.computeIfAbsent(key, mapping);
+        invalidate(key, current);
+        return info;
+    }
+
+    /**
+     * Performs a BST.merge.
+     * @param key - target key
+     * @param info - info of a new node, and second argument of remapping
+     * @param remapping - combines the old and given info; must not modify
+     *                    the tree
+     * @return new info, or null if key was deleted
+     */
+    public T merge(K key, T info,
+                   java.util.function.BiFunction<? super T, ? super T, ? extends T> remapping) {
+        boolean current = (tree.version() == expectedVersion);
+        T result = tree.merge(key, info, remapping);
+        invalidate(key, current);
+        return result;
+    }
+
+    /**
+     * Performs a BST.remove.
+     * @param key - key of node we wish to delete
+     * @return info of the deleted node, or null if key was not in the tree
+     */
+    public T remove(K key) {
+        boolean current = (tree.version() == expectedVersion);
+        T info = tree.remove(key);
+        invalidate(key, current);
+        return info;
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree, from
+     * the cache if it is there.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        if (tree.version() != expectedVersion)
+            clear();
+
+        Object cached = cache.get(key);
+        if (cached != null) {
+            hits++;
+            return (cached == NULL_INFO) ? null : (T) cached;
+        }
+
+        misses++;
+        T info = tree.search(key);
+
+        //A splay tree restructures itself on search
+        expectedVersion = tree.version();
+        cache.put(key, (info == null) ? NULL_INFO : info);
+        return info;
+    }
+
+    /**
+     * Drops every cached key.
+     */
+    public void clear() {
+        cache.clear();
+        expectedVersion = tree.version();
+    }
+
+    /**
+     * @return the tree behind the cache; changes made through its methods
+     * drop the whole cache on the next search
+     */
+    public BST<K,T> getTree() {
+        return tree;
+    }
+
+    /**
+     * @return size of tree
+     */
+    public int getSize() {
+        return tree.getSize();
+    }
+
+    /**
+     * @return maximum number of cached keys
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of searches answered from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of searches that descended the tree
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Drops key from the cache after a change made through this class.  If
+     * the tree had also been changed directly, the cache is left stale so
+     * that the next search drops all of it.
+     * @param key - changed key
+     * @param current - true if the cache matched the tree before the change
+     */
+    private void invalidate(K key, boolean current) {
+        if (current) {
+            cache.remove(key);
+            expectedVersion = tree.version();
+        }
+    }
+}
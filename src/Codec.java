@@ -0,0 +1,42 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Defines the interface for converting keys or info to and from the bytes
+ * of a serialized tree (see BSTSerializer and Codecs).  Implementations
+ * must be safe to call from several threads at once, since LoggedBST
+ * decodes during compaction while writers encode.
+ */
+
+public interface Codec<E> {
+
+
+    /**
+     * Writes value at the buffer's position, advancing it.  If the value
+     * does not fit in the remaining space a BufferOverflowException is thrown;
+     * the caller then discards any partial output, makes room and retries.
+     * @param value - value to be written.
+     * @param buffer - destination buffer.
+     */
+    public void encode(E value, ByteBuffer buffer);
+
+
+    /**
+     * Reads a value written by encode from the buffer's position, advancing it.
+     * Bytes that are not a valid encoding raise a RuntimeException, e.g. a
+     * BufferUnderflowException if the value runs past the buffer's limit.
+     * @param buffer - source buffer.
+     * @return value read.
+     */
+    public E decode(ByteBuffer buffer);
+
+
+    /**
+     * Returns the number of bytes every encoded value takes, for users that
+     * need fixed-size records such as DiskBPlusTree.
+     * @return encoded size in bytes, or -1 if values vary in size.
+     */
+    public default int fixedSize() {
+        return -1;
+    }
+
+}
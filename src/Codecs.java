@@ -0,0 +1,100 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Description:  Codecs for common key and info types.  Fixed-size types are
+ * written in the buffer's byte order; strings as a length-prefixed UTF-8
+ * byte sequence.  None of them accept null; wrap with nullable() for info
+ * that may be null.
+ */
+public final class Codecs {
+
+    private Codecs() {
+    }
+
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        public void encode(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+
+        public int fixedSize() {
+            return 4;
+        }
+    };
+
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        public void encode(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+
+        public int fixedSize() {
+            return 8;
+        }
+    };
+
+    public static final Codec<Double> DOUBLE = new Codec<Double>() {
+        public void encode(Double value, ByteBuffer buffer) {
+            buffer.putDouble(value);
+        }
+
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+
+        public int fixedSize() {
+            return 8;
+        }
+    };
+
+    public static final Codec<String> STRING = new Codec<String>() {
+        public void encode(String value, ByteBuffer buffer) {
+            byte [] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        public String decode(ByteBuffer buffer) {
+            //Check the length before allocating, in case the bytes are damaged
+            int length = buffer.getInt();
+            if (length < 0)
+                throw new IllegalArgumentException("Negative string length " + length);
+            if (length > buffer.remaining())
+                throw new BufferUnderflowException();
+
+            byte [] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param codec - codec for non-null values
+     * @return codec that also accepts null, at the cost of one byte per value
+     */
+    public static <E> Codec<E> nullable(final Codec<E> codec) {
+        return new Codec<E>() {
+            public void encode(E value, ByteBuffer buffer) {
+                buffer.put((byte) (value == null ? 0 : 1));
+                if (value != null)
+                    codec.encode(value, buffer);
+            }
+
+            public E decode(ByteBuffer buffer) {
+                return (buffer.get() == 0) ? null : codec.decode(buffer);
+            }
+
+            public int fixedSize() {
+                return (codec.fixedSize() < 0) ? -1 : 1 + codec.fixedSize();
+            }
+        };
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Description:  This is a thread-safe binary search tree with lock-free
+ * reads and fine-grained locking for writers.
+ *
+ * The tree is leaf-oriented (external): keys and info live only in leaves,
+ * and internal nodes merely route searches (keys < node.key go left, all
+ * others go right).  Every update is a single write of a volatile child link,
+ * and a node unlinked from the tree never has its own links changed, so a
+ * reader that is walking through it still reaches a consistent leaf.
+ *
+ *  - search takes no locks and is linearizable at its read of the leaf.
+ *  - insert locks only the leaf's parent, delete locks grandparent then parent
+ *    (always top-down, so writers cannot deadlock).  Both locate their
+ *    position without locks and validate it after locking, retrying if a
+ *    concurrent writer changed it.  Writers in different subtrees therefore
+ *    never contend.
+ *
+ * Unlike BST, keys are unique: inserting an existing key replaces its info.
+ */
+public class ConcurrentBST<K extends Comparable<K>, T> {
+
+    /**
+     * Tree node.  Leaves hold keys and info; internal nodes only route.
+     * inf is 0 for real keys, otherwise the node's key is one of two
+     * sentinels larger than every real key (1 < 2).
+     */
+    private static final class Node<K, T> {
+        final K key;
+        final int inf;
+        final boolean leaf;
+        volatile T info;
+        volatile Node<K,T> left;
+        volatile Node<K,T> right;
+        volatile boolean removed;  //set once unlinked, under the parent's lock
+
+        Node(K key, int inf, boolean leaf, T info) {
+            this.key = key;
+            this.inf = inf;
+            this.leaf = leaf;
+            this.info = info;
+        }
+    }
+
+    private final Node<K,T> root;
+    private final LongAdder size;
+
+    /**
+     * Default constructor.  Creates an empty tree consisting of a sentinel
+     * root with two sentinel leaves.
+     */
+    public ConcurrentBST() {
+        root = new Node<K,T>(null, 2, false, null);
+        root.left = new Node<K,T>(null, 1, true, null);
+        root.right = new Node<K,T>(null, 2, true, null);
+        size = new LongAdder();
+    }
+
+
+    /**
+     * Returns the info of the node with the target key in the tree, without
+     * taking any locks.  Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        Node<K,T> cur = root;
+
+        while (!cur.leaf)
+            cur = goesLeft(key, cur) ? cur.left : cur.right;
+
+        return matches(key, cur) ? cur.info : null;
+    }
+
+    /**
+     * Inserts key with info, replacing the info if key is already present.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public void insert(K key, T info) {
+
+        while (true) {
+            //Locate the leaf without locking
+            Node<K,T> parent = null, leaf = root;
+            while (!leaf.leaf) {
+                parent = leaf;
+                leaf = goesLeft(key, leaf) ? leaf.left : leaf.right;
+            }
+
+            synchronized (parent) {
+                //Validate that parent is still in the tree and still points at leaf
+                boolean left = goesLeft(key, parent);
+                if (parent.removed || (left ? parent.left : parent.right) != leaf)
+                    continue;
+
+                //Existing key - replace its info
+                if (matches(key, leaf)) {
+                    leaf.info = info;
+                    return;
+                }
+
+                //Replace leaf by a routing node over leaf and the new leaf
+                Node<K,T> node = new Node<K,T>(key, 0, true, info);
+                Node<K,T> internal;
+                if (compare(key, leaf) < 0) {
+                    internal = new Node<K,T>(leaf.key, leaf.inf, false, null);
+                    internal.left = node;
+                    internal.right = leaf;
+                }
+                else {
+                    internal = new Node<K,T>(key, 0, false, null);
+                    internal.left = leaf;
+                    internal.right = node;
+                }
+
+                if (left)
+                    parent.left = internal;
+                else
+                    parent.right = internal;
+
+                size.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes the node with key by replacing its parent with its sibling.
+     * @param key - key of node we wish to delete
+     * @return true if the key was found and removed
+     */
+    public boolean delete(K key) {
+
+        while (true) {
+            //Locate the leaf without locking
+            Node<K,T> grand = null, parent = null, leaf = root;
+            while (!leaf.leaf) {
+                grand = parent;
+                parent = leaf;
+                leaf = goesLeft(key, leaf) ? leaf.left : leaf.right;
+            }
+
+            if (!matches(key, leaf))
+                return false;
+
+            //Real leaves are never children of the root, so grand is non-null
+            synchronized (grand) {
+                synchronized (parent) {
+                    boolean parentLeft = goesLeft(key, grand);
+                    boolean leafLeft = goesLeft(key, parent);
+
+                    //Validate that nothing on the path changed since it was read
+                    if (grand.removed || parent.removed
+                            || (parentLeft ? grand.left : grand.right) != parent
+                            || (leafLeft ? parent.left : parent.right) != leaf)
+                        continue;
+
+                    Node<K,T> sibling = leafLeft ? parent.right : parent.left;
+
+                    if (parentLeft)
+                        grand.left = sibling;
+                    else
+                        grand.right = sibling;
+
+                    parent.removed = true;
+                    leaf.removed = true;
+                    size.decrement();
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return size of tree (exact when no writers are active)
+     */
+    public int getSize() {
+        return size.intValue();
+    }
+
+
+    ///////////////////////////////////
+    // COMPARISON
+
+    /**
+     * Compares a real key with a node's key, treating sentinels as larger
+     * than every real key.
+     * @param key - real key
+     * @param node - node being compared
+     * @return < 0, 0 or > 0 as key is less than, equal to or greater than node
+     */
+    private int compare(K key, Node<K,T> node) {
+        return (node.inf > 0) ? -1 : key.compareTo(node.key);
+    }
+
+    /**
+     * @param key - search key
+     * @param node - internal node
+     * @return true if the search for key continues into node's left subtree
+     */
+    private boolean goesLeft(K key, Node<K,T> node) {
+        return compare(key, node) < 0;
+    }
+
+    /**
+     * @param key - search key
+     * @param leaf - leaf reached by a search
+     * @return true if leaf holds key
+     */
+    private boolean matches(K key, Node<K,T> leaf) {
+        return leaf.inf == 0 && key.compareTo(leaf.key) == 0;
+    }
+
+}
@@ -0,0 +1,913 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * @Description:  This is a B+-tree stored in fixed-size pages of a file and
+ * accessed through a bounded LRU BufferPool, so the tree may be many times
+ * larger than the heap.
+ *
+ * Entries live only in leaves, which are chained left to right for ordered
+ * iteration; internal pages hold separator keys and child page numbers, so
+ * each lookup reads O(log_B n) pages where B is the number of entries that
+ * fit in a page.  Keys and info are stored in fixed-size slots, so both
+ * codecs must have a fixedSize().  As in ConcurrentBST, keys are unique:
+ * inserting an existing key replaces its info.
+ *
+ * Page 0 holds the metadata; changed pages are written back when evicted
+ * and by flush() and close().  The file is consistent only after flush() or
+ * close(), and after an I/O error (UncheckedIOException) the tree must be
+ * reopened.  Not thread-safe.
+ */
+public class DiskBPlusTree<K extends Comparable<K>, T>
+    implements Iterable<Map.Entry<K, T>>, Closeable {
+
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    public static final int DEFAULT_POOL_PAGES = 1024;
+
+    //"BPTF"
+    private static final int MAGIC = 0x42505446;
+    private static final int VERSION = 1;
+
+    //Metadata page layout
+    private static final int META_MAGIC = 0, META_VERSION = 4, META_PAGE_SIZE = 8,
+            META_KEY_SIZE = 12, META_INFO_SIZE = 16, META_HEIGHT = 20,
+            META_ROOT = 24, META_SIZE = 32, META_PAGE_COUNT = 40, META_FREE = 48;
+
+    //Tree page layout: type, entry count, next leaf (or next free page)
+    private static final int TYPE = 0, COUNT = 4, NEXT = 8, HEADER = 16;
+    private static final byte FREE = 0, LEAF = 1, INTERNAL = 2;
+
+    //Page number used as a null reference (page 0 is the metadata)
+    private static final long NIL = 0;
+
+    /**
+     * New separator and right page produced by splitting a page.
+     */
+    private static final class Split<K> {
+        final K key;
+        final long right;
+
+        Split(K key, long right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    private final BufferPool pool;
+    private final Codec<K> keyCodec;
+    private final Codec<T> infoCodec;
+    private final int keySize;
+    private final int infoSize;
+    private final int leafCapacity;     //entries per leaf
+    private final int innerCapacity;    //keys per internal page
+
+    private long root;
+    private int height;          //number of levels, 1 when the root is a leaf
+    private long size;
+    private long pageCount;      //pages in the file, including page 0
+    private long freeHead;       //first page of the free list
+    private int modCount;
+
+    /**
+     * Opens (or creates) a tree with the default page size and pool size.
+     * @see #DiskBPlusTree(Path, Codec, Codec, int, int)
+     */
+    public DiskBPlusTree(Path file, Codec<K> keyCodec, Codec<T> infoCodec) throws IOException {
+        this(file, keyCodec, infoCodec, DEFAULT_PAGE_SIZE, DEFAULT_POOL_PAGES);
+    }
+
+    /**
+     * Opens the tree stored in file, creating an empty one if the file is
+     * missing or empty.
+     * @param file - tree file
+     * @param keyCodec - fixed-size codec for keys
+     * @param infoCodec - fixed-size codec for info
+     * @param pageSize - bytes per page (must match an existing file)
+     * @param poolPages - number of pages cached in memory
+     * @throws IOException if the file cannot be opened or does not match
+     */
+    public DiskBPlusTree(Path file, Codec<K> keyCodec, Codec<T> infoCodec,
+                         int pageSize, int poolPages) throws IOException {
+        this.keyCodec = keyCodec;
+        this.infoCodec = infoCodec;
+        this.keySize = keyCodec.fixedSize();
+        this.infoSize = infoCodec.fixedSize();
+
+        if (keySize <= 0 || infoSize < 0)
+            throw new IllegalArgumentException("Codecs must have a fixed size");
+
+        this.leafCapacity = (pageSize - HEADER) / (keySize + infoSize);
+        this.innerCapacity = (pageSize - HEADER - 8) / (keySize + 8);
+        if (leafCapacity < 3 || innerCapacity < 3)
+            throw new IllegalArgumentException("Page size " + pageSize + " too small");
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.pool = new BufferPool(channel, pageSize, Math.max(poolPages, 16));
+
+        if (channel.size() == 0) {
+            root = 1;
+            height = 1;
+            size = 0;
+            pageCount = 2;
+            freeHead = NIL;
+            initialize(root, LEAF);
+            writeMeta();
+        }
+        else
+            readMeta(file, pageSize);
+    }
+
+
+    /**
+     * Inserts key with info, replacing the info if key is already present.
+     * @param key - Key of new entry
+     * @param info - Info of new entry.
+     */
+    public void insert(K key, T info) {
+        modCount++;
+
+        Split<K> split = insert(root, height, key, info);
+
+        //Root split - grow a new root above both halves
+        if (split != null) {
+            long id = allocate(INTERNAL);
+            ByteBuffer page = pool.pin(id);
+            setChild(page, 0, root);
+            writeKey(page, innerKey(0), split.key);
+            setChild(page, 1, split.right);
+            setCount(page, 1);
+            pool.unpin(id, true);
+
+            root = id;
+            height++;
+        }
+    }
+
+    /**
+     * Returns the info of the entry with the target key.
+     * Null if not found
+     * @param key - target entry's key
+     * @return info of target entry, or null if not found
+     */
+    public T search(K key) {
+        long id = findLeaf(key);
+        ByteBuffer page = pool.pin(id);
+
+        int i = find(page, key, true);
+        T info = (i >= 0) ? readInfo(page, i) : null;
+
+        pool.unpin(id, false);
+        return info;
+    }
+
+    /**
+     * @param key - target key
+     * @return true if the tree holds key
+     */
+    public boolean contains(K key) {
+        long id = findLeaf(key);
+        ByteBuffer page = pool.pin(id);
+        boolean found = find(page, key, true) >= 0;
+        pool.unpin(id, false);
+        return found;
+    }
+
+    /**
+     * Deletes the entry with key, merging or refilling pages left less than
+     * half full.
+     * @param key - key of entry we wish to delete
+     * @return true if the key was found and removed
+     */
+    public boolean delete(K key) {
+        if (!delete(root, height, key))
+            return false;
+
+        size--;
+        modCount++;
+
+        //Root left with a single child - shrink the tree by one level
+        if (height > 1) {
+            ByteBuffer page = pool.pin(root);
+            long child = child(page, 0);
+            boolean empty = count(page) == 0;
+            pool.unpin(root, false);
+
+            if (empty) {
+                free(root);
+                root = child;
+                height--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Info for entry with minimum key in tree, or null if empty
+     */
+    public T findMin() {
+        long id = root;
+        for (int level = height; level > 1; level--) {
+            ByteBuffer page = pool.pin(id);
+            long child = child(page, 0);
+            pool.unpin(id, false);
+            id = child;
+        }
+
+        ByteBuffer page = pool.pin(id);
+        T info = (count(page) == 0) ? null : readInfo(page, 0);
+        pool.unpin(id, false);
+        return info;
+    }
+
+    /**
+     * @return Info for entry with the maximum key in tree, or null if empty
+     */
+    public T findMax() {
+        long id = root;
+        for (int level = height; level > 1; level--) {
+            ByteBuffer page = pool.pin(id);
+            long child = child(page, count(page));
+            pool.unpin(id, false);
+            id = child;
+        }
+
+        ByteBuffer page = pool.pin(id);
+        int n = count(page);
+        T info = (n == 0) ? null : readInfo(page, n - 1);
+        pool.unpin(id, false);
+        return info;
+    }
+
+    /**
+     * @return iterator over every entry in increasing key order
+     */
+    public Iterator<Map.Entry<K,T>> iterator() {
+        return cursor(null, null);
+    }
+
+    /**
+     * Returns a lazy cursor over the entries with keys in [lo, hi) in
+     * increasing order, following the leaf chain.
+     * @param lo - lower bound (inclusive), or null for no lower bound
+     * @param hi - upper bound (exclusive), or null for no upper bound
+     * @return cursor over the range
+     */
+    public Iterator<Map.Entry<K,T>> cursor(K lo, K hi) {
+        return new Cursor(lo, hi);
+    }
+
+    /**
+     * @return number of entries in tree
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of levels (1 when the root is a leaf)
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return pool caching this tree's pages
+     */
+    public BufferPool getBufferPool() {
+        return pool;
+    }
+
+    /**
+     * Writes the metadata and every dirty page to the file and forces it
+     * to disk.
+     */
+    public void flush() {
+        writeMeta();
+        pool.flush();
+    }
+
+    /**
+     * Flushes the tree and closes the file.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        writeMeta();
+        pool.close();
+    }
+
+
+    ///////////////////////////////////
+    // INSERT
+
+    /**
+     * Inserts into the subtree rooted at page id.
+     * @param id - page of subtree root
+     * @param level - level of the page (1 = leaf)
+     * @param key - key of new entry
+     * @param info - info of new entry
+     * @return split of the page, or null if it did not split
+     */
+    private Split<K> insert(long id, int level, K key, T info) {
+        ByteBuffer page = pool.pin(id);
+        if (level == 1)
+            return insertIntoLeaf(id, page, key, info);
+
+        int i = childIndex(page, key);
+        long child = child(page, i);
+        pool.unpin(id, false);
+
+        Split<K> split = insert(child, level - 1, key, info);
+        if (split == null)
+            return null;
+
+        page = pool.pin(id);
+        Split<K> result = insertIntoInner(id, page, i, split);
+        pool.unpin(id, true);
+        return result;
+    }
+
+    /**
+     * Adds an entry to a pinned leaf, splitting it in half if full, and
+     * unpins it.
+     * @return split of the leaf, or null
+     */
+    private Split<K> insertIntoLeaf(long id, ByteBuffer page, K key, T info) {
+        int n = count(page);
+        int i = find(page, key, true);
+
+        //Existing key - replace its info
+        if (i >= 0) {
+            writeInfo(page, i, info);
+            pool.unpin(id, true);
+            return null;
+        }
+
+        i = -i - 1;
+        size++;
+
+        if (n < leafCapacity) {
+            insertLeafEntry(page, n, i, key, info);
+            pool.unpin(id, true);
+            return null;
+        }
+
+        //Full - move the upper half to a new right sibling
+        long rightId = allocate(LEAF);
+        ByteBuffer right = pool.pin(rightId);
+        int keep = n / 2, move = n - keep;
+
+        copy(page, leafKey(keep), right, leafKey(0), move * keySize);
+        copy(page, leafInfo(keep), right, leafInfo(0), move * infoSize);
+        setCount(page, keep);
+        setCount(right, move);
+        setNext(right, next(page));
+        setNext(page, rightId);
+
+        if (i <= keep)
+            insertLeafEntry(page, keep, i, key, info);
+        else
+            insertLeafEntry(right, move, i - keep, key, info);
+
+        Split<K> split = new Split<K>(readKey(right, leafKey(0)), rightId);
+        pool.unpin(rightId, true);
+        pool.unpin(id, true);
+        return split;
+    }
+
+    /**
+     * Adds a child split below an internal page, splitting the page around
+     * its middle key (which moves up) if full.
+     * @param id - internal page
+     * @param page - pinned contents of id
+     * @param i - index of the child that split
+     * @param split - the child's split
+     * @return split of this page, or null
+     */
+    private Split<K> insertIntoInner(long id, ByteBuffer page, int i, Split<K> split) {
+        int n = count(page);
+
+        if (n < innerCapacity) {
+            insertInnerEntry(page, n, i, split);
+            return null;
+        }
+
+        //Full - key m moves up, keys after it go to a new right sibling
+        long rightId = allocate(INTERNAL);
+        ByteBuffer right = pool.pin(rightId);
+        int m = n / 2;
+        K promoted = readKey(page, innerKey(m));
+
+        copy(page, innerKey(m + 1), right, innerKey(0), (n - m - 1) * keySize);
+        copy(page, childOffset(m + 1), right, childOffset(0), (n - m) * 8);
+        setCount(page, m);
+        setCount(right, n - m - 1);
+
+        if (i <= m)
+            insertInnerEntry(page, m, i, split);
+        else
+            insertInnerEntry(right, n - m - 1, i - m - 1, split);
+
+        pool.unpin(rightId, true);
+        return new Split<K>(promoted, rightId);
+    }
+
+
+    ///////////////////////////////////
+    // DELETE
+
+    /**
+     * Deletes key from the subtree rooted at page id, repairing any child
+     * left underfull.
+     * @param id - page of subtree root
+     * @param level - level of the page (1 = leaf)
+     * @param key - key to delete
+     * @return true if the key was found
+     */
+    private boolean delete(long id, int level, K key) {
+        ByteBuffer page = pool.pin(id);
+
+        if (level == 1) {
+            int i = find(page, key, true);
+            if (i >= 0)
+                removeLeafEntry(page, count(page), i);
+            pool.unpin(id, i >= 0);
+            return i >= 0;
+        }
+
+        int i = childIndex(page, key);
+        long child = child(page, i);
+        pool.unpin(id, false);
+
+        if (!delete(child, level - 1, key))
+            return false;
+
+        ByteBuffer childPage = pool.pin(child);
+        int childCount = count(childPage);
+        pool.unpin(child, false);
+
+        if (childCount < minimum(level - 1)) {
+            page = pool.pin(id);
+            refill(page, i, level - 1);
+            pool.unpin(id, true);
+        }
+        return true;
+    }
+
+    /**
+     * Repairs underfull child i of a pinned internal page by borrowing an
+     * entry from a sibling that can spare one, or else merging it with that
+     * sibling.
+     * @param parent - pinned internal page
+     * @param i - index of the underfull child
+     * @param level - level of the child (1 = leaf)
+     */
+    private void refill(ByteBuffer parent, int i, int level) {
+        //Work on the pair (j, j+1) holding child i and a sibling
+        int j = (i > 0) ? i - 1 : i;
+        long leftId = child(parent, j), rightId = child(parent, j + 1);
+        ByteBuffer left = pool.pin(leftId), right = pool.pin(rightId);
+        int ln = count(left), rn = count(right);
+        int min = minimum(level);
+        boolean merged = false;
+
+        if (level == 1) {
+            if (i > 0 && ln > min) {
+                //Move left's last entry to the front of right
+                shift(right, leafKey(0), leafKey(1), rn * keySize);
+                shift(right, leafInfo(0), leafInfo(1), rn * infoSize);
+                copy(left, leafKey(ln - 1), right, leafKey(0), keySize);
+                copy(left, leafInfo(ln - 1), right, leafInfo(0), infoSize);
+                setCount(left, ln - 1);
+                setCount(right, rn + 1);
+                copy(right, leafKey(0), parent, innerKey(j), keySize);
+            }
+            else if (i == 0 && rn > min) {
+                //Move right's first entry to the end of left
+                copy(right, leafKey(0), left, leafKey(ln), keySize);
+                copy(right, leafInfo(0), left, leafInfo(ln), infoSize);
+                shift(right, leafKey(1), leafKey(0), (rn - 1) * keySize);
+                shift(right, leafInfo(1), leafInfo(0), (rn - 1) * infoSize);
+                setCount(left, ln + 1);
+                setCount(right, rn - 1);
+                copy(right, leafKey(0), parent, innerKey(j), keySize);
+            }
+            else {
+                //Append right to left and unlink it from the leaf chain
+                copy(right, leafKey(0), left, leafKey(ln), rn * keySize);
+                copy(right, leafInfo(0), left, leafInfo(ln), rn * infoSize);
+                setCount(left, ln + rn);
+                setNext(left, next(right));
+                merged = true;
+            }
+        }
+        else {
+            if (i > 0 && ln > min) {
+                //Rotate through the parent: separator down, left's last key up
+                shift(right, innerKey(0), innerKey(1), rn * keySize);
+                shift(right, childOffset(0), childOffset(1), (rn + 1) * 8);
+                copy(parent, innerKey(j), right, innerKey(0), keySize);
+                setChild(right, 0, child(left, ln));
+                copy(left, innerKey(ln - 1), parent, innerKey(j), keySize);
+                setCount(left, ln - 1);
+                setCount(right, rn + 1);
+            }
+            else if (i == 0 && rn > min) {
+                //Rotate through the parent: separator down, right's first key up
+                copy(parent, innerKey(j), left, innerKey(ln), keySize);
+                setChild(left, ln + 1, child(right, 0));
+                copy(right, innerKey(0), parent, innerKey(j), keySize);
+                shift(right, innerKey(1), innerKey(0), (rn - 1) * keySize);
+                shift(right, childOffset(1), childOffset(0), rn * 8);
+                setCount(left, ln + 1);
+                setCount(right, rn - 1);
+            }
+            else {
+                //Pull the separator down and append right to left
+                copy(parent, innerKey(j), left, innerKey(ln), keySize);
+                copy(right, innerKey(0), left, innerKey(ln + 1), rn * keySize);
+                copy(right, childOffset(0), left, childOffset(ln + 1), (rn + 1) * 8);
+                setCount(left, ln + 1 + rn);
+                merged = true;
+            }
+        }
+
+        pool.unpin(leftId, true);
+        pool.unpin(rightId, true);
+
+        //Remove separator j and child j+1 from the parent
+        if (merged) {
+            int n = count(parent);
+            shift(parent, innerKey(j + 1), innerKey(j), (n - j - 1) * keySize);
+            shift(parent, childOffset(j + 2), childOffset(j + 1), (n - j - 1) * 8);
+            setCount(parent, n - 1);
+            free(rightId);
+        }
+    }
+
+    /**
+     * @param level - level of a page (1 = leaf)
+     * @return fewest entries a non-root page at that level may hold
+     */
+    private int minimum(int level) {
+        return (level == 1) ? leafCapacity / 2 : innerCapacity / 2;
+    }
+
+
+    ///////////////////////////////////
+    // SEARCHING WITHIN PAGES
+
+    /**
+     * @param key - target key
+     * @return page number of the leaf that holds or would hold key
+     */
+    private long findLeaf(K key) {
+        long id = root;
+        for (int level = height; level > 1; level--) {
+            ByteBuffer page = pool.pin(id);
+            long child = child(page, childIndex(page, key));
+            pool.unpin(id, false);
+            id = child;
+        }
+        return id;
+    }
+
+    /**
+     * Binary search of the keys of a page.
+     * @param page - pinned page
+     * @param key - target key
+     * @param leaf - true if page is a leaf
+     * @return index of key, or (-(insertion point) - 1) if absent
+     */
+    private int find(ByteBuffer page, K key, boolean leaf) {
+        int low = 0, high = count(page) - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = key.compareTo(readKey(page, leaf ? leafKey(mid) : innerKey(mid)));
+
+            if (cmp == 0)
+                return mid;
+            if (cmp < 0)
+                high = mid - 1;
+            else
+                low = mid + 1;
+        }
+        return -low - 1;
+    }
+
+    /**
+     * @param page - pinned internal page
+     * @param key - target key
+     * @return index of the child whose subtree holds key (number of
+     * separators <= key)
+     */
+    private int childIndex(ByteBuffer page, K key) {
+        int i = find(page, key, false);
+        return (i >= 0) ? i + 1 : -i - 1;
+    }
+
+
+    ///////////////////////////////////
+    // PAGE LAYOUT
+    //
+    // Leaf:     header, keys[leafCapacity], infos[leafCapacity]
+    // Internal: header, children[innerCapacity + 1], keys[innerCapacity]
+
+    private int leafKey(int i) {
+        return HEADER + i * keySize;
+    }
+
+    private int leafInfo(int i) {
+        return HEADER + leafCapacity * keySize + i * infoSize;
+    }
+
+    private int childOffset(int i) {
+        return HEADER + i * 8;
+    }
+
+    private int innerKey(int i) {
+        return HEADER + (innerCapacity + 1) * 8 + i * keySize;
+    }
+
+    private static int count(ByteBuffer page) {
+        return page.getInt(COUNT);
+    }
+
+    private static void setCount(ByteBuffer page, int count) {
+        page.putInt(COUNT, count);
+    }
+
+    private static long next(ByteBuffer page) {
+        return page.getLong(NEXT);
+    }
+
+    private static void setNext(ByteBuffer page, long next) {
+        page.putLong(NEXT, next);
+    }
+
+    private long child(ByteBuffer page, int i) {
+        return page.getLong(childOffset(i));
+    }
+
+    private void setChild(ByteBuffer page, int i, long child) {
+        page.putLong(childOffset(i), child);
+    }
+
+    private K readKey(ByteBuffer page, int offset) {
+        page.position(offset);
+        return keyCodec.decode(page);
+    }
+
+    private void writeKey(ByteBuffer page, int offset, K key) {
+        page.position(offset);
+        keyCodec.encode(key, page);
+    }
+
+    private T readInfo(ByteBuffer page, int i) {
+        page.position(leafInfo(i));
+        return infoCodec.decode(page);
+    }
+
+    private void writeInfo(ByteBuffer page, int i, T info) {
+        page.position(leafInfo(i));
+        infoCodec.encode(info, page);
+    }
+
+    /**
+     * Inserts an entry at index i of a leaf holding n entries.
+     */
+    private void insertLeafEntry(ByteBuffer page, int n, int i, K key, T info) {
+        shift(page, leafKey(i), leafKey(i + 1), (n - i) * keySize);
+        shift(page, leafInfo(i), leafInfo(i + 1), (n - i) * infoSize);
+        writeKey(page, leafKey(i), key);
+        writeInfo(page, i, info);
+        setCount(page, n + 1);
+    }
+
+    /**
+     * Removes the entry at index i of a leaf holding n entries.
+     */
+    private void removeLeafEntry(ByteBuffer page, int n, int i) {
+        shift(page, leafKey(i + 1), leafKey(i), (n - i - 1) * keySize);
+        shift(page, leafInfo(i + 1), leafInfo(i), (n - i - 1) * infoSize);
+        setCount(page, n - 1);
+    }
+
+    /**
+     * Inserts a split's separator at key index i and its right page at child
+     * index i + 1 of an internal page holding n keys.
+     */
+    private void insertInnerEntry(ByteBuffer page, int n, int i, Split<K> split) {
+        shift(page, innerKey(i), innerKey(i + 1), (n - i) * keySize);
+        shift(page, childOffset(i + 1), childOffset(i + 2), (n - i) * 8);
+        writeKey(page, innerKey(i), split.key);
+        setChild(page, i + 1, split.right);
+        setCount(page, n + 1);
+    }
+
+    /**
+     * Moves length bytes within a page (ranges may overlap).
+     */
+    private static void shift(ByteBuffer page, int from, int to, int length) {
+        System.arraycopy(page.array(), from, page.array(), to, length);
+    }
+
+    /**
+     * Copies length bytes from one page to another.
+     */
+    private static void copy(ByteBuffer from, int fromOffset, ByteBuffer to, int toOffset,
+                             int length) {
+        System.arraycopy(from.array(), fromOffset, to.array(), toOffset, length);
+    }
+
+
+    ///////////////////////////////////
+    // PAGE ALLOCATION AND METADATA
+
+    /**
+     * Takes a page from the free list, or the end of the file, and makes it
+     * an empty page of the given type.
+     * @param type - LEAF or INTERNAL
+     * @return page number
+     */
+    private long allocate(byte type) {
+        long id;
+        if (freeHead != NIL) {
+            id = freeHead;
+            ByteBuffer page = pool.pin(id);
+            freeHead = next(page);
+            pool.unpin(id, false);
+        }
+        else
+            id = pageCount++;
+
+        initialize(id, type);
+        return id;
+    }
+
+    /**
+     * @param id - page to clear
+     * @param type - LEAF or INTERNAL
+     */
+    private void initialize(long id, byte type) {
+        ByteBuffer page = pool.pin(id);
+        page.put(TYPE, type);
+        setCount(page, 0);
+        setNext(page, NIL);
+        pool.unpin(id, true);
+    }
+
+    /**
+     * Returns a page to the free list.
+     * @param id - page no longer in the tree
+     */
+    private void free(long id) {
+        ByteBuffer page = pool.pin(id);
+        page.put(TYPE, FREE);
+        setCount(page, 0);
+        setNext(page, freeHead);
+        pool.unpin(id, true);
+        freeHead = id;
+    }
+
+    /**
+     * Stores the tree's fields in page 0.
+     */
+    private void writeMeta() {
+        ByteBuffer page = pool.pin(0);
+        page.putInt(META_MAGIC, MAGIC);
+        page.putInt(META_VERSION, VERSION);
+        page.putInt(META_PAGE_SIZE, pool.getPageSize());
+        page.putInt(META_KEY_SIZE, keySize);
+        page.putInt(META_INFO_SIZE, infoSize);
+        page.putInt(META_HEIGHT, height);
+        page.putLong(META_ROOT, root);
+        page.putLong(META_SIZE, size);
+        page.putLong(META_PAGE_COUNT, pageCount);
+        page.putLong(META_FREE, freeHead);
+        pool.unpin(0, true);
+    }
+
+    /**
+     * Loads the tree's fields from page 0 and checks they match this tree.
+     * @param file - tree file (for messages)
+     * @param pageSize - expected page size
+     * @throws IOException if the file is not a matching tree file
+     */
+    private void readMeta(Path file, int pageSize) throws IOException {
+        ByteBuffer page = pool.pin(0);
+        try {
+            if (page.getInt(META_MAGIC) != MAGIC || page.getInt(META_VERSION) != VERSION)
+                throw new IOException("Not a B+-tree file: " + file);
+            if (page.getInt(META_PAGE_SIZE) != pageSize
+                    || page.getInt(META_KEY_SIZE) != keySize
+                    || page.getInt(META_INFO_SIZE) != infoSize)
+                throw new IOException("Page or codec sizes do not match " + file);
+
+            height = page.getInt(META_HEIGHT);
+            root = page.getLong(META_ROOT);
+            size = page.getLong(META_SIZE);
+            pageCount = page.getLong(META_PAGE_COUNT);
+            freeHead = page.getLong(META_FREE);
+        }
+        finally {
+            pool.unpin(0, false);
+        }
+    }
+
+
+    ///////////////////////////////////
+    // CURSOR
+
+    /**
+     * Lazy ascending cursor over a key range that walks the leaf chain,
+     * pinning one leaf only while reading an entry from it.
+     */
+    private final class Cursor implements Iterator<Map.Entry<K,T>> {
+        private final K hi;
+        private final int expectedModCount;
+        private long leaf;
+        private int index;
+        private Map.Entry<K,T> next;
+
+        Cursor(K lo, K hi) {
+            this.hi = hi;
+            this.expectedModCount = modCount;
+
+            if (lo == null) {
+                leaf = root;
+                for (int level = height; level > 1; level--) {
+                    ByteBuffer page = pool.pin(leaf);
+                    long child = child(page, 0);
+                    pool.unpin(leaf, false);
+                    leaf = child;
+                }
+                index = 0;
+            }
+            else {
+                leaf = findLeaf(lo);
+                ByteBuffer page = pool.pin(leaf);
+                int i = find(page, lo, true);
+                index = (i >= 0) ? i : -i - 1;
+                pool.unpin(leaf, false);
+            }
+
+            advance();
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Map.Entry<K,T> next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+
+            Map.Entry<K,T> entry = next;
+            advance();
+            return entry;
+        }
+
+        /**
+         * Reads the entry at (leaf, index), moving along the chain past
+         * exhausted leaves, and stops at hi.
+         */
+        private void advance() {
+            next = null;
+
+            while (leaf != NIL) {
+                long id = leaf;
+                ByteBuffer page = pool.pin(id);
+
+                if (index < count(page)) {
+                    K key = readKey(page, leafKey(index));
+                    if (hi == null || key.compareTo(hi) < 0)
+                        next = new AbstractMap.SimpleImmutableEntry<K,T>(key, readInfo(page, index));
+                    else
+                        leaf = NIL;
+
+                    index++;
+                    pool.unpin(id, false);
+                    return;
+                }
+
+                leaf = DiskBPlusTree.next(page);
+                index = 0;
+                pool.unpin(id, false);
+            }
+        }
+    }
+}
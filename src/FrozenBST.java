@@ -0,0 +1,180 @@
+/**
+ * @Description:  An immutable, read-optimized search index built by
+ * BST.freeze().
+ *
+ * The keys are stored in a flat array in Eytzinger (breadth-first) order:
+ * index 1 is the root of an implicit complete tree and the children of
+ * index i are at 2i and 2i + 1.  A search is a loop over array indices with
+ * no child references to follow, the first levels share a few cache lines,
+ * and each step's choice is an index computation rather than a
+ * data-dependent branch.  search, floor and ceiling follow the BST contract,
+ * except that floor and ceiling return read-only entries rather than tree
+ * nodes (floorKey and ceilingKey return just the key).  When a key is stored
+ * more than once, search and ceiling return its first occurrence in key
+ * order and floor its last.
+ */
+public class FrozenBST<K extends Comparable<K>, T> {
+
+    //keys[i] and infos[i] for i in [1, n] in Eytzinger order; index 0 unused
+    private final K [] keys;
+    private final T [] infos;
+    private final int n;
+
+    /**
+     * Copies the keys and info of tree, which is not modified.
+     * @param tree - tree to freeze
+     */
+    FrozenBST(BST<K,T> tree) {
+        this.n = tree.getSize();
+        this.keys = (K []) new Comparable[n + 1];
+        this.infos = (T []) new Object[n + 1];
+
+        //Inorder over the tree matched with an inorder walk of the implicit tree
+        final int [] slot = { first() };
+        tree.inOrderTraverse(node -> {
+            int i = slot[0];
+            keys[i] = node.key;
+            infos[i] = node.info;
+            slot[0] = successor(i);
+            return true;
+        });
+    }
+
+    /**
+     * Returns the info of the node with the target key.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        int i = lowerBound(key);
+        return (i != 0 && keys[i].compareTo(key) == 0) ? infos[i] : null;
+    }
+
+    /**
+     * @param key - target key
+     * @return true if the index holds key
+     */
+    public boolean contains(K key) {
+        int i = lowerBound(key);
+        return i != 0 && keys[i].compareTo(key) == 0;
+    }
+
+    /**
+     * @param key - target key
+     * @return read-only key and info of the greatest key <= key, or null if
+     * none
+     */
+    public java.util.Map.Entry<K,T> floor(K key) {
+        return entry(floorIndex(key));
+    }
+
+    /**
+     * @param key - target key
+     * @return greatest key <= key, or null if none
+     */
+    public K floorKey(K key) {
+        return keys[floorIndex(key)];
+    }
+
+    /**
+     * @param key - target key
+     * @return read-only key and info of the least key >= key, or null if
+     * none
+     */
+    public java.util.Map.Entry<K,T> ceiling(K key) {
+        return entry(lowerBound(key));
+    }
+
+    /**
+     * @param key - target key
+     * @return least key >= key, or null if none
+     */
+    public K ceilingKey(K key) {
+        return keys[lowerBound(key)];
+    }
+
+    /**
+     * @return number of keys in the index
+     */
+    public int getSize() {
+        return n;
+    }
+
+    /**
+     * Descends the implicit tree remembering the last node whose key is
+     * not less than key.
+     * @param key - target key
+     * @return index of the least key >= key, or 0 if none
+     */
+    private int lowerBound(K key) {
+        int best = 0, i = 1;
+
+        while (i <= n) {
+            int right = (keys[i].compareTo(key) < 0) ? 1 : 0;
+            best = (right == 0) ? i : best;
+            i = 2 * i + right;
+        }
+        return best;
+    }
+
+    /**
+     * Descends the implicit tree remembering the last node whose key is
+     * not greater than key.
+     * @param key - target key
+     * @return index of the greatest key <= key, or 0 if none
+     */
+    private int floorIndex(K key) {
+        int best = 0, i = 1;
+
+        while (i <= n) {
+            int right = (keys[i].compareTo(key) <= 0) ? 1 : 0;
+            best = (right == 1) ? i : best;
+            i = 2 * i + right;
+        }
+        return best;
+    }
+
+    /**
+     * @param i - index of a node, or 0
+     * @return read-only entry for the node, or null for index 0
+     */
+    private java.util.Map.Entry<K,T> entry(int i) {
+        return (i == 0) ? null : new java.util.AbstractMap.SimpleImmutableEntry<K,T>(keys[i], infos[i]);
+    }
+
+
+    ///////////////////////////////////
+    // IMPLICIT TREE NAVIGATION
+
+    /**
+     * @return index of the first node in order (0 if empty)
+     */
+    private int first() {
+        if (n == 0) return 0;
+
+        int i = 1;
+        while (2 * i <= n)
+            i *= 2;
+        return i;
+    }
+
+    /**
+     * @param i - index of a node
+     * @return index of its inorder successor, or 0 if it is the last
+     */
+    private int successor(int i) {
+        //Left-most node of the right subtree
+        if (2 * i + 1 <= n) {
+            i = 2 * i + 1;
+            while (2 * i <= n)
+                i *= 2;
+            return i;
+        }
+
+        //Otherwise climb past every ancestor reached from its right
+        while ((i & 1) == 1)
+            i >>= 1;
+        return i >> 1;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * @Description:  This is a binary search tree specialized for primitive
+ * int keys and int values.  It mirrors the BST API (insert, search,
+ * findMin/findMax, deleteNodeByCopy/deleteNodeByMerge, rebalance) but stores
+ * unboxed fields in its nodes and compares keys with plain < and ==, avoiding
+ * the boxing and virtual compareTo calls of BST<Integer, Integer>.
+ *
+ * IntBST, LongBST, IntIntBST and LongLongBST are written out by hand, one
+ * per key/value type, and kept line-for-line parallel; a fix to one belongs
+ * in all four.
+ */
+public class IntIntBST {
+
+    /**
+     * Tree node holding an unboxed key and info.
+     */
+    private static final class Node {
+        int key;
+        int info;
+        Node left;
+        Node right;
+
+        Node(int key, int info) {
+            this.key = key;
+            this.info = info;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public IntIntBST() {
+        this.root = null;
+        this.size = 0;
+    }
+
+
+    /**
+     * Inserts a tree node into the tree as a leaf in the appropriate
+     * location within the tree.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public void insert(int key, int info) {
+
+        size++;
+
+        Node node = new Node(key, info);
+
+        //Special case - empty tree
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        //Traverse moving left or right based upon new key's value
+        // relative to each node's key.
+        Node cur = root;
+        while (true) {
+            if (key < cur.key) {
+                if (cur.left == null) {
+                    cur.left = node;
+                    return;
+                }
+                cur = cur.left;
+            }
+            else {
+                if (cur.right == null) {
+                    cur.right = node;
+                    return;
+                }
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the node with the target key, or null if not found.
+     * @param key - target node's key
+     * @return node with key, or null if not found
+     */
+    private Node find(int key) {
+        Node cur = root;
+
+        while (cur != null && cur.key != key)
+            cur = (key < cur.key) ? cur.left : cur.right;
+
+        return cur;
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * @param key - target node's key
+     * @param notFound - value returned if key is not in the tree
+     * @return info of target node, or notFound if not found
+     */
+    public int search(int key, int notFound) {
+        Node node = find(key);
+        return (node == null) ? notFound : node.info;
+    }
+
+    /**
+     * @param key - target key
+     * @return true if a node with key is in the tree
+     */
+    public boolean contains(int key) {
+        return find(key) != null;
+    }
+
+    /**
+     * @param notFound - value returned if the tree is empty
+     * @return Info for node with minimum key in tree
+     */
+    public int findMin(int notFound) {
+        return (root == null) ? notFound : minNode().info;
+    }
+
+    /**
+     * @param notFound - value returned if the tree is empty
+     * @return Info for node with the maximum key in tree
+     */
+    public int findMax(int notFound) {
+        return (root == null) ? notFound : maxNode().info;
+    }
+
+    /**
+     * @return minimum key in tree
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public int findMinKey() {
+        if (root == null) throw new java.util.NoSuchElementException();
+        return minNode().key;
+    }
+
+    /**
+     * @return maximum key in tree
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public int findMaxKey() {
+        if (root == null) throw new java.util.NoSuchElementException();
+        return maxNode().key;
+    }
+
+    /**
+     * @return node with minimum key in non-empty tree
+     */
+    private Node minNode() {
+        Node cur = root;
+        while (cur.left != null)
+            cur = cur.left;
+        return cur;
+    }
+
+    /**
+     * @return node with maximum key in non-empty tree
+     */
+    private Node maxNode() {
+        Node cur = root;
+        while (cur.right != null)
+            cur = cur.right;
+        return cur;
+    }
+
+    /**
+     * Performs a delete using deleteByCopy operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByCopy(int key) {
+
+        //////////////////////
+        //Find Node
+        Node prev = null, cur = root;
+        while (cur != null && cur.key != key) {
+            prev = cur;
+            cur = (key < cur.key) ? cur.left : cur.right;
+        }
+
+        if (cur == null) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        Node node = cur;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - copy from immediate predecessor
+        else {
+            Node tmp = cur.left, previous = cur;
+
+            while (tmp.right != null) {
+                previous = tmp;
+                tmp = tmp.right;
+            }
+
+            //Copy value into node to be deleted.
+            cur.key = tmp.key;
+            cur.info = tmp.info;
+
+            //Delete copied node
+            if (previous == cur)
+                previous.left = tmp.left;
+            else
+                previous.right = tmp.left;
+        }
+
+        replace(prev, cur, node);
+    }
+
+    /**
+     * Performs a delete using deleteByMerge operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByMerge(int key) {
+
+        //////////////////////
+        //Find Node
+        Node prev = null, cur = root;
+        while (cur != null && cur.key != key) {
+            prev = cur;
+            cur = (key < cur.key) ? cur.left : cur.right;
+        }
+
+        if (cur == null) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        Node node;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - hang right subtree below immediate predecessor
+        else {
+            Node tmp = cur.left;
+            while (tmp.right != null)
+                tmp = tmp.right;
+
+            tmp.right = cur.right;
+            node = cur.left;
+        }
+
+        replace(prev, cur, node);
+    }
+
+    /**
+     * Updates the parent of a deleted node to reference its replacement.
+     * @param prev - parent of cur (null if cur is the root)
+     * @param cur - node being removed or kept
+     * @param node - replacement subtree
+     */
+    private void replace(Node prev, Node cur, Node node) {
+        if (cur == root)
+            root = node;
+        else if (cur == prev.left)
+            prev.left = node;
+        else
+            prev.right = node;
+    }
+
+    /**
+     * @return size of tree
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return array of all keys in ascending order
+     */
+    public int [] getKeys() {
+        int [] keys = new int[size];
+        int index = 0;
+
+        //Iterative inorder traversal
+        Node [] stack = new Node[32];
+        int top = 0;
+        Node cur = root;
+
+        while (cur != null || top > 0) {
+            while (cur != null) {
+                if (top == stack.length)
+                    stack = java.util.Arrays.copyOf(stack, top * 2);
+                stack[top++] = cur;
+                cur = cur.left;
+            }
+
+            cur = stack[--top];
+            keys[index++] = cur.key;
+            cur = cur.right;
+        }
+        return keys;
+    }
+
+    /**
+     * Rebalances the tree in place using the Day-Stout-Warren algorithm
+     * (see BST.rebalance()).
+     */
+    public void rebalance() {
+
+        //Pseudo-root whose right subtree is the tree being rebalanced
+        Node pseudoRoot = new Node(0, 0);
+        pseudoRoot.right = root;
+
+        //Flatten the tree into a sorted vine using right rotations
+        Node tail = pseudoRoot, rest = root;
+        int count = 0;
+        while (rest != null) {
+            if (rest.left == null) {
+                tail = rest;
+                rest = rest.right;
+                count++;
+            }
+            else {
+                Node tmp = rest.left;
+                rest.left = tmp.right;
+                tmp.right = rest;
+                rest = tmp;
+                tail.right = tmp;
+            }
+        }
+
+        //Fold the vine back into a balanced tree
+        int complete = Integer.highestOneBit(count + 1) - 1;
+        compress(pseudoRoot, count - complete);
+        while (complete > 1) {
+            complete /= 2;
+            compress(pseudoRoot, complete);
+        }
+
+        root = pseudoRoot.right;
+        size = count;
+    }
+
+    /**
+     * Performs a left rotation on every other node along the vine.
+     * @param pseudoRoot - node whose right subtree is the vine
+     * @param count - number of rotations to perform
+     */
+    private void compress(Node pseudoRoot, int count) {
+        Node scanner = pseudoRoot;
+
+        for (int i = 0; i < count; i++) {
+            Node child = scanner.right;
+            scanner.right = child.right;
+            scanner = scanner.right;
+            child.right = scanner.left;
+            scanner.left = child;
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+import java.util.ConcurrentModificationException;
+
+/**
+ * @Description:  A breadth first cursor that yields one level of a BST at a
+ * time as a batch of nodes.  Each level is built from the children of the
+ * previous one into a pair of arrays that are swapped and reused, so null
+ * children are never stored and no queue is needed.  An optional level limit
+ * stops the walk early, e.g. to sample the top few levels of a huge tree
+ * without touching the rest of it.
+ *
+ * Usage:
+ *   LevelCursor<K,T> levels = tree.levelCursor(4);
+ *   while (levels.nextLevel())
+ *       for (int i = 0; i < levels.getLevelSize(); i++)
+ *           use(levels.get(i));
+ */
+public class LevelCursor<K extends Comparable<K>, T> {
+
+    private BST<K,T> tree;
+    private int expectedModCount;
+    private int maxLevels;        //number of levels to yield
+
+    private BTNode<K,T> [] level; //current level (valid in [0, levelSize))
+    private int levelSize;
+    private BTNode<K,T> [] spare; //buffer for the next level
+    private int depth;            //depth of current level, -1 before the first
+
+    /**
+     * Default constructor
+     * @param tree - tree to walk
+     * @param maxLevels - maximum number of levels to yield
+     */
+    public LevelCursor(BST<K,T> tree, int maxLevels) {
+        this.tree = tree;
+        this.expectedModCount = tree.modCount;
+        this.maxLevels = maxLevels;
+        this.level = new BTNode[BST.STACK_SIZE];
+        this.spare = new BTNode[BST.STACK_SIZE];
+        this.levelSize = 0;
+        this.depth = -1;
+    }
+
+    /**
+     * Advances to the next level of the tree.
+     * @return true if the cursor now holds a non-empty level
+     */
+    public boolean nextLevel() {
+        if (tree.modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+
+        if (depth + 1 >= maxLevels) {
+            levelSize = 0;
+            return false;
+        }
+
+        //First level is just the root
+        if (depth < 0) {
+            depth = 0;
+            levelSize = 0;
+            if (tree.root != null)
+                level[levelSize++] = tree.root;
+            return levelSize > 0;
+        }
+
+        //Gather the non-null children of the current level
+        int nextSize = 0;
+        for (int i = 0; i < levelSize; i++) {
+            BTNode<K,T> node = level[i];
+
+            if (nextSize + 2 > spare.length)
+                spare = BST.grow(spare);
+            if (node.left != null) spare[nextSize++] = node.left;
+            if (node.right != null) spare[nextSize++] = node.right;
+        }
+
+        //Swap buffers, clearing stale references from the old level
+        BTNode<K,T> [] old = level;
+        java.util.Arrays.fill(old, 0, levelSize, null);
+        level = spare;
+        spare = old;
+        levelSize = nextSize;
+        depth++;
+
+        return levelSize > 0;
+    }
+
+    /**
+     * @return depth of the current level (root = 0)
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return number of nodes in the current level
+     */
+    public int getLevelSize() {
+        return levelSize;
+    }
+
+    /**
+     * @param index - position within the current level (left to right)
+     * @return node at that position
+     */
+    public BTNode<K,T> get(int index) {
+        if (index < 0 || index >= levelSize)
+            throw new IndexOutOfBoundsException("Index: " + index + ", level size: " + levelSize);
+        return level[index];
+    }
+
+    /**
+     * Returns the buffer holding the current level.  Only the first
+     * getLevelSize() entries are valid, and the array is reused (and
+     * overwritten) by later calls to nextLevel().
+     * @return current level buffer
+     */
+    public BTNode<K,T> [] getLevel() {
+        return level;
+    }
+}
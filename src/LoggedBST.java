@@ -0,0 +1,760 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * @Description:  Makes the mutations of a BST durable with a write-ahead
+ * log and periodic snapshots kept in a directory:
+ *
+ *   snapshot-G.bst  the tree (see BSTSerializer) as of the start of wal-G.log
+ *   wal-G.log       operations applied after that snapshot, in order
+ *
+ * Each operation is appended to an in-memory batch and then applied to the
+ * tree; if the tree rejects it (e.g. a key's compareTo throws) the record is
+ * dropped again, so the log only holds operations that succeeded.  Batches are written to the log by group commit: one thread
+ * writes and fsyncs everything appended so far while the others wait, so a
+ * burst of concurrent operations costs one fsync rather than one each.
+ * How long a caller waits is set by the SyncPolicy.
+ *
+ * Log records are [int length][int CRC-32][byte op][key][info].  Recovery
+ * loads the newest snapshot, replays every later log and truncates a torn
+ * record at the end of the last log.  Replaying the same delete variant
+ * reproduces the same shape.
+ *
+ * Once the current log exceeds the compaction size it is compacted on a
+ * thread of its own: writers are blocked only while the pending batch is
+ * written and the log is rotated.  The next snapshot is then built without
+ * touching the live tree, by loading the current snapshot and replaying the
+ * closed logs into a private tree of the same kind (see recovery), and the
+ * older snapshot and logs are deleted once it is in place.
+ *
+ * All methods are thread-safe.  Changes are visible to search before they
+ * are durable.
+ */
+public class LoggedBST<K extends Comparable<K>, T> implements Closeable {
+
+    /**
+     * When an operation's log record must reach the disk.
+     */
+    public enum SyncPolicy {
+        ALWAYS,     //operation returns once its batch is fsynced
+        INTERVAL,   //batches are written and fsynced every sync interval
+        NEVER       //batches are written every sync interval, fsynced only on close
+    }
+
+    //Operation codes
+    private static final byte INSERT = 1;
+    private static final byte DELETE_BY_COPY = 2;
+    private static final byte DELETE_BY_MERGE = 3;
+
+    //Length and CRC in front of each record
+    private static final int HEADER = 8;
+
+    //Pending bytes that make a writer flush without waiting for the interval
+    private static final int FLUSH_BYTES = 1 << 20;
+
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+    public static final long DEFAULT_COMPACTION_BYTES = 64L << 20;
+
+    private final Path dir;
+    private final BST<K,T> tree;
+    private final BSTSerializer<K,T> serializer;
+    private final Codec<K> keyCodec;
+    private final Codec<T> infoCodec;
+    private final SyncPolicy policy;
+    private final long compactionBytes;
+    private final ScheduledExecutorService background;   //periodic syncs
+    private final ExecutorService compactor;              //background compactions
+    private final CRC32 crc = new CRC32();
+
+    //Everything below is guarded by this
+    private FileChannel log;
+    private long generation;
+    private long snapshotGeneration;  //newest complete snapshot, or -1
+    private long logBytes;            //bytes written to the current log
+    private ByteBuffer pending;       //records not yet written
+    private ByteBuffer spare;         //empty buffer to swap with pending
+    private long appendedSeq;         //number of records appended
+    private long writtenSeq;          //number of records written to the log
+    private long syncedSeq;           //number of records written and fsynced
+    private boolean syncing;          //a thread is writing a batch
+    private boolean compacting;
+    private boolean closed;
+    private IOException failure;      //log write failure; the log is unusable
+    private IOException compactionFailure;
+
+    /**
+     * Opens (or creates) a logged tree with the default sync interval and
+     * compaction size.
+     * @see #LoggedBST(Path, BST, Codec, Codec, SyncPolicy, long, long)
+     */
+    public LoggedBST(Path dir, BST<K,T> tree, Codec<K> keyCodec, Codec<T> infoCodec,
+                     SyncPolicy policy) throws IOException {
+        this(dir, tree, keyCodec, infoCodec, policy,
+                DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Opens (or creates) a logged tree, recovering its contents into tree
+     * from the snapshot and logs in dir.
+     * @param dir - directory of snapshot and log files (created if needed)
+     * @param tree - empty tree to recover into (e.g. an AVLTree)
+     * @param keyCodec - codec for keys
+     * @param infoCodec - codec for info
+     * @param policy - when operations are fsynced
+     * @param syncIntervalMillis - time between background syncs (INTERVAL, NEVER)
+     * @param compactionBytes - log size that triggers a background compaction
+     * @throws IOException if recovery fails
+     */
+    public LoggedBST(Path dir, BST<K,T> tree, Codec<K> keyCodec, Codec<T> infoCodec,
+                     SyncPolicy policy, long syncIntervalMillis, long compactionBytes)
+            throws IOException {
+        this.dir = dir;
+        this.tree = tree;
+        this.serializer = new BSTSerializer<K,T>(keyCodec, infoCodec);
+        this.keyCodec = keyCodec;
+        this.infoCodec = infoCodec;
+        this.policy = policy;
+        this.compactionBytes = compactionBytes;
+        this.pending = ByteBuffer.allocate(64 * 1024);
+        this.spare = ByteBuffer.allocate(64 * 1024);
+
+        Files.createDirectories(dir);
+        recover();
+
+        background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LoggedBST sync " + dir.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LoggedBST compaction " + dir.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (policy != SyncPolicy.ALWAYS)
+            background.scheduleWithFixedDelay(this::backgroundSync,
+                    syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    ///////////////////////////////////
+    // OPERATIONS
+
+    /**
+     * Inserts key with info into the tree and the log.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     * @throws IOException if the log cannot be written
+     */
+    public void insert(K key, T info) throws IOException {
+        long seq;
+        boolean full;
+
+        synchronized (this) {
+            int start = pending.position();
+            seq = append(INSERT, key, info);
+            try {
+                tree.insert(key, info);
+            }
+            catch (RuntimeException e) {
+                discard(start);
+                throw e;
+            }
+            full = pending.position() >= FLUSH_BYTES;
+        }
+        commit(seq, full);
+    }
+
+    /**
+     * Performs and logs a BST.deleteNodeByCopy.
+     * @param key - key of node we wish to delete
+     * @throws IOException if the log cannot be written
+     */
+    public void deleteNodeByCopy(K key) throws IOException {
+        long seq;
+        boolean full;
+
+        synchronized (this) {
+            int start = pending.position();
+            seq = append(DELETE_BY_COPY, key, null);
+            try {
+                tree.deleteNodeByCopy(key);
+            }
+            catch (RuntimeException e) {
+                discard(start);
+                throw e;
+            }
+            full = pending.position() >= FLUSH_BYTES;
+        }
+        commit(seq, full);
+    }
+
+    /**
+     * Performs and logs a BST.deleteNodeByMerge.
+     * @param key - key of node we wish to delete
+     * @throws IOException if the log cannot be written
+     */
+    public void deleteNodeByMerge(K key) throws IOException {
+        long seq;
+        boolean full;
+
+        synchronized (this) {
+            int start = pending.position();
+            seq = append(DELETE_BY_MERGE, key, null);
+            try {
+                tree.deleteNodeByMerge(key);
+            }
+            catch (RuntimeException e) {
+                discard(start);
+                throw e;
+            }
+            full = pending.position() >= FLUSH_BYTES;
+        }
+        commit(seq, full);
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public synchronized T search(K key) {
+        return tree.search(key);
+    }
+
+    /**
+     * @return size of tree
+     */
+    public synchronized int getSize() {
+        return tree.getSize();
+    }
+
+    /**
+     * Writes and fsyncs every operation performed so far.
+     * @throws IOException if the log cannot be written
+     */
+    public void sync() throws IOException {
+        long seq;
+        synchronized (this) {
+            seq = appendedSeq;
+        }
+        sync(seq, true);
+    }
+
+    /**
+     * Writes a snapshot of the tree and deletes the logs it replaces,
+     * waiting for it to finish.
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (this) {
+            while (compacting)
+                await();
+            compacting = true;
+        }
+        compactNow();
+
+        synchronized (this) {
+            if (compactionFailure != null)
+                throw compactionFailure;
+        }
+    }
+
+    /**
+     * Syncs the log, waits for a running compaction and closes the log.
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+        }
+
+        background.shutdown();
+        compactor.shutdown();
+        try {
+            background.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing log");
+        }
+
+        try {
+            sync();
+        }
+        finally {
+            synchronized (this) {
+                closed = true;
+                log.close();
+            }
+        }
+    }
+
+
+    ///////////////////////////////////
+    // GROUP COMMIT
+
+    /**
+     * Encodes a record at the end of the pending batch.
+     * @param op - operation code
+     * @param key - operation's key
+     * @param info - info of an insert
+     * @return sequence number of the record
+     * @throws IOException if the log has failed or is closed
+     */
+    private long append(byte op, K key, T info) throws IOException {
+        if (closed)
+            throw new IOException("Log is closed");
+        if (failure != null)
+            throw new IOException("Log failed", failure);
+
+        int start = pending.position();
+        while (true) {
+            try {
+                if (pending.capacity() - start < HEADER + 1)
+                    throw new BufferOverflowException();
+
+                pending.position(start + HEADER);
+                pending.put(op);
+                keyCodec.encode(key, pending);
+                if (op == INSERT)
+                    infoCodec.encode(info, pending);
+                break;
+            }
+            catch (BufferOverflowException e) {
+                ByteBuffer bigger = ByteBuffer.allocate(pending.capacity() * 2);
+                bigger.put(pending.array(), 0, start);
+                pending = bigger;
+            }
+            catch (RuntimeException e) {
+                //Codec rejected the value - drop the partial record
+                pending.position(start);
+                throw e;
+            }
+        }
+
+        int length = pending.position() - start - HEADER;
+        crc.reset();
+        crc.update(pending.array(), start + HEADER, length);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+
+        return ++appendedSeq;
+    }
+
+    /**
+     * Drops the last record appended, whose operation the tree rejected.
+     * @param start - position of the record within pending
+     */
+    private void discard(int start) {
+        pending.position(start);
+        appendedSeq--;
+    }
+
+    /**
+     * Applies the sync policy to a newly appended record.
+     * @param seq - sequence number of the record
+     * @param full - true if the pending batch is large enough to write now
+     * @throws IOException if the log cannot be written
+     */
+    private void commit(long seq, boolean full) throws IOException {
+        if (policy == SyncPolicy.ALWAYS || full)
+            sync(seq, policy != SyncPolicy.NEVER);
+    }
+
+    /**
+     * Waits until record seq has been written to the log.  If no other thread
+     * is writing, this thread writes the whole pending batch (its own record
+     * and every one appended before it) and fsyncs it if force is set.
+     * @param seq - sequence number that must be written
+     * @param force - true to fsync the batch
+     * @throws IOException if the log cannot be written
+     */
+    private void sync(long seq, boolean force) throws IOException {
+        ByteBuffer batch;
+        long batchSeq;
+        FileChannel channel;
+
+        synchronized (this) {
+            while ((force ? syncedSeq : writtenSeq) < seq && syncing && failure == null)
+                await();
+            if (failure != null)
+                throw new IOException("Log failed", failure);
+            if ((force ? syncedSeq : writtenSeq) >= seq)
+                return;
+
+            //Become the writer of everything appended so far
+            syncing = true;
+            batch = pending;
+            pending = spare;
+            spare = null;
+            batchSeq = appendedSeq;
+            channel = log;
+        }
+
+        IOException error = null;
+        long written = 0;
+        try {
+            batch.flip();
+            while (batch.hasRemaining())
+                written += channel.write(batch);
+            if (force)
+                channel.force(false);
+        }
+        catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            syncing = false;
+            batch.clear();
+            spare = batch;
+
+            if (error != null)
+                failure = error;
+            else {
+                writtenSeq = batchSeq;
+                if (force)
+                    syncedSeq = batchSeq;
+                logBytes += written;
+
+                if (logBytes >= compactionBytes && !compacting && !compactor.isShutdown()) {
+                    compacting = true;
+                    compactor.execute(this::compactNow);
+                }
+            }
+            notifyAll();
+        }
+
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Periodic sync run by the background thread (INTERVAL and NEVER).
+     */
+    private void backgroundSync() {
+        try {
+            long seq;
+            synchronized (this) {
+                seq = appendedSeq;
+                if (seq == writtenSeq && (seq == syncedSeq || policy == SyncPolicy.NEVER))
+                    return;
+            }
+            sync(seq, policy == SyncPolicy.INTERVAL);
+        }
+        catch (IOException e) {
+            //Recorded in failure; reported by the next operation
+        }
+    }
+
+    /**
+     * Waits on this object's monitor.
+     * @throws InterruptedIOException if interrupted
+     */
+    private void await() throws InterruptedIOException {
+        try {
+            wait();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the log");
+        }
+    }
+
+
+    ///////////////////////////////////
+    // COMPACTION
+
+    /**
+     * Rotates to a new log, writes a snapshot of the tree as of the rotation
+     * and deletes the files it replaces.  Called with compacting set.
+     *
+     * Only the rotation holds the lock.  The snapshot is rebuilt from the
+     * files: the current snapshot and the logs closed by the rotation are
+     * replayed into a new tree of the same kind, which then holds the live
+     * tree's contents as of the rotation.  Its shape is the live tree's too
+     * unless the tree restructures itself on searches (e.g. a SplayTree),
+     * which are not logged.
+     *
+     * A failure while rotating leaves the log in an unknown state, so it
+     * fails the log as well as the compaction.
+     */
+    private void compactNow() {
+        long baseGeneration;
+        long newGeneration;
+
+        try {
+            synchronized (this) {
+                //Write out the pending batch so the old log is complete
+                while (syncing)
+                    await();
+                if (failure != null)
+                    throw new IOException("Log failed", failure);
+
+                try {
+                    pending.flip();
+                    while (pending.hasRemaining())
+                        log.write(pending);
+                    pending.clear();
+                    log.force(false);
+                    log.close();
+                    writtenSeq = syncedSeq = appendedSeq;
+
+                    generation++;
+                    log = openLog(generation);
+                    logBytes = 0;
+                }
+                catch (IOException e) {
+                    //Part of the batch may be in the old log - never write it again
+                    pending.clear();
+                    failure = e;
+                    notifyAll();
+                    throw e;
+                }
+
+                baseGeneration = snapshotGeneration;
+                newGeneration = generation;
+            }
+
+            BST<K,T> copy = tree.newEmpty();
+            if (baseGeneration >= 0)
+                serializer.read(snapshotPath(baseGeneration), copy);
+            for (long g = Math.max(baseGeneration, 0); g < newGeneration; g++) {
+                Path file = logPath(g);
+                if (Files.exists(file))
+                    replay(file, false, copy);
+            }
+
+            Path tmp = dir.resolve("snapshot-" + newGeneration + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                serializer.write(copy, channel);
+                channel.force(true);
+            }
+            Files.move(tmp, snapshotPath(newGeneration), StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+
+            synchronized (this) {
+                snapshotGeneration = newGeneration;
+                compactionFailure = null;
+            }
+
+            deleteBefore(newGeneration);
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                compactionFailure = e;
+            }
+        }
+        finally {
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+
+    ///////////////////////////////////
+    // RECOVERY AND FILES
+
+    /**
+     * Loads the newest snapshot, replays the logs written after it and opens
+     * the newest log for appending.
+     * @throws IOException if a file is unreadable or a log is corrupt
+     */
+    private void recover() throws IOException {
+        snapshotGeneration = -1;
+        TreeMap<Long, Path> logs = new TreeMap<Long, Path>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp"))
+                    Files.delete(file);
+                else if (name.startsWith("snapshot-") && name.endsWith(".bst"))
+                    snapshotGeneration = Math.max(snapshotGeneration, generationOf(name));
+                else if (name.startsWith("wal-") && name.endsWith(".log"))
+                    logs.put(generationOf(name), file);
+            }
+        }
+
+        if (snapshotGeneration >= 0)
+            serializer.read(snapshotPath(snapshotGeneration), tree);
+
+        generation = Math.max(snapshotGeneration, 0);
+        for (java.util.Map.Entry<Long, Path> entry : logs.tailMap(generation).entrySet()) {
+            boolean last = entry.getKey().equals(logs.lastKey());
+            replay(entry.getValue(), last, tree);
+            generation = entry.getKey();
+        }
+
+        deleteBefore(snapshotGeneration);
+
+        log = openLog(generation);
+        logBytes = log.size();
+    }
+
+    /**
+     * Applies every record of a log to a tree.
+     * @param file - log file
+     * @param last - true for the newest log, whose torn tail is truncated
+     * @param target - tree to apply the records to
+     * @throws IOException if the log is corrupt before its end
+     */
+    private void replay(Path file, boolean last, BST<K,T> target) throws IOException {
+        //Compaction replays while writers use crc
+        CRC32 crc = new CRC32();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE)
+                throw new IOException("Log too large to map: " + file);
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int position = 0;
+
+            while (buffer.remaining() >= HEADER) {
+                int recordLength = buffer.getInt(position);
+                int checksum = buffer.getInt(position + 4);
+
+                if (recordLength <= 0 || recordLength > buffer.limit() - position - HEADER)
+                    break;
+
+                ByteBuffer record = buffer.duplicate();
+                record.position(position + HEADER).limit(position + HEADER + recordLength);
+
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum)
+                    break;
+
+                apply(record, target);
+                position += HEADER + recordLength;
+                buffer.position(position);
+            }
+
+            if (position < length) {
+                if (!last)
+                    throw new IOException("Corrupt log: " + file + " at byte " + position);
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Applies one log record to a tree.
+     * @param record - record payload
+     * @param target - tree to apply the record to
+     * @throws IOException if the operation code is unknown
+     */
+    private void apply(ByteBuffer record, BST<K,T> target) throws IOException {
+        byte op = record.get();
+        K key = keyCodec.decode(record);
+
+        switch (op) {
+            case INSERT:
+                target.insert(key, infoCodec.decode(record));
+                break;
+            case DELETE_BY_COPY:
+                target.deleteNodeByCopy(key);
+                break;
+            case DELETE_BY_MERGE:
+                target.deleteNodeByMerge(key);
+                break;
+            default:
+                throw new IOException("Unknown log operation " + op);
+        }
+    }
+
+    /**
+     * Deletes snapshots and logs older than the given generation.
+     * @param oldest - generation of the newest complete snapshot
+     * @throws IOException if a file cannot be deleted
+     */
+    private void deleteBefore(long oldest) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean snapshot = name.startsWith("snapshot-") && name.endsWith(".bst");
+                boolean wal = name.startsWith("wal-") && name.endsWith(".log");
+
+                if ((snapshot || wal) && generationOf(name) < oldest)
+                    Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * @param generation - log generation
+     * @return log channel positioned at its end
+     * @throws IOException if the log cannot be opened
+     */
+    private FileChannel openLog(long generation) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        syncDirectory();
+        return channel;
+    }
+
+    /**
+     * @param generation - log generation
+     * @return path of the log
+     */
+    private Path logPath(long generation) {
+        return dir.resolve("wal-" + generation + ".log");
+    }
+
+    /**
+     * @param generation - snapshot generation
+     * @return path of the snapshot
+     */
+    private Path snapshotPath(long generation) {
+        return dir.resolve("snapshot-" + generation + ".bst");
+    }
+
+    /**
+     * @param name - snapshot or log file name
+     * @return generation number within the name
+     */
+    private static long generationOf(String name) {
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    /**
+     * Fsyncs the directory so that created and renamed files survive a crash.
+     * Not every platform allows this, so failures are ignored.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch (IOException e) {
+            //Directory sync unsupported
+        }
+    }
+}
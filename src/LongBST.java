@@ -0,0 +1,365 @@
+/**
+ * @Description:  This is a binary search tree specialized for primitive
+ * long keys and object values.  It mirrors the BST API (insert, search,
+ * findMin/findMax, deleteNodeByCopy/deleteNodeByMerge, rebalance) but stores
+ * unboxed fields in its nodes and compares keys with plain < and ==, avoiding
+ * the boxing and virtual compareTo calls of BST<Long, T>.
+ *
+ * IntBST, LongBST, IntIntBST and LongLongBST are written out by hand, one
+ * per key/value type, and kept line-for-line parallel; a fix to one belongs
+ * in all four.
+ */
+public class LongBST<T> {
+
+    /**
+     * Tree node holding an unboxed key.
+     */
+    private static final class Node<T> {
+        long key;
+        T info;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long key, T info) {
+            this.key = key;
+            this.info = info;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public LongBST() {
+        this.root = null;
+        this.size = 0;
+    }
+
+
+    /**
+     * Inserts a tree node into the tree as a leaf in the appropriate
+     * location within the tree.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public void insert(long key, T info) {
+
+        size++;
+
+        Node<T> node = new Node<T>(key, info);
+
+        //Special case - empty tree
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        //Traverse moving left or right based upon new key's value
+        // relative to each node's key.
+        Node<T> cur = root;
+        while (true) {
+            if (key < cur.key) {
+                if (cur.left == null) {
+                    cur.left = node;
+                    return;
+                }
+                cur = cur.left;
+            }
+            else {
+                if (cur.right == null) {
+                    cur.right = node;
+                    return;
+                }
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the node with the target key, or null if not found.
+     * @param key - target node's key
+     * @return node with key, or null if not found
+     */
+    private Node<T> find(long key) {
+        Node<T> cur = root;
+
+        while (cur != null && cur.key != key)
+            cur = (key < cur.key) ? cur.left : cur.right;
+
+        return cur;
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(long key) {
+        Node<T> node = find(key);
+        return (node == null) ? null : node.info;
+    }
+
+    /**
+     * @param key - target key
+     * @return true if a node with key is in the tree
+     */
+    public boolean contains(long key) {
+        return find(key) != null;
+    }
+
+    /**
+     * @return Info for node with minimum key in tree, or null if empty
+     */
+    public T findMin() {
+        return (root == null) ? null : minNode().info;
+    }
+
+    /**
+     * @return Info for node with the maximum key in tree, or null if empty
+     */
+    public T findMax() {
+        return (root == null) ? null : maxNode().info;
+    }
+
+    /**
+     * @return minimum key in tree
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public long findMinKey() {
+        if (root == null) throw new java.util.NoSuchElementException();
+        return minNode().key;
+    }
+
+    /**
+     * @return maximum key in tree
+     * @throws java.util.NoSuchElementException if the tree is empty
+     */
+    public long findMaxKey() {
+        if (root == null) throw new java.util.NoSuchElementException();
+        return maxNode().key;
+    }
+
+    /**
+     * @return node with minimum key in non-empty tree
+     */
+    private Node<T> minNode() {
+        Node<T> cur = root;
+        while (cur.left != null)
+            cur = cur.left;
+        return cur;
+    }
+
+    /**
+     * @return node with maximum key in non-empty tree
+     */
+    private Node<T> maxNode() {
+        Node<T> cur = root;
+        while (cur.right != null)
+            cur = cur.right;
+        return cur;
+    }
+
+    /**
+     * Performs a delete using deleteByCopy operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByCopy(long key) {
+
+        //////////////////////
+        //Find Node
+        Node<T> prev = null, cur = root;
+        while (cur != null && cur.key != key) {
+            prev = cur;
+            cur = (key < cur.key) ? cur.left : cur.right;
+        }
+
+        if (cur == null) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        Node<T> node = cur;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - copy from immediate predecessor
+        else {
+            Node<T> tmp = cur.left, previous = cur;
+
+            while (tmp.right != null) {
+                previous = tmp;
+                tmp = tmp.right;
+            }
+
+            //Copy value into node to be deleted.
+            cur.key = tmp.key;
+            cur.info = tmp.info;
+
+            //Delete copied node
+            if (previous == cur)
+                previous.left = tmp.left;
+            else
+                previous.right = tmp.left;
+        }
+
+        replace(prev, cur, node);
+    }
+
+    /**
+     * Performs a delete using deleteByMerge operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByMerge(long key) {
+
+        //////////////////////
+        //Find Node
+        Node<T> prev = null, cur = root;
+        while (cur != null && cur.key != key) {
+            prev = cur;
+            cur = (key < cur.key) ? cur.left : cur.right;
+        }
+
+        if (cur == null) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        Node<T> node;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - hang right subtree below immediate predecessor
+        else {
+            Node<T> tmp = cur.left;
+            while (tmp.right != null)
+                tmp = tmp.right;
+
+            tmp.right = cur.right;
+            node = cur.left;
+        }
+
+        replace(prev, cur, node);
+    }
+
+    /**
+     * Updates the parent of a deleted node to reference its replacement.
+     * @param prev - parent of cur (null if cur is the root)
+     * @param cur - node being removed or kept
+     * @param node - replacement subtree
+     */
+    private void replace(Node<T> prev, Node<T> cur, Node<T> node) {
+        if (cur == root)
+            root = node;
+        else if (cur == prev.left)
+            prev.left = node;
+        else
+            prev.right = node;
+    }
+
+    /**
+     * @return size of tree
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return array of all keys in ascending order
+     */
+    public long [] getKeys() {
+        long [] keys = new long[size];
+        int index = 0;
+
+        //Iterative inorder traversal
+        Node<T> [] stack = new Node[32];
+        int top = 0;
+        Node<T> cur = root;
+
+        while (cur != null || top > 0) {
+            while (cur != null) {
+                if (top == stack.length)
+                    stack = java.util.Arrays.copyOf(stack, top * 2);
+                stack[top++] = cur;
+                cur = cur.left;
+            }
+
+            cur = stack[--top];
+            keys[index++] = cur.key;
+            cur = cur.right;
+        }
+        return keys;
+    }
+
+    /**
+     * Rebalances the tree in place using the Day-Stout-Warren algorithm
+     * (see BST.rebalance()).
+     */
+    public void rebalance() {
+
+        //Pseudo-root whose right subtree is the tree being rebalanced
+        Node<T> pseudoRoot = new Node<T>(0L, null);
+        pseudoRoot.right = root;
+
+        //Flatten the tree into a sorted vine using right rotations
+        Node<T> tail = pseudoRoot, rest = root;
+        int count = 0;
+        while (rest != null) {
+            if (rest.left == null) {
+                tail = rest;
+                rest = rest.right;
+                count++;
+            }
+            else {
+                Node<T> tmp = rest.left;
+                rest.left = tmp.right;
+                tmp.right = rest;
+                rest = tmp;
+                tail.right = tmp;
+            }
+        }
+
+        //Fold the vine back into a balanced tree
+        int complete = Integer.highestOneBit(count + 1) - 1;
+        compress(pseudoRoot, count - complete);
+        while (complete > 1) {
+            complete /= 2;
+            compress(pseudoRoot, complete);
+        }
+
+        root = pseudoRoot.right;
+        size = count;
+    }
+
+    /**
+     * Performs a left rotation on every other node along the vine.
+     * @param pseudoRoot - node whose right subtree is the vine
+     * @param count - number of rotations to perform
+     */
+    private void compress(Node<T> pseudoRoot, int count) {
+        Node<T> scanner = pseudoRoot;
+
+        for (int i = 0; i < count; i++) {
+            Node<T> child = scanner.right;
+            scanner.right = child.right;
+            scanner = scanner.right;
+            child.right = scanner.left;
+            scanner.left = child;
+        }
+    }
+
+}
@@ -0,0 +1,249 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @Description:  A bounded, lock-free queue for any number of producer and
+ * consumer threads (Vyukov's array-based design).  Every slot carries a
+ * sequence number saying whether it is ready to be written for position p
+ * (seq == p) or ready to be read (seq == p + 1).  Producers and consumers
+ * claim a position with a single CAS on tail or head and then hand the slot
+ * over by publishing its next sequence number, so the two sides never
+ * contend on the same counter.  Capacity is a power of two.
+ *
+ * enqueue spins (then yields) while the queue is full; use offer to fail
+ * instead.  dequeue returns null when the queue is empty.  front and isEmpty
+ * are snapshots that may be stale by the time they return.  enqueueAll and
+ * drainTo claim a whole run of ready slots with one CAS, so a batch costs
+ * one contended update instead of one per value.
+ */
+public class MpmcQueue<t> implements Queue<t> {
+
+    //Class Variables
+    private final t [] arr;                  //Array to store the data
+    private final AtomicLongArray sequence;  //per-slot sequence numbers
+    private final int mask;                  //arr.length - 1
+
+    private final AtomicLong head;           //next position to dequeue
+    private final AtomicLong tail;           //next position to enqueue
+
+
+    /**
+     * Creates a queue able to hold capacity elements.
+     * @param capacity - capacity (rounded up to a power of two)
+     */
+    public MpmcQueue(int capacity) {
+        int length = RingBufferQueue.powerOfTwo(capacity);
+        arr = (t[]) new Object[length];
+        sequence = new AtomicLongArray(length);
+        mask = length - 1;
+
+        for (int i = 0; i < length; i++)
+            sequence.set(i, i);
+
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+
+
+    /**
+     * Adds a new value to the back of the queue if there is room.
+     * @param value - value to be added.
+     * @return true if added, false if the queue is full.
+     */
+    public boolean offer(t value) {
+        long pos = tail.get();
+
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequence.get(index) - pos;
+
+            //Slot free for this position - try to claim it
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    arr[index] = value;
+                    sequence.lazySet(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            }
+            //Slot still holds the value from one lap ago - full
+            else if (diff < 0)
+                return false;
+            //Another producer claimed pos - move on
+            else
+                pos = tail.get();
+        }
+    }
+
+    /**
+     * Adds a new value to the back of the queue, waiting while it is full.
+     * @param value - value to be added.
+     */
+    public void enqueue(t value) {
+        int spins = 0;
+        while (!offer(value))
+            spins = backoff(spins);
+    }
+
+    /**
+     * Returns the value from the front of queue and removes it from the queue.
+     * @return value removed from front of queue, or null if empty.
+     */
+    public t dequeue() {
+        long pos = head.get();
+
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequence.get(index) - (pos + 1);
+
+            //Slot written for this position - try to claim it
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    t value = arr[index];
+                    arr[index] = null;
+                    sequence.lazySet(index, pos + mask + 1);
+                    return value;
+                }
+                pos = head.get();
+            }
+            //Slot not yet written - empty
+            else if (diff < 0)
+                return null;
+            //Another consumer claimed pos - move on
+            else
+                pos = head.get();
+        }
+    }
+
+    /**
+     * Adds every value of a collection, claiming each run of free slots
+     * with a single CAS on tail and waiting while the queue is full.  The
+     * values of one call are enqueued in iteration order, but values from
+     * other producers may fall between runs.
+     * @param values - values to be added.
+     */
+    @Override
+    public void enqueueAll(java.util.Collection<? extends t> values) {
+        Object [] items = values.toArray();
+        int next = 0, spins = 0;
+
+        while (next < items.length) {
+            long pos = tail.get();
+            int index = (int) pos & mask;
+            long diff = sequence.get(index) - pos;
+
+            //Full - wait for a consumer
+            if (diff < 0) {
+                spins = backoff(spins);
+                continue;
+            }
+            //Another producer claimed pos - move on
+            if (diff > 0)
+                continue;
+
+            //Count the free slots following pos, up to the values left
+            int run = 1;
+            while (next + run < items.length && run <= mask
+                   && sequence.get((int) (pos + run) & mask) == pos + run)
+                run++;
+
+            if (!tail.compareAndSet(pos, pos + run))
+                continue;
+
+            for (int i = 0; i < run; i++) {
+                index = (int) (pos + i) & mask;
+                arr[index] = (t) items[next++];
+                sequence.lazySet(index, pos + i + 1);
+            }
+            spins = 0;
+        }
+    }
+
+    /**
+     * Removes up to max values, claiming each run of written slots with a
+     * single CAS on head.  Safe with any number of other consumers: it
+     * never adds a value another consumer took, and stops as soon as the
+     * queue is seen empty.
+     * @param target - collection receiving the values.
+     * @param max - maximum number of values to remove (none if not positive).
+     * @return number of values removed.
+     */
+    @Override
+    public int drainTo(java.util.Collection<? super t> target, int max) {
+        int count = 0;
+
+        while (count < max) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long diff = sequence.get(index) - (pos + 1);
+
+            //Slot not yet written - empty
+            if (diff < 0)
+                break;
+            //Another consumer claimed pos - move on
+            if (diff > 0)
+                continue;
+
+            //Count the written slots following pos, up to max
+            int run = 1;
+            while (count + run < max && run <= mask
+                   && sequence.get((int) (pos + run) & mask) == pos + run + 1)
+                run++;
+
+            if (!head.compareAndSet(pos, pos + run))
+                continue;
+
+            for (int i = 0; i < run; i++) {
+                index = (int) (pos + i) & mask;
+                target.add(arr[index]);
+                arr[index] = null;
+                sequence.lazySet(index, pos + i + mask + 1);
+            }
+            count += run;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the front element of the queue.
+     * @return value of the front element, or null if empty (a snapshot).
+     */
+    public t front() {
+        long pos = head.get();
+        int index = (int) pos & mask;
+
+        if (sequence.get(index) != pos + 1) return null;
+        t value = arr[index];
+
+        //Discard the read if a consumer took the slot meanwhile
+        return (head.get() == pos) ? value : null;
+    }
+
+    /**
+     * @return true if empty.  False otherwise (a snapshot).
+     */
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    /**
+     * @return number of elements in the queue (a snapshot).
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Waits briefly for a full queue to drain: busy-spins at first, then
+     * yields so a consumer sharing the same core can run.
+     * @param spins - number of failed attempts so far
+     * @return updated number of attempts
+     */
+    private static int backoff(int spins) {
+        if (spins < 100)
+            Thread.onSpinWait();
+        else
+            Thread.yield();
+        return spins + 1;
+    }
+}
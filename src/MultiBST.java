@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Description:  A multimap on top of a BST: every distinct key is stored
+ * once, in a node whose info is the bucket of values inserted with that
+ * key, in insertion order.
+ *
+ * Inserting a key that is already present only appends to its bucket, so
+ * duplicates add no depth to the tree.  insert, search, getAll, count and
+ * removeAll cost one descent; removeOne costs one descent plus the work on
+ * the bucket, and a second descent when the key's last value goes.
+ */
+public class MultiBST<K extends Comparable<K>, T> {
+
+    private final BST<K, List<T>> tree;
+
+    //Total number of values across all buckets
+    private int size;
+
+    /**
+     * Default constructor.  Creates an empty multimap over a plain BST.
+     */
+    public MultiBST() {
+        this(new BST<K, List<T>>());
+    }
+
+    /**
+     * Creates an empty multimap over the given tree, e.g. an AVLTree.
+     * @param tree - empty tree to hold the keys
+     */
+    public MultiBST(BST<K, List<T>> tree) {
+        if (tree.getSize() != 0)
+            throw new IllegalArgumentException("tree must be empty");
+
+        this.tree = tree;
+        this.size = 0;
+    }
+
+    /**
+     * Adds info to the bucket of key, adding key to the tree if needed.
+     * @param key - key of the value
+     * @param info - value to add
+     */
+    public void insert(K key, T info) {
+        tree.computeIfAbsent(key, k -> new ArrayList<T>(2)).add(info);
+        size++;
+
+        //The bucket changed in place; let the tree's watchers know
+        tree.infoModCount++;
+    }
+
+    /**
+     * Returns the oldest value stored with key.
+     * Null if not found
+     * @param key - target key
+     * @return first value of key, or null if not found
+     */
+    public T search(K key) {
+        BTNode<K, List<T>> node = tree.findNode(key);
+        return (node == null) ? null : node.info.get(0);
+    }
+
+    /**
+     * @param key - target key
+     * @return read-only view of the values of key in insertion order (empty
+     * if not found); valid until key is next changed
+     */
+    public List<T> getAll(K key) {
+        BTNode<K, List<T>> node = tree.findNode(key);
+        return (node == null) ? Collections.<T>emptyList()
+                              : Collections.unmodifiableList(node.info);
+    }
+
+    /**
+     * @param key - target key
+     * @return number of values stored with key
+     */
+    public int count(K key) {
+        BTNode<K, List<T>> node = tree.findNode(key);
+        return (node == null) ? 0 : node.info.size();
+    }
+
+    /**
+     * Removes the oldest value stored with key, and key itself if that was
+     * its last value.
+     * @param key - target key
+     * @return removed value, or null if not found
+     */
+    public T removeOne(K key) {
+        BTNode<K, List<T>> node = tree.findNode(key);
+        if (node == null) return null;
+
+        List<T> bucket = node.info;
+        T info = bucket.remove(0);
+        size--;
+
+        if (bucket.isEmpty())
+            tree.deleteNodeByCopy(key);
+        else
+            tree.infoModCount++;
+        return info;
+    }
+
+    /**
+     * Removes key with all of its values.
+     * @param key - target key
+     * @return removed values in insertion order (empty if not found)
+     */
+    public List<T> removeAll(K key) {
+        List<T> bucket = tree.remove(key);
+        if (bucket == null) return Collections.<T>emptyList();
+
+        size -= bucket.size();
+        return bucket;
+    }
+
+    /**
+     * @return total number of values
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of distinct keys
+     */
+    public int getKeyCount() {
+        return tree.getSize();
+    }
+}
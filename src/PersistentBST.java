@@ -0,0 +1,339 @@
+/**
+ * @Description:  This is a persistent (path-copying) binary search tree.
+ * Nodes are never modified once they are reachable from a root: insert and
+ * delete copy only the O(depth) nodes on the root-to-leaf path and then
+ * publish the new root with a single volatile write.  Every root therefore
+ * remains a valid, immutable version of the tree, so snapshot() is O(1),
+ * readers never block or see a partial update, and each snapshot shares all
+ * unmodified subtrees with the live tree.  Writers are serialized.
+ */
+public class PersistentBST<K extends Comparable<K>, T> {
+
+    //Current version; subtree sizes in the nodes make it self-describing
+    private volatile BTNode<K,T> root;
+
+    //Scratch path used by writers (guarded by this)
+    private BTNode<K,T> [] path;
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public PersistentBST() {
+        this(null);
+    }
+
+    /**
+     * Creates a tree whose current version is the given root.
+     * @param root - root of an immutable version, or null
+     */
+    private PersistentBST(BTNode<K,T> root) {
+        this.root = root;
+        this.path = new BTNode[BST.STACK_SIZE];
+    }
+
+    /**
+     * Returns an O(1) point-in-time view of the tree.  The snapshot is itself
+     * a PersistentBST; later changes to either tree are not seen by the other.
+     * @return snapshot sharing structure with this tree
+     */
+    public PersistentBST<K,T> snapshot() {
+        return new PersistentBST<K,T>(root);
+    }
+
+
+    /**
+     * Inserts a tree node into a new version of the tree as a leaf in the
+     * appropriate location, copying the nodes along the search path.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public synchronized void insert(K key, T info) {
+
+        //Traverse recording the path, moving left or right based upon
+        // new key's value relative to each node's key.
+        int depth = 0;
+        boolean left = false;
+        BTNode<K,T> cur = root;
+
+        while (cur != null) {
+            push(depth++, cur);
+            left = key.compareTo(cur.key) < 0;
+            cur = left ? cur.left : cur.right;
+        }
+
+        root = copyPath(depth, new BTNode<K,T>(key, info), left);
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        BTNode<K,T> cur = root;
+
+        while (cur != null) {
+            int cmp = key.compareTo(cur.key);
+            if (cmp == 0)
+                return cur.info;
+
+            cur = (cmp < 0) ? cur.left : cur.right;
+        }
+        return null;
+    }
+
+    /**
+     * @return Info for node with minimum key in tree, or null if empty
+     */
+    public T findMin() {
+        BTNode<K,T> cur = root;
+        if (cur == null) return null;
+
+        while (cur.left != null)
+            cur = cur.left;
+        return cur.info;
+    }
+
+    /**
+     * @return Info for node with the maximum key in tree, or null if empty
+     */
+    public T findMax() {
+        BTNode<K,T> cur = root;
+        if (cur == null) return null;
+
+        while (cur.right != null)
+            cur = cur.right;
+        return cur.info;
+    }
+
+    /**
+     * @return size of tree
+     */
+    public int getSize() {
+        BTNode<K,T> cur = root;
+        return (cur == null) ? 0 : cur.count;
+    }
+
+    /**
+     * Performs an iterative inorder traversal of the current version,
+     * applying visitor to each node until it returns false.  Nodes are shared
+     * between versions and must not be modified by the visitor.
+     * @param visitor - operation applied to each node.
+     * @return true if every node was visited, false if stopped early.
+     */
+    public boolean inOrderTraverse(TreeVisitor<K,T> visitor) {
+        BTNode<K,T> [] stack = new BTNode[BST.STACK_SIZE];
+        int top = 0;
+        BTNode<K,T> cur = root;
+
+        while (cur != null || top > 0) {
+            while (cur != null) {
+                if (top == stack.length) stack = BST.grow(stack);
+                stack[top++] = cur;
+                cur = cur.left;
+            }
+
+            cur = stack[--top];
+            if (!visitor.visit(cur))
+                return false;
+            cur = cur.right;
+        }
+        return true;
+    }
+
+    /**
+     * Performs a delete in a new version of the tree, using deleteByCopy
+     * operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public synchronized void deleteNodeByCopy(K key) {
+
+        int depth = findPath(key);
+        if (depth < 0) return;
+
+        BTNode<K,T> cur = path[depth];
+        BTNode<K,T> node;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - copy immediate predecessor into a copy of cur
+        else {
+            //Left subtree without the predecessor
+            int bottom = pushPredecessorPath(depth);
+            BTNode<K,T> tmp = path[bottom];
+            BTNode<K,T> left = copyPath(bottom, depth + 1, tmp.left, tmp == cur.left);
+
+            node = copy(cur, tmp.key, tmp.info);
+            node.left = left;
+            update(node);
+        }
+
+        root = copyPath(depth, node, isLeftChild(depth));
+    }
+
+    /**
+     * Performs a delete in a new version of the tree, using deleteByMerge
+     * operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public synchronized void deleteNodeByMerge(K key) {
+
+        int depth = findPath(key);
+        if (depth < 0) return;
+
+        BTNode<K,T> cur = path[depth];
+        BTNode<K,T> node;
+
+        //No left child
+        if (cur.left == null)
+            node = cur.right;
+
+        //No right child
+        else if (cur.right == null)
+            node = cur.left;
+
+        //If both children - hang right subtree below a copy of the predecessor
+        else {
+            int bottom = pushPredecessorPath(depth);
+            BTNode<K,T> tmp = copy(path[bottom], path[bottom].key, path[bottom].info);
+            tmp.right = cur.right;
+            update(tmp);
+
+            node = copyPath(bottom, depth + 1, tmp, false);
+        }
+
+        root = copyPath(depth, node, isLeftChild(depth));
+    }
+
+
+    ///////////////////////////////////
+    // PATH COPYING
+
+    /**
+     * Searches for key recording every node visited in path.
+     * @param key - target node's key
+     * @return depth of target node within path, or -1 if not found.
+     */
+    private int findPath(K key) {
+        int depth = 0;
+        BTNode<K,T> cur = root;
+
+        while (cur != null) {
+            push(depth, cur);
+
+            int cmp = key.compareTo(cur.key);
+            if (cmp == 0)
+                return depth;
+
+            depth++;
+            cur = (cmp < 0) ? cur.left : cur.right;
+        }
+        return -1;
+    }
+
+    /**
+     * Extends the path from the node at depth down to its immediate
+     * predecessor (right most node of its left subtree).
+     * @param depth - depth of a node with two children
+     * @return depth of the predecessor within path
+     */
+    private int pushPredecessorPath(int depth) {
+        BTNode<K,T> tmp = path[depth].left;
+        push(++depth, tmp);
+
+        while (tmp.right != null) {
+            tmp = tmp.right;
+            push(++depth, tmp);
+        }
+        return depth;
+    }
+
+    /**
+     * @param depth - depth of a node within path (> 0)
+     * @return true if the node is the left child of its parent on the path
+     */
+    private boolean isLeftChild(int depth) {
+        return depth > 0 && path[depth - 1].left == path[depth];
+    }
+
+    /**
+     * Copies path[depth-1] ... path[0] so that the subtree at path[depth] is
+     * replaced by node, and returns the new root.
+     * @see #copyPath(int, int, BTNode, boolean)
+     */
+    private BTNode<K,T> copyPath(int depth, BTNode<K,T> node, boolean left) {
+        return copyPath(depth, 0, node, left);
+    }
+
+    /**
+     * Copies path[depth-1] ... path[top] bottom-up so that the child at
+     * path[depth] is replaced by node.  The original nodes are untouched.
+     * @param depth - depth of the subtree being replaced
+     * @param top - shallowest depth to copy
+     * @param node - replacement subtree (may be null)
+     * @param left - true if the replaced subtree is a left child
+     * @return copy of path[top] (or node itself if depth == top)
+     */
+    private BTNode<K,T> copyPath(int depth, int top, BTNode<K,T> node, boolean left) {
+        for (int i = depth - 1; i >= top; i--) {
+            BTNode<K,T> parent = copy(path[i], path[i].key, path[i].info);
+
+            if (left)
+                parent.left = node;
+            else
+                parent.right = node;
+            update(parent);
+
+            left = (i > top) && path[i - 1].left == path[i];
+            node = parent;
+        }
+        return node;
+    }
+
+    /**
+     * @param node - node to copy
+     * @param key - key for the copy
+     * @param info - info for the copy
+     * @return unpublished copy of node with the same children
+     */
+    private BTNode<K,T> copy(BTNode<K,T> node, K key, T info) {
+        BTNode<K,T> result = new BTNode<K,T>(key, info);
+        result.left = node.left;
+        result.right = node.right;
+        result.height = node.height;
+        result.count = node.count;
+        return result;
+    }
+
+    /**
+     * Recomputes subtree size and height of an unpublished node.
+     * @param node - node to update.
+     */
+    private void update(BTNode<K,T> node) {
+        int leftHeight = (node.left == null) ? 0 : node.left.height;
+        int rightHeight = (node.right == null) ? 0 : node.right.height;
+
+        node.height = 1 + Math.max(leftHeight, rightHeight);
+        node.count = 1 + ((node.left == null) ? 0 : node.left.count)
+                + ((node.right == null) ? 0 : node.right.count);
+    }
+
+    /**
+     * Records node at the given depth of path, growing it if needed.
+     * @param depth - index within path
+     * @param node - node visited at that depth
+     */
+    private void push(int depth, BTNode<K,T> node) {
+        if (depth == path.length)
+            path = BST.grow(path);
+        path[depth] = node;
+    }
+
+}
@@ -0,0 +1,358 @@
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+
+/**
+ * @Description:  This is a binary search tree whose nodes live in a pool of
+ * parallel arrays (struct-of-arrays) rather than as individual BTNode objects.
+ * A node is an int slot index; its key, info and left/right child indices are
+ * stored at that index of the keys, infos, left and right arrays.  Deleted
+ * slots are kept on a free list (threaded through the left array) and reused
+ * by later inserts, so a large tree is four arrays for the garbage collector
+ * to trace instead of millions of small objects.  Insert, search and delete
+ * semantics match BST.
+ */
+public class PooledBST<K extends Comparable<K>, T> {
+
+    //Index used in place of a null child reference
+    private static final int NIL = -1;
+
+    private Object [] keys;
+    private Object [] infos;
+    private int [] left;
+    private int [] right;
+
+    private int root;      //slot of root node, NIL if empty
+    private int size;      //number of nodes in tree
+    private int free;      //head of free list, NIL if none
+    private int used;      //slots [0, used) have been handed out at least once
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public PooledBST() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty tree with room for capacity nodes before growing.
+     * @param capacity - initial number of node slots
+     */
+    public PooledBST(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.keys = new Object[capacity];
+        this.infos = new Object[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.root = NIL;
+        this.size = 0;
+        this.free = NIL;
+        this.used = 0;
+    }
+
+
+    /**
+     * Inserts a tree node into the tree as a leaf in the appropriate
+     * location within the tree.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    public void insert(K key, T info) {
+
+        //Traverse moving left or right based upon new key's value
+        // relative to each node's key, before taking a slot, so that a
+        // failing compareTo leaves the tree unchanged.
+        int prev = NIL;
+        boolean goLeft = false;
+        int cur = root;
+        while (cur != NIL) {
+            prev = cur;
+            goLeft = key.compareTo(key(cur)) < 0;
+            cur = goLeft ? left[cur] : right[cur];
+        }
+
+        int node = allocate(key, info);
+        size++;
+
+        //Special case - empty tree
+        if (prev == NIL)
+            root = node;
+        else if (goLeft)
+            left[prev] = node;
+        else
+            right[prev] = node;
+    }
+
+    /**
+     * Returns the info of the node with the target key in the tree.
+     * Null if not found
+     * @param key - target node's key
+     * @return info of target node, or null if not found
+     */
+    public T search(K key) {
+        int cur = root;
+
+        while (cur != NIL) {
+            int cmp = key.compareTo(key(cur));
+            if (cmp == 0)
+                return info(cur);
+
+            cur = (cmp < 0) ? left[cur] : right[cur];
+        }
+        return null;
+    }
+
+    /**
+     * @return Info for node with minimum key in tree, or null if empty
+     */
+    public T findMin() {
+        if (root == NIL) return null;
+
+        int cur = root;
+        while (left[cur] != NIL)
+            cur = left[cur];
+        return info(cur);
+    }
+
+    /**
+     * @return Info for node with the maximum key in tree, or null if empty
+     */
+    public T findMax() {
+        if (root == NIL) return null;
+
+        int cur = root;
+        while (right[cur] != NIL)
+            cur = right[cur];
+        return info(cur);
+    }
+
+    /**
+     * Performs a delete using deleteByCopy operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByCopy(K key) {
+
+        //////////////////////
+        //Find Node
+        int prev = NIL, cur = root;
+        while (cur != NIL) {
+            int cmp = key.compareTo(key(cur));
+            if (cmp == 0) break;
+
+            prev = cur;
+            cur = (cmp < 0) ? left[cur] : right[cur];
+        }
+
+        if (cur == NIL) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        //No left child
+        if (left[cur] == NIL) {
+            replace(prev, cur, right[cur]);
+            release(cur);
+        }
+
+        //No right child
+        else if (right[cur] == NIL) {
+            replace(prev, cur, left[cur]);
+            release(cur);
+        }
+
+        //If both children - copy from immediate predecessor
+        else {
+            int tmp = left[cur], previous = cur;
+
+            while (right[tmp] != NIL) {
+                previous = tmp;
+                tmp = right[tmp];
+            }
+
+            //Copy value into node to be deleted.
+            keys[cur] = keys[tmp];
+            infos[cur] = infos[tmp];
+
+            //Delete copied node
+            if (previous == cur)
+                left[previous] = left[tmp];
+            else
+                right[previous] = left[tmp];
+
+            release(tmp);
+        }
+    }
+
+    /**
+     * Performs a delete using deleteByMerge operations if deleted node has two children.
+     * @param key - key of node we wish to delete
+     */
+    public void deleteNodeByMerge(K key) {
+
+        //////////////////////
+        //Find Node
+        int prev = NIL, cur = root;
+        while (cur != NIL) {
+            int cmp = key.compareTo(key(cur));
+            if (cmp == 0) break;
+
+            prev = cur;
+            cur = (cmp < 0) ? left[cur] : right[cur];
+        }
+
+        if (cur == NIL) return;
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+
+        int node;
+
+        //No left child
+        if (left[cur] == NIL)
+            node = right[cur];
+
+        //No right child
+        else if (right[cur] == NIL)
+            node = left[cur];
+
+        //If both children - hang right subtree below immediate predecessor
+        else {
+            int tmp = left[cur];
+            while (right[tmp] != NIL)
+                tmp = right[tmp];
+
+            right[tmp] = right[cur];
+            node = left[cur];
+        }
+
+        replace(prev, cur, node);
+        release(cur);
+    }
+
+    /**
+     * @return size of tree
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of node slots currently allocated
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Performs an iterative inorder traversal, applying visitor to each
+     * key and info until it returns false.
+     * @param visitor - operation applied to each key/info pair
+     * @return true if every node was visited, false if stopped early.
+     */
+    public boolean inOrderTraverse(BiPredicate<? super K, ? super T> visitor) {
+        int [] stack = new int[32];
+        int top = 0;
+        int cur = root;
+
+        while (cur != NIL || top > 0) {
+            while (cur != NIL) {
+                if (top == stack.length)
+                    stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = cur;
+                cur = left[cur];
+            }
+
+            cur = stack[--top];
+            if (!visitor.test(key(cur), info(cur)))
+                return false;
+            cur = right[cur];
+        }
+        return true;
+    }
+
+
+    ///////////////////////////////////
+    // SLOT MANAGEMENT
+
+    /**
+     * Takes a slot from the free list (or the unused tail of the arrays,
+     * growing them if needed) and fills it with a new leaf.
+     * @param key - key of new node
+     * @param info - info of new node
+     * @return slot index of the new node
+     */
+    private int allocate(K key, T info) {
+        int slot;
+
+        if (free != NIL) {
+            slot = free;
+            free = left[slot];
+        }
+        else {
+            if (used == keys.length)
+                grow();
+            slot = used++;
+        }
+
+        keys[slot] = key;
+        infos[slot] = info;
+        left[slot] = NIL;
+        right[slot] = NIL;
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the free list, clearing its references so the key
+     * and info can be garbage collected.
+     * @param slot - slot of a node no longer in the tree
+     */
+    private void release(int slot) {
+        keys[slot] = null;
+        infos[slot] = null;
+        right[slot] = NIL;
+        left[slot] = free;
+        free = slot;
+    }
+
+    /**
+     * Doubles the capacity of every pool array.
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        infos = Arrays.copyOf(infos, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+    }
+
+    /**
+     * Updates the parent of a deleted node to reference its replacement.
+     * @param prev - parent slot of cur (NIL if cur is the root)
+     * @param cur - slot of node being removed
+     * @param node - slot of replacement subtree
+     */
+    private void replace(int prev, int cur, int node) {
+        if (cur == root)
+            root = node;
+        else if (left[prev] == cur)
+            left[prev] = node;
+        else
+            right[prev] = node;
+    }
+
+    /**
+     * @param slot - node slot
+     * @return key stored in slot
+     */
+    private K key(int slot) {
+        return (K) keys[slot];
+    }
+
+    /**
+     * @param slot - node slot
+     * @return info stored in slot
+     */
+    private T info(int slot) {
+        return (T) infos[slot];
+    }
+
+}
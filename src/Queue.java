@@ -33,4 +33,33 @@ public interface Queue<t> {
      */
     public boolean isEmpty();
 
+
+    /**
+     * Adds every value of a collection to the back of the queue in
+     * iteration order.
+     * @param values - values to be added.
+     */
+    public default void enqueueAll(java.util.Collection<? extends t> values) {
+        for (t value : values)
+            enqueue(value);
+    }
+
+
+    /**
+     * Removes up to max values from the front of the queue, adding them
+     * to target in queue order.  The default checks isEmpty before each
+     * dequeue, so queues shared by several consumers must override it.
+     * @param target - collection receiving the values.
+     * @param max - maximum number of values to remove (none if not positive).
+     * @return number of values removed.
+     */
+    public default int drainTo(java.util.Collection<? super t> target, int max) {
+        int count = 0;
+        while (count < max && !isEmpty()) {
+            target.add(dequeue());
+            count++;
+        }
+        return count;
+    }
+
 }
@@ -0,0 +1,137 @@
+/**
+ * @Description:  A growable, unsynchronized queue backed by a ring buffer
+ * whose capacity is always a power of two, so positions wrap with a bit mask
+ * rather than %.  When full, enqueue doubles the buffer instead of dropping
+ * the value.  Dequeue and front return null when the queue is empty.
+ */
+public class RingBufferQueue<t> implements Queue<t> {
+
+    //Class Variables
+    private t [] arr;  //Array to store the data; length is a power of two.
+    private int mask;  //arr.length - 1
+    private int head;  //Index of front of queue
+    private int count; //number of elements in the queue.
+
+
+    /**
+     * Default constructor.  Creates a queue with a small initial capacity.
+     */
+    public RingBufferQueue() {
+        this(16);
+    }
+
+    /**
+     * Creates a queue able to hold capacity elements before growing.
+     * @param capacity - initial capacity (rounded up to a power of two)
+     */
+    public RingBufferQueue(int capacity) {
+        int length = powerOfTwo(capacity);
+        arr = (t[]) new Object[length];
+        mask = length - 1;
+        head = 0;
+        count = 0;
+    }
+
+
+    /**
+     * Adds a new value to the back of the queue, growing it if full.
+     * @param value - value to be added.
+     */
+    public void enqueue(t value) {
+        if (count == arr.length)
+            resize(arr.length * 2);
+
+        arr[(head + count) & mask] = value;
+        count++;
+    }
+
+    /**
+     * Adds every value of a collection, growing at most once.
+     * @param values - values to be added.
+     */
+    @Override
+    public void enqueueAll(java.util.Collection<? extends t> values) {
+        int needed = count + values.size();
+        if (needed > arr.length)
+            resize(powerOfTwo(needed));
+
+        int tail = head + count;
+        for (t value : values)
+            arr[tail++ & mask] = value;
+        count += values.size();
+    }
+
+    /**
+     * Returns the value from the front of queue and removes it from the queue.
+     * @return value removed from front of queue, or null if empty.
+     */
+    public t dequeue() {
+        if (count == 0) return null;
+
+        t value = arr[head];
+        arr[head] = null;
+        head = (head + 1) & mask;
+        count--;
+        return value;
+    }
+
+    /**
+     * Returns the value of the front element of the queue.
+     * @return value of the front element of the queue, or null if empty.
+     */
+    public t front() {
+        return (count == 0) ? null : arr[head];
+    }
+
+    /**
+     * @return true if empty.  False otherwise.
+     */
+    public boolean isEmpty() {
+        return (count == 0);
+    }
+
+    /**
+     * @return number of elements in the queue.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Clears the queue, keeping its capacity for reuse.
+     */
+    public void clear() {
+        while (count > 0) {
+            arr[head] = null;
+            head = (head + 1) & mask;
+            count--;
+        }
+        head = 0;
+    }
+
+    /**
+     * Copies the elements, in queue order, into a new buffer.
+     * @param length - new buffer length (a power of two >= count)
+     */
+    private void resize(int length) {
+        t [] bigger = (t[]) new Object[length];
+        for (int i = 0; i < count; i++)
+            bigger[i] = arr[(head + i) & mask];
+
+        arr = bigger;
+        mask = length - 1;
+        head = 0;
+    }
+
+    /**
+     * @param capacity - requested capacity
+     * @return smallest power of two >= capacity (at least 2)
+     */
+    static int powerOfTwo(int capacity) {
+        if (capacity <= 2) return 2;
+        int length = Integer.highestOneBit(capacity - 1) << 1;
+        if (length <= 0)
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        return length;
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * @Description:  This is an implementation of a self-adjusting (splay)
+ * binary search tree.  search, insert and both deletes splay the accessed
+ * key to the root with top-down splaying: a single iterative pass that
+ * rotates pairs of nodes on the way down and hangs the rest of the path on
+ * a left and a right tree that are reassembled under the new root.  Every
+ * operation costs O(log n) amortized, and recently or frequently accessed
+ * keys stay near the root, so lookups of a small set of hot keys approach
+ * O(1).
+ *
+ * Subtree sizes are maintained during splaying, so rank, select and the
+ * cursors work as in BST.  Heights are not: a splay changes them along the
+ * whole path, so height caching is unsupported.  Because search changes the
+ * tree, it invalidates open cursors just as insert does.
+ */
+public class SplayTree<K extends Comparable<K>, T> extends BST<K, T> {
+
+    //Scratch node whose children collect the right and left trees during a splay
+    private final BTNode<K,T> header = new BTNode<K,T>(null, null);
+
+    /**
+     * Default constructor.  Creates an empty tree.
+     */
+    public SplayTree() {
+        super();
+    }
+
+
+    /**
+     * Inserts a tree node into the tree as the new root: the tree is splayed
+     * at key and split around the old root.
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    public void insert(K key, T info) {
+        locateLength = (root == null) ? 0 : splay(key);
+        attach(0, key, info);
+    }
+
+    /**
+     * Returns the node with the target key after splaying it (or the last
+     * node on its search path) to the root.  Used by search.
+     * @param key - target node's key
+     * @return node with key, or null if not found
+     */
+    @Override
+    BTNode<K,T> findNode(K key) {
+        int depth = locate(key);
+        releasePath();
+        if (metrics != null) metrics.recordSearch(locateLength);
+        return (depth < 0) ? null : root;
+    }
+
+    /**
+     * Splays key to the root and removes it, joining its subtrees by
+     * splaying the maximum of the left subtree to its top.  Splaying leaves
+     * no choice between copying and merging, so this is the same as
+     * deleteNodeByMerge.
+     * @param key - key of node we wish to delete
+     */
+    @Override
+    public void deleteNodeByCopy(K key) {
+        delete(key);
+    }
+
+    /**
+     * Splays key to the root and removes it; see deleteNodeByCopy.
+     * @param key - key of node we wish to delete
+     */
+    @Override
+    public void deleteNodeByMerge(K key) {
+        delete(key);
+    }
+
+    /**
+     * Splaying changes heights along the whole access path, so they are
+     * never cached.
+     * @param enabled - must be false
+     */
+    @Override
+    public void setHeightCaching(boolean enabled) {
+        if (enabled)
+            throw new UnsupportedOperationException("SplayTree does not cache heights");
+    }
+
+    /**
+     * @return new empty SplayTree
+     */
+    @Override
+    BST<K,T> newEmpty() {
+        return new SplayTree<K,T>();
+    }
+
+    /**
+     * Inserts one key of a sorted batch with insert, since every insert splays
+     * the key to the root.
+     * @param finger - finger shared by the batch (unused)
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    void insertAt(BSTFinger<K,T> finger, K key, T info) {
+        insert(key, info);
+    }
+
+    /**
+     * Deletes one key of a sorted batch with deleteNodeByCopy, since every delete
+     * splays the key to the root.
+     * @param finger - finger shared by the batch (unused)
+     * @param key - key of node we wish to delete
+     */
+    @Override
+    void deleteAt(BSTFinger<K,T> finger, K key) {
+        deleteNodeByCopy(key);
+    }
+
+
+    ///////////////////////////////////
+    // SPLAYING
+
+    /**
+     * Deletes the node with key (if any) after splaying it to the root.
+     * @param key - key of node we wish to delete
+     */
+    private void delete(K key) {
+        int depth = locate(key);
+
+        if (depth < 0) {
+            if (metrics != null) metrics.recordDelete(locateLength);
+        }
+        else
+            detach(depth);
+        releasePath();
+    }
+
+    /**
+     * Splays key to the root, which becomes the whole recorded path.
+     * @param key - target key
+     * @return 0 if the root now has key, otherwise -1 (empty tree) or -2
+     */
+    @Override
+    int locate(K key) {
+        locateCount++;
+        if (root == null) {
+            locateLength = 0;
+            return -1;
+        }
+
+        modCount++;
+        locateLength = splay(key);
+        push(0, root);
+
+        return (key.compareTo(root.key) == 0) ? 0 : -2;
+    }
+
+    /**
+     * Adds a node for key as the new root, splitting the tree (already
+     * splayed at key) around the old root.
+     * @param depth - unused; the path is just the root
+     * @param key - Key of new node
+     * @param info - Info of new node.
+     */
+    @Override
+    void attach(int depth, K key, T info) {
+        size++;
+        modCount++;
+
+        BTNode<K,T> node = new BTNode<K,T>(key, info);
+
+        //Special case - empty tree
+        if (root == null) {
+            root = node;
+            if (metrics != null) metrics.recordInsert(0);
+            return;
+        }
+
+        //Old root and the side of it beyond key become node's children
+        BTNode<K,T> old = root;
+        if (key.compareTo(old.key) < 0) {
+            node.left = old.left;
+            node.right = old;
+            old.left = null;
+        }
+        else {
+            node.right = old.right;
+            node.left = old;
+            old.right = null;
+        }
+
+        updateCount(old);
+        updateCount(node);
+        root = node;
+
+        if (metrics != null) metrics.recordInsert(locateLength);
+    }
+
+    /**
+     * Removes the root (splayed by the last locate), joining its subtrees by
+     * splaying the maximum of the left subtree to its top.
+     * @param depth - unused; always 0
+     */
+    @Override
+    void detach(int depth) {
+        if (metrics != null) metrics.recordDelete(locateLength);
+
+        //Decrement size since deletion is now guaranteed
+        size--;
+        modCount++;
+
+        BTNode<K,T> right = root.right;
+
+        if (root.left == null)
+            root = right;
+        else {
+            //The left subtree's maximum has no right child once splayed
+            root = root.left;
+            splay(null);
+            root.right = right;
+            updateCount(root);
+        }
+    }
+
+    /**
+     * Top-down splay (Sleator and Tarjan): moves the node with key, or the
+     * last node on its search path, to the root in one iterative pass.
+     * Nodes passed on the way down are linked into a left tree (keys below
+     * key) and a right tree (keys above), whose spines' subtree sizes are
+     * fixed up once the final root, and so the sizes of both trees, are known.
+     * @param key - key to splay, or null to splay the maximum
+     * @return number of nodes whose key was compared with key
+     */
+    private int splay(K key) {
+        BTNode<K,T> t = root;
+        BTNode<K,T> left = header, right = header;
+        int leftSize = 0, rightSize = 0, length = 0;
+
+        header.left = header.right = null;
+
+        while (true) {
+            int cmp = compare(key, t);
+            length++;
+
+            if (cmp < 0) {
+                if (t.left == null) break;
+
+                //Zig-zig - rotate right before descending
+                if (compare(key, t.left) < 0) {
+                    length++;
+                    BTNode<K,T> child = t.left;
+                    t.left = child.right;
+                    child.right = t;
+                    updateCount(t);
+                    t = child;
+                    if (metrics != null) metrics.recordRotation();
+                    if (t.left == null) break;
+                }
+
+                //Link t into the right tree
+                right.left = t;
+                right = t;
+                t = t.left;
+                rightSize += 1 + count(right.right);
+            }
+            else if (cmp > 0) {
+                if (t.right == null) break;
+
+                //Zig-zig - rotate left before descending
+                if (compare(key, t.right) > 0) {
+                    length++;
+                    BTNode<K,T> child = t.right;
+                    t.right = child.left;
+                    child.left = t;
+                    updateCount(t);
+                    t = child;
+                    if (metrics != null) metrics.recordRotation();
+                    if (t.right == null) break;
+                }
+
+                //Link t into the left tree
+                left.right = t;
+                left = t;
+                t = t.right;
+                leftSize += 1 + count(left.left);
+            }
+            else
+                break;
+        }
+
+        //Sizes of the reassembled left and right subtrees of t
+        leftSize += count(t.left);
+        rightSize += count(t.right);
+        t.count = leftSize + rightSize + 1;
+
+        left.right = null;
+        right.left = null;
+
+        //Each spine node's subtree becomes everything below it on the spine
+        // plus t's old child hung at the bottom
+        for (BTNode<K,T> y = header.right; y != null; y = y.right) {
+            y.count = leftSize;
+            leftSize -= 1 + count(y.left);
+        }
+        for (BTNode<K,T> y = header.left; y != null; y = y.left) {
+            y.count = rightSize;
+            rightSize -= 1 + count(y.right);
+        }
+
+        //Reassemble
+        left.right = t.left;
+        right.left = t.right;
+        t.left = header.right;
+        t.right = header.left;
+        root = t;
+
+        header.left = header.right = null;
+        return length;
+    }
+
+    /**
+     * @param key - search key, or null for a key above every other
+     * @param node - node being compared
+     * @return < 0, 0 or > 0 as key is less than, equal to or greater than node
+     */
+    private int compare(K key, BTNode<K,T> node) {
+        return (key == null) ? 1 : key.compareTo(node.key);
+    }
+
+}
@@ -0,0 +1,189 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description:  A bounded, lock-free queue for exactly one producer thread
+ * and one consumer thread (e.g. an ingest thread handing work to the thread
+ * that owns a tree).  The producer only writes tail and the consumer only
+ * writes head; each publishes with an ordered (release) store and caches the
+ * other side's counter so the shared counters are read only when the cached
+ * value says the queue looks full or empty.  Capacity is a power of two so
+ * positions wrap with a bit mask.
+ *
+ * enqueue spins (then yields) while the queue is full; use offer to fail
+ * instead.  dequeue and front return null when the queue is empty.
+ */
+public class SpscQueue<t> implements Queue<t> {
+
+    //Class Variables
+    private final t [] arr;    //Array to store the data; length is a power of two.
+    private final int mask;    //arr.length - 1
+
+    private final AtomicLong head;  //next position to dequeue (written by consumer)
+    private final AtomicLong tail;  //next position to enqueue (written by producer)
+
+    private long headCache;    //producer's last read of head
+    private long tailCache;    //consumer's last read of tail
+
+
+    /**
+     * Creates a queue able to hold capacity elements.
+     * @param capacity - capacity (rounded up to a power of two)
+     */
+    public SpscQueue(int capacity) {
+        int length = RingBufferQueue.powerOfTwo(capacity);
+        arr = (t[]) new Object[length];
+        mask = length - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+
+
+    /**
+     * Adds a new value to the back of the queue if there is room.
+     * Producer thread only.
+     * @param value - value to be added.
+     * @return true if added, false if the queue is full.
+     */
+    public boolean offer(t value) {
+        long pos = tail.get();
+
+        if (pos - headCache == arr.length) {
+            headCache = head.get();
+            if (pos - headCache == arr.length)
+                return false;
+        }
+
+        arr[(int) pos & mask] = value;
+        tail.lazySet(pos + 1);
+        return true;
+    }
+
+    /**
+     * Adds a new value to the back of the queue, waiting while it is full.
+     * Producer thread only.
+     * @param value - value to be added.
+     */
+    public void enqueue(t value) {
+        int spins = 0;
+        while (!offer(value))
+            spins = backoff(spins);
+    }
+
+    /**
+     * Adds every value of a collection, publishing each run of values that
+     * fits with a single update of tail.  Producer thread only.
+     * @param values - values to be added.
+     */
+    @Override
+    public void enqueueAll(java.util.Collection<? extends t> values) {
+        java.util.Iterator<? extends t> it = values.iterator();
+        long pos = tail.get();
+        int spins = 0;
+
+        while (it.hasNext()) {
+            long free = arr.length - (pos - headCache);
+            if (free == 0) {
+                headCache = head.get();
+                free = arr.length - (pos - headCache);
+                if (free == 0) {
+                    spins = backoff(spins);
+                    continue;
+                }
+                spins = 0;
+            }
+
+            long end = pos + free;
+            while (pos < end && it.hasNext()) {
+                arr[(int) pos & mask] = it.next();
+                pos++;
+            }
+            tail.lazySet(pos);
+        }
+    }
+
+    /**
+     * Returns the value from the front of queue and removes it from the queue.
+     * Consumer thread only.
+     * @return value removed from front of queue, or null if empty.
+     */
+    public t dequeue() {
+        long pos = head.get();
+
+        if (pos == tailCache) {
+            tailCache = tail.get();
+            if (pos == tailCache)
+                return null;
+        }
+
+        int index = (int) pos & mask;
+        t value = arr[index];
+        arr[index] = null;
+        head.lazySet(pos + 1);
+        return value;
+    }
+
+    /**
+     * Removes up to max values, releasing their slots with a single update
+     * of head.  Consumer thread only.
+     * @param target - collection receiving the values.
+     * @param max - maximum number of values to remove (none if not positive).
+     * @return number of values removed.
+     */
+    @Override
+    public int drainTo(java.util.Collection<? super t> target, int max) {
+        if (max <= 0) return 0;
+
+        long pos = head.get();
+        tailCache = tail.get();
+
+        int count = (int) Math.min(max, tailCache - pos);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (pos + i) & mask;
+            target.add(arr[index]);
+            arr[index] = null;
+        }
+
+        head.lazySet(pos + count);
+        return count;
+    }
+
+    /**
+     * Returns the value of the front element of the queue.
+     * Consumer thread only.
+     * @return value of the front element of the queue, or null if empty.
+     */
+    public t front() {
+        long pos = head.get();
+        if (pos == tail.get()) return null;
+
+        return arr[(int) pos & mask];
+    }
+
+    /**
+     * @return true if empty.  False otherwise.
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * @return number of elements in the queue (a snapshot under concurrency).
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Waits briefly for a full queue to drain: busy-spins at first, then
+     * yields so a consumer sharing the same core can run.
+     * @param spins - number of failed attempts so far
+     * @return updated number of attempts
+     */
+    private static int backoff(int spins) {
+        if (spins < 100)
+            Thread.onSpinWait();
+        else
+            Thread.yield();
+        return spins + 1;
+    }
+}
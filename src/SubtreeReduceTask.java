@@ -0,0 +1,132 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * @Description:  Fork-join task that reduces the nodes of a subtree in
+ * inorder.  While the current subtree is larger than the threshold, the
+ * task forks its smaller child and moves down into the larger one in a
+ * loop, so a degenerate tree costs no stack depth.  Subtrees at or below
+ * the threshold are reduced sequentially with an explicit stack.  See
+ * BST.parallelReduce.
+ */
+class SubtreeReduceTask<K extends Comparable<K>, T, R> extends RecursiveTask<R> {
+
+    private static final long serialVersionUID = 1L;
+
+    private BTNode<K,T> node;
+    private R identity;
+    private Function<? super BTNode<K,T>, ? extends R> mapper;
+    private BinaryOperator<R> combiner;
+    private int threshold;
+
+    /**
+     * Default constructor
+     * @param node - root of subtree to reduce
+     * @param identity - identity value for combiner
+     * @param mapper - maps a node to a partial result
+     * @param combiner - associative function combining partial results
+     * @param threshold - subtree size at or below which no task is forked
+     */
+    SubtreeReduceTask(BTNode<K,T> node, R identity,
+                      Function<? super BTNode<K,T>, ? extends R> mapper,
+                      BinaryOperator<R> combiner, int threshold) {
+        this.node = node;
+        this.identity = identity;
+        this.mapper = mapper;
+        this.combiner = combiner;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected R compute() {
+        //Partial results left and right of cur, each in inorder
+        ArrayList<SubtreeReduceTask<K,T,R>> before = new ArrayList<SubtreeReduceTask<K,T,R>>();
+        ArrayDeque<SubtreeReduceTask<K,T,R>> after = new ArrayDeque<SubtreeReduceTask<K,T,R>>();
+
+        BTNode<K,T> cur = node;
+        while (cur != null && cur.count > threshold) {
+            if (count(cur.left) <= count(cur.right)) {
+                if (cur.left != null) before.add(reduce(cur.left));
+                before.add(done(mapper.apply(cur)));
+                cur = cur.right;
+            }
+            else {
+                if (cur.right != null) after.addFirst(reduce(cur.right));
+                after.addFirst(done(mapper.apply(cur)));
+                cur = cur.left;
+            }
+        }
+
+        R result = identity;
+        for (SubtreeReduceTask<K,T,R> piece : before)
+            result = combiner.apply(result, piece.join());
+        result = combiner.apply(result, reduceSequential(cur));
+        for (SubtreeReduceTask<K,T,R> piece : after)
+            result = combiner.apply(result, piece.join());
+        return result;
+    }
+
+    /**
+     * Starts the reduction of a child subtree: computed here if it is at or
+     * below the threshold, otherwise by a forked task.
+     * @param child - root of the subtree
+     * @return task holding or computing the reduction
+     */
+    private SubtreeReduceTask<K,T,R> reduce(BTNode<K,T> child) {
+        if (child.count <= threshold)
+            return done(reduceSequential(child));
+
+        SubtreeReduceTask<K,T,R> task =
+                new SubtreeReduceTask<K,T,R>(child, identity, mapper, combiner, threshold);
+        task.fork();
+        return task;
+    }
+
+    /**
+     * @param value - partial result already computed
+     * @return completed task holding value
+     */
+    private SubtreeReduceTask<K,T,R> done(R value) {
+        SubtreeReduceTask<K,T,R> task =
+                new SubtreeReduceTask<K,T,R>(null, identity, mapper, combiner, threshold);
+        task.complete(value);
+        return task;
+    }
+
+    /**
+     * @param node - root of subtree or null
+     * @return number of nodes in the subtree
+     */
+    private static int count(BTNode<?,?> node) {
+        return (node == null) ? 0 : node.count;
+    }
+
+    /**
+     * Reduces a subtree with an iterative inorder traversal.
+     * @param root - root of subtree, or null
+     * @return reduction of every node in the subtree
+     */
+    private R reduceSequential(BTNode<K,T> root) {
+        R result = identity;
+
+        BTNode<K,T> [] stack = new BTNode[BST.STACK_SIZE];
+        int top = 0;
+        BTNode<K,T> cur = root;
+
+        while (cur != null || top > 0) {
+            while (cur != null) {
+                if (top == stack.length) stack = BST.grow(stack);
+                stack[top++] = cur;
+                cur = cur.left;
+            }
+
+            cur = stack[--top];
+            result = combiner.apply(result, mapper.apply(cur));
+            cur = cur.right;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Description:  Operation counters of a tree (see BST.setMetricsEnabled()).
+ *
+ * Every insert, search and delete records the length of its search path,
+ * i.e. the number of nodes whose key was compared with the operation's key,
+ * so comparisons is the sum of all path lengths.  Path lengths are also
+ * kept in a histogram with one bucket per length; the last bucket collects
+ * every path of MAX_PATH_LENGTH nodes or more, so a growing count there is
+ * the sign of a degenerating tree.  Counters may be read from any thread
+ * while the tree is in use.
+ */
+public class TreeMetrics {
+
+    //Paths at least this long share the last histogram bucket
+    public static final int MAX_PATH_LENGTH = 64;
+
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAccumulator maxPathLength = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray pathLengths = new AtomicLongArray(MAX_PATH_LENGTH + 1);
+
+
+    ///////////////////////////////////
+    // RECORDING
+
+    /**
+     * @param pathLength - number of nodes visited by the insert
+     */
+    void recordInsert(int pathLength) {
+        inserts.increment();
+        recordPath(pathLength);
+    }
+
+    /**
+     * @param pathLength - number of nodes visited by the search
+     */
+    void recordSearch(int pathLength) {
+        searches.increment();
+        recordPath(pathLength);
+    }
+
+    /**
+     * @param pathLength - number of nodes visited looking for the key
+     */
+    void recordDelete(int pathLength) {
+        deletes.increment();
+        recordPath(pathLength);
+    }
+
+    /**
+     * Counts one single rotation (a double rotation counts as two).
+     */
+    void recordRotation() {
+        rotations.increment();
+    }
+
+    /**
+     * Counts one whole-tree rebuild (rebalance or bulk load).
+     */
+    void recordRebuild() {
+        rebuilds.increment();
+    }
+
+    /**
+     * @param pathLength - number of nodes compared against a key
+     */
+    private void recordPath(int pathLength) {
+        comparisons.add(pathLength);
+        maxPathLength.accumulate(pathLength);
+        pathLengths.incrementAndGet(Math.min(pathLength, MAX_PATH_LENGTH));
+    }
+
+
+    ///////////////////////////////////
+    // GETTERS
+
+    /**
+     * @return number of inserts
+     */
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    /**
+     * @return number of searches
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    /**
+     * @return number of deletes (including those that found no key)
+     */
+    public long getDeletes() {
+        return deletes.sum();
+    }
+
+    /**
+     * @return number of key comparisons made while searching for a position
+     */
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * @return number of single rotations performed while rebalancing
+     */
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    /**
+     * @return number of whole-tree rebuilds
+     */
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    /**
+     * @return longest search path recorded
+     */
+    public long getMaxPathLength() {
+        return maxPathLength.get();
+    }
+
+    /**
+     * @return array where element d is the number of operations whose search
+     * path visited d nodes (the last element counts d >= MAX_PATH_LENGTH).
+     */
+    public long [] getPathLengthHistogram() {
+        long [] histogram = new long[pathLengths.length()];
+        for (int d = 0; d < histogram.length; d++)
+            histogram[d] = pathLengths.get(d);
+        return histogram;
+    }
+
+    /**
+     * @return average search path length, or 0 if nothing was recorded.
+     */
+    public double getAveragePathLength() {
+        long operations = getInserts() + getSearches() + getDeletes();
+        return (operations == 0) ? 0 : (double) getComparisons() / operations;
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset() {
+        inserts.reset();
+        searches.reset();
+        deletes.reset();
+        comparisons.reset();
+        rotations.reset();
+        rebuilds.reset();
+        maxPathLength.reset();
+        for (int d = 0; d < pathLengths.length(); d++)
+            pathLengths.set(d, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "inserts=" + getInserts() + ", searches=" + getSearches()
+                + ", deletes=" + getDeletes() + ", comparisons=" + getComparisons()
+                + ", rotations=" + getRotations() + ", rebuilds=" + getRebuilds()
+                + ", maxPath=" + getMaxPathLength()
+                + ", avgPath=" + String.format("%.2f", getAveragePathLength());
+    }
+}
@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @Description:  Java Flight Recorder event committed by O(n) whole-tree
+ * operations (rebalance, bulkLoad, getStats).  Recording is controlled by
+ * the JFR configuration; while the event is disabled the cost is a few
+ * instructions per operation.  Enable it with e.g.
+ *   java -XX:StartFlightRecording:filename=trees.jfr ...
+ * and inspect with "jfr print --events binarysearchtrees.TreeOperation".
+ */
+@Name("binarysearchtrees.TreeOperation")
+@Label("Tree Operation")
+@Category("Binary Search Trees")
+@Description("Whole-tree operation such as a rebalance or bulk load")
+public class TreeOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Tree Class")
+    String treeClass;
+
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Height")
+    @Description("Height of the tree after the operation, -1 if not known")
+    int height;
+
+}
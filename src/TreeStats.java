@@ -0,0 +1,86 @@
+/**
+ * @Description:  Structural statistics of a binary tree gathered in a single
+ * traversal (see BST.getStats()).
+ */
+public class TreeStats {
+
+    private int height;        //height of tree (empty = 0, leaf = 1)
+    private int count;         //number of nodes
+    private boolean full;      //every node has zero or two children
+    private boolean balanced;  //every node has |balance factor| <= 1
+    private int [] depthHistogram;  //number of nodes at each depth (root = 0)
+
+    /**
+     * Default constructor
+     * @param height - height of the tree
+     * @param count - number of nodes in the tree
+     * @param full - true if the tree is full
+     * @param balanced - true if the tree is height balanced
+     * @param depthHistogram - number of nodes at each depth, length == height
+     */
+    public TreeStats(int height, int count, boolean full, boolean balanced,
+                     int [] depthHistogram) {
+        this.height = height;
+        this.count = count;
+        this.full = full;
+        this.balanced = balanced;
+        this.depthHistogram = depthHistogram;
+    }
+
+    ///////////////////////////////////
+    // GETTERS
+
+    /**
+     * @return height of tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return number of nodes in tree.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if full, false otherwise (an empty tree is not full).
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return true if balanced, false otherwise
+     */
+    public boolean isBalanced() {
+        return balanced;
+    }
+
+    /**
+     * @return array where element d is the number of nodes at depth d.
+     */
+    public int [] getDepthHistogram() {
+        return depthHistogram;
+    }
+
+    /**
+     * @return average depth of a node (root = 0), or 0 for an empty tree.
+     */
+    public double getAverageDepth() {
+        if (count == 0) return 0;
+
+        long total = 0;
+        for (int d = 0; d < depthHistogram.length; d++)
+            total += (long) d * depthHistogram[d];
+        return (double) total / count;
+    }
+
+    @Override
+    public String toString() {
+        return "height=" + height + ", count=" + count + ", full=" + full
+                + ", balanced=" + balanced
+                + ", depths=" + java.util.Arrays.toString(depthHistogram);
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Defines the interface for an operation applied to each node visited
+ * during a traversal of a binary tree.
+ */
+
+@FunctionalInterface
+public interface TreeVisitor<K extends Comparable<K>, T> {
+
+
+    /**
+     * Performs the operation on a node.
+     * @param node - node being visited.
+     * @return true to continue the traversal, false to stop it early.
+     */
+    public boolean visit(BTNode<K, T> node);
+
+}
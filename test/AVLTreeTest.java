@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of AVLTree: every balance factor stays within [-1, 1]
+ * and the contents match java.util.TreeMap through inserts and both deletes.
+ */
+class AVLTreeTest {
+
+    @Test
+    void sortedInsertsStayLogarithmic() {
+        AVLTree<Integer,Integer> tree = new AVLTree<Integer,Integer>();
+        for (int i = 0; i < 100000; i++)
+            tree.insert(i, i);
+
+        TreeInvariants.checkAvl(tree);
+        assertEquals(17, tree.getHeight());
+        assertTrue(tree.isBalanced());
+    }
+
+    @Test
+    void descendingInsertsAndDeletesStayBalanced() {
+        AVLTree<Integer,Integer> tree = new AVLTree<Integer,Integer>();
+        for (int i = 4095; i >= 0; i--)
+            tree.insert(i, i);
+        TreeInvariants.checkAvl(tree);
+
+        //Remove the even keys, then the odd keys above 2000
+        for (int i = 0; i < 4096; i += 2)
+            tree.deleteNodeByCopy(i);
+        TreeInvariants.checkAvl(tree);
+        for (int i = 4095; i > 2000; i -= 2)
+            tree.deleteNodeByMerge(i);
+
+        TreeInvariants.checkAvl(tree);
+        assertEquals(1000, tree.getSize());
+    }
+
+    @Test
+    void randomOperationsMatchTreeMap() {
+        AVLTree<Integer,String> tree = new AVLTree<Integer,String>();
+        TreeMap<Integer,String> expected = new TreeMap<Integer,String>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 30000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                else tree.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                tree.insert(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+
+            if (i % 1000 == 0)
+                TreeInvariants.checkAvl(tree);
+        }
+
+        TreeInvariants.checkAvl(tree);
+        assertEquals(new ArrayList<Integer>(expected.keySet()), TreeInvariants.keys(tree));
+        for (int key = 0; key < 2000; key++)
+            assertEquals(expected.get(key), tree.search(key));
+
+        //Height bound for an AVL tree of n nodes: 1.44 log2(n + 2)
+        double bound = 1.4405 * Math.log(tree.getSize() + 2) / Math.log(2);
+        assertTrue(tree.getHeight() <= bound, "height " + tree.getHeight());
+    }
+
+    @Test
+    void duplicatesAreKeptAndRemovedOneAtATime() {
+        AVLTree<Integer,String> tree = new AVLTree<Integer,String>();
+        for (int i = 0; i < 64; i++)
+            tree.insert(i % 4, "v" + i);
+        TreeInvariants.checkAvl(tree);
+
+        for (int i = 0; i < 16; i++)
+            tree.deleteNodeByCopy(2);
+        TreeInvariants.checkAvl(tree);
+
+        assertEquals(48, tree.getSize());
+        assertNull(tree.search(2));
+        assertEquals(16, tree.countInRange(3, 3));
+    }
+
+    @Test
+    void heightCachingCannotBeDisabled() {
+        AVLTree<Integer,Integer> tree = new AVLTree<Integer,Integer>();
+        assertTrue(tree.isHeightCaching());
+        assertThrows(UnsupportedOperationException.class, () -> tree.setHeightCaching(false));
+    }
+}
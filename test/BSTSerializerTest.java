@@ -0,0 +1,187 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @Description:  Tests of BSTSerializer: round trips restore contents and
+ * exact shape (including AVL and degenerate trees), and damaged files are
+ * rejected without touching the target tree.
+ */
+class BSTSerializerTest {
+
+    @TempDir
+    Path dir;
+
+    private final BSTSerializer<Integer,String> serializer =
+            new BSTSerializer<Integer,String>(Codecs.INTEGER, Codecs.nullable(Codecs.STRING));
+
+    @Test
+    void roundTripKeepsShape() throws IOException {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        Random random = new Random(17);
+        for (int i = 0; i < 5000; i++)
+            tree.insert(random.nextInt(1000), (i % 10 == 0) ? null : "v" + i);
+
+        Path file = dir.resolve("tree.bin");
+        serializer.write(tree, file);
+        BST<Integer,String> loaded = serializer.read(file);
+
+        TreeInvariants.check(loaded);
+        assertEquals(tree.getSize(), loaded.getSize());
+        assertEquals(preorder(tree), preorder(loaded));
+    }
+
+    @Test
+    void avlTreeLoadsBalanced() throws IOException {
+        AVLTree<Integer,String> tree = new AVLTree<Integer,String>();
+        for (int i = 0; i < 3000; i++)
+            tree.insert(i, "v" + i);
+
+        Path file = dir.resolve("avl.bin");
+        serializer.write(tree, file);
+        AVLTree<Integer,String> loaded = new AVLTree<Integer,String>();
+        serializer.read(file, loaded);
+
+        TreeInvariants.checkAvl(loaded);
+        assertEquals(preorder(tree), preorder(loaded));
+
+        //The loaded tree keeps rebalancing correctly
+        for (int i = 3000; i < 4000; i++)
+            loaded.insert(i, "v" + i);
+        for (int i = 0; i < 2000; i += 2)
+            loaded.deleteNodeByCopy(i);
+        TreeInvariants.checkAvl(loaded);
+    }
+
+    @Test
+    void chainsAndEmptyTrees() throws IOException {
+        BSTSerializer<Integer,Integer> ints =
+                new BSTSerializer<Integer,Integer>(Codecs.INTEGER, Codecs.INTEGER);
+        Path file = dir.resolve("chain.bin");
+
+        for (boolean rightLeaning : new boolean [] {true, false}) {
+            BST<Integer,Integer> chain = TreeInvariants.chain(100000, rightLeaning);
+            ints.write(chain, file);
+            BST<Integer,Integer> loaded = ints.read(file);
+
+            TreeInvariants.check(loaded);
+            assertEquals(100000, loaded.getHeight());
+            assertEquals(TreeInvariants.keys(chain), TreeInvariants.keys(loaded));
+        }
+
+        ints.write(new BST<Integer,Integer>(), file);
+        BST<Integer,Integer> empty = ints.read(file);
+        assertNull(empty.root);
+        assertEquals(0, empty.getSize());
+    }
+
+    @Test
+    void channelOutputMatchesFileOutput() throws IOException {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        for (int key : new int [] {5, 3, 8, 1, 4, 9})
+            tree.insert(key, "k" + key);
+
+        Path file = dir.resolve("tree.bin");
+        serializer.write(tree, file);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, Channels.newChannel(out));
+        assertArrayEquals(Files.readAllBytes(file), out.toByteArray());
+
+        ByteBuffer header = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(BSTSerializer.MAGIC, header.getInt());
+        assertEquals(BSTSerializer.VERSION, header.getInt());
+        assertEquals(6, header.getInt());
+    }
+
+    @Test
+    void damagedFilesAreRejected() throws IOException {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        for (int i = 0; i < 100; i++)
+            tree.insert((i * 37) % 100, "v" + i);
+        Path file = dir.resolve("tree.bin");
+        serializer.write(tree, file);
+        byte [] good = Files.readAllBytes(file);
+
+        BST<Integer,String> target = new BST<Integer,String>();
+        target.insert(1, "one");
+        BTNode<Integer,String> root = target.root;
+
+        //Every truncation fails, including inside the header
+        for (int length : new int [] {0, 3, 11, 12, 20, good.length / 2, good.length - 1}) {
+            Files.write(file, Arrays.copyOf(good, length));
+            assertThrows(IOException.class, () -> serializer.read(file, target), "length " + length);
+        }
+
+        byte [] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        Files.write(file, badMagic);
+        assertThrows(IOException.class, () -> serializer.read(file, target));
+
+        byte [] badVersion = good.clone();
+        badVersion[7] = (byte) (BSTSerializer.VERSION + 1);
+        Files.write(file, badVersion);
+        assertThrows(IOException.class, () -> serializer.read(file, target));
+
+        byte [] badCount = good.clone();
+        badCount[8] = (byte) 0x80;
+        Files.write(file, badCount);
+        assertThrows(IOException.class, () -> serializer.read(file, target));
+
+        assertSame(root, target.root);
+        assertEquals(1, target.getSize());
+        assertThrows(IOException.class, () -> serializer.read(dir.resolve("missing.bin")));
+    }
+
+    @Test
+    void damagedStringLengthsAreRejected() throws IOException {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        tree.insert(1, "one");
+        Path file = dir.resolve("tree.bin");
+        serializer.write(tree, file);
+        byte [] good = Files.readAllBytes(file);
+
+        BST<Integer,String> target = new BST<Integer,String>();
+        target.insert(2, "two");
+        BTNode<Integer,String> root = target.root;
+
+        //The file ends with the length and bytes of "one"
+        int lengthAt = good.length - 3 - 4;
+        for (int length : new int [] {-1, Integer.MIN_VALUE, 4, Integer.MAX_VALUE}) {
+            byte [] bad = good.clone();
+            ByteBuffer.wrap(bad).putInt(lengthAt, length);
+            Files.write(file, bad);
+            assertThrows(IOException.class, () -> serializer.read(file, target), "length " + length);
+        }
+
+        assertSame(root, target.root);
+        assertEquals("two", target.search(2));
+    }
+
+    /**
+     * @param tree - tree to read
+     * @return key, info and child presence of every node in preorder
+     */
+    private static <T> List<String> preorder(BST<Integer,T> tree) {
+        List<String> out = new ArrayList<String>();
+        tree.preOrderTraverse(node -> out.add(node.key + "=" + node.info
+                + (node.left != null ? "L" : "") + (node.right != null ? "R" : "")));
+        return out;
+    }
+}
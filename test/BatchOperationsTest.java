@@ -0,0 +1,195 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests that insertAll, searchAll, deleteAll and BSTFinger
+ * give the same results, and the same tree shape, as the plain operations
+ * applied one key at a time in sorted batch order, including batches with
+ * duplicate keys.
+ */
+class BatchOperationsTest {
+
+    @Test
+    void plainTreeMatchesSequentialOperations() {
+        matchesSequentialOperations(BST::new);
+    }
+
+    @Test
+    void heightCachingTreeMatchesSequentialOperations() {
+        matchesSequentialOperations(() -> {
+            BST<Integer,String> tree = new BST<Integer,String>();
+            tree.setHeightCaching(true);
+            return tree;
+        });
+    }
+
+    @Test
+    void avlTreeMatchesSequentialOperations() {
+        matchesSequentialOperations(AVLTree::new);
+    }
+
+    @Test
+    void splayTreeMatchesSequentialOperations() {
+        matchesSequentialOperations(SplayTree::new);
+    }
+
+    @Test
+    void insertAllIntoEmptyTreeIsBalanced() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        Integer [] keys = new Integer[1023];
+        String [] infos = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i / 3;
+            infos[i] = "v" + i;
+        }
+
+        tree.insertAll(keys, infos);
+
+        TreeInvariants.check(tree);
+        assertEquals(10, tree.getHeight());
+        assertEquals(Arrays.asList(keys), TreeInvariants.keys(tree));
+    }
+
+    @Test
+    void fingerSearchMatchesSearch() {
+        BST<Integer,String> tree = randomTree(new BST<Integer,String>(), new Random(23), 2000);
+        BSTFinger<Integer,String> finger = tree.finger();
+        Random random = new Random(24);
+
+        //Mostly nearby keys, with occasional jumps
+        int key = 0;
+        for (int i = 0; i < 5000; i++) {
+            key = (random.nextInt(10) == 0) ? random.nextInt(1000) : key + random.nextInt(5) - 2;
+            assertEquals(tree.search(key), finger.search(key));
+        }
+    }
+
+    @Test
+    void fingerRestartsAfterOtherChanges() {
+        BST<Integer,String> tree = randomTree(new BST<Integer,String>(), new Random(23), 500);
+        BSTFinger<Integer,String> finger = tree.finger();
+
+        for (int key = 0; key < 1000; key += 7) {
+            finger.search(key);
+            tree.deleteNodeByMerge(key + 3);
+            tree.insert(key + 5, "new");
+            assertEquals(tree.search(key + 5), finger.search(key + 5));
+            assertEquals(tree.search(key + 3), finger.search(key + 3));
+        }
+    }
+
+    @Test
+    void mismatchedArraysAreRejected() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        assertThrows(IllegalArgumentException.class,
+                     () -> tree.insertAll(new Integer[2], new String[1]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> tree.searchAll(new Integer[2], new String[3]));
+    }
+
+    /**
+     * Applies random batches (with duplicates within the batch and of keys
+     * already in the tree) to two trees: one with the batch operations and
+     * one with the plain operations on the stably sorted batch.
+     * @param factory - creates the trees under test
+     */
+    private static void matchesSequentialOperations(Supplier<BST<Integer,String>> factory) {
+        Random random = new Random(23);
+        BST<Integer,String> batched = randomTree(factory.get(), new Random(1), 300);
+        BST<Integer,String> sequential = randomTree(factory.get(), new Random(1), 300);
+
+        for (int round = 0; round < 60; round++) {
+            int m = 1 + random.nextInt(40);
+            Integer [] keys = new Integer[m];
+            String [] infos = new String[m];
+            for (int i = 0; i < m; i++) {
+                keys[i] = random.nextInt(150);
+                infos[i] = round + ":" + i;
+            }
+
+            Integer [] order = sortedOrder(keys);
+            if (round % 2 == 0) {
+                batched.insertAll(keys, infos);
+                for (int i : order)
+                    sequential.insert(keys[i], infos[i]);
+            }
+            else {
+                batched.deleteAll(keys);
+                for (int i : order)
+                    sequential.deleteNodeByCopy(keys[i]);
+            }
+
+            assertEquals(sequential.getSize(), batched.getSize());
+            assertEquals(nodes(sequential), nodes(batched));
+            TreeInvariants.check(batched);
+            if (batched instanceof AVLTree)
+                TreeInvariants.checkAvl(batched);
+
+            //searchAll answers each key as search does on an equal tree.  A
+            // splay search would reshape sequential, so there it is enough
+            // that each result is an info stored with its key.
+            List<String> stored = nodes(sequential);
+            String [] found = new String[m];
+            int hits = batched.searchAll(keys, found), count = 0;
+            for (int i = 0; i < m; i++) {
+                String prefix = keys[i] + "=";
+                boolean present = stored.stream().anyMatch(node -> node.startsWith(prefix));
+                if (present) count++;
+
+                if (batched instanceof SplayTree)
+                    assertEquals(present, found[i] != null && stored.contains(prefix + found[i]));
+                else
+                    assertEquals(sequential.search(keys[i]), found[i]);
+            }
+            assertEquals(count, hits);
+        }
+    }
+
+    /**
+     * @param tree - empty tree
+     * @param random - source of keys
+     * @param n - number of keys to insert (with duplicates)
+     * @return tree
+     */
+    private static BST<Integer,String> randomTree(BST<Integer,String> tree, Random random, int n) {
+        for (int i = 0; i < n; i++) {
+            int key = random.nextInt(1000) / 2 * 2;
+            tree.insert(key, "t" + i);
+        }
+        return tree;
+    }
+
+    /**
+     * @param keys - batch of keys
+     * @return indices of keys in ascending key order, equal keys in batch order
+     */
+    private static Integer [] sortedOrder(Integer [] keys) {
+        Integer [] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+        return order;
+    }
+
+    /**
+     * @param tree - tree to read
+     * @return key=info of every node in preorder, which also fixes the shape
+     */
+    private static List<String> nodes(BST<Integer,String> tree) {
+        List<String> nodes = new ArrayList<String>();
+        tree.preOrderTraverse(node -> {
+            nodes.add(node.key + "=" + node.info);
+            return true;
+        });
+        return nodes;
+    }
+}
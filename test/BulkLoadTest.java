@@ -0,0 +1,124 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of BST.fromSorted and bulkLoad: balanced shape, the
+ * duplicate modes, and rejection of unsorted input.
+ */
+class BulkLoadTest {
+
+    @Test
+    void fromSortedIsBalanced() {
+        for (int n = 0; n <= 200; n++) {
+            Integer [] keys = new Integer[n];
+            for (int i = 0; i < n; i++)
+                keys[i] = 3 * i;
+
+            BST<Integer,Integer> tree = BST.fromSorted(keys, keys.clone());
+
+            TreeInvariants.check(tree);
+            assertEquals(n, tree.getSize());
+            assertEquals(32 - Integer.numberOfLeadingZeros(n), tree.getHeight(), "n = " + n);
+            assertEquals(Arrays.asList(keys), TreeInvariants.keys(tree));
+        }
+    }
+
+    @Test
+    void fromSortedEntries() {
+        List<Map.Entry<String,Integer>> entries = new ArrayList<Map.Entry<String,Integer>>();
+        for (String key : new String [] {"a", "b", "c", "d", "e"})
+            entries.add(new SimpleImmutableEntry<String,Integer>(key, key.charAt(0) - 'a'));
+
+        BST<String,Integer> tree = BST.fromSorted(entries);
+
+        TreeInvariants.check(tree);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), TreeInvariants.keys(tree));
+        assertEquals(3, (int) tree.search("d"));
+    }
+
+    @Test
+    void duplicateModes() {
+        Integer [] keys = {1, 2, 2, 2, 3, 4, 4};
+        String [] infos = {"a", "b", "c", "d", "e", "f", "g"};
+
+        BST<Integer,String> all = new BST<Integer,String>();
+        all.bulkLoad(keys, infos, true, BST.Duplicates.KEEP_ALL);
+        TreeInvariants.check(all);
+        assertEquals(7, all.getSize());
+        assertEquals(3, all.countInRange(2, 2));
+
+        BST<Integer,String> first = new BST<Integer,String>();
+        first.bulkLoad(keys, infos, true, BST.Duplicates.KEEP_FIRST);
+        TreeInvariants.check(first);
+        assertEquals(Arrays.asList(1, 2, 3, 4), TreeInvariants.keys(first));
+        assertEquals("b", first.search(2));
+        assertEquals("f", first.search(4));
+
+        BST<Integer,String> last = new BST<Integer,String>();
+        last.bulkLoad(keys, infos, true, BST.Duplicates.KEEP_LAST);
+        TreeInvariants.check(last);
+        assertEquals(Arrays.asList(1, 2, 3, 4), TreeInvariants.keys(last));
+        assertEquals("d", last.search(2));
+        assertEquals("g", last.search(4));
+
+        BST<Integer,String> reject = new BST<Integer,String>();
+        assertThrows(IllegalArgumentException.class,
+                     () -> reject.bulkLoad(keys, infos, true, BST.Duplicates.REJECT));
+    }
+
+    @Test
+    void failedLoadLeavesTreeUntouched() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i, i);
+        BTNode<Integer,Integer> root = tree.root;
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> tree.bulkLoad(new Integer [] {1, 3, 2}, new Integer [] {1, 3, 2},
+                                         true, BST.Duplicates.KEEP_ALL));
+        assertThrows(IllegalArgumentException.class,
+                     () -> tree.bulkLoad(new Integer [] {1, 1}, new Integer [] {1, 1},
+                                         true, BST.Duplicates.REJECT));
+        assertThrows(IllegalArgumentException.class,
+                     () -> tree.bulkLoad(new Integer [] {1, 2}, new Integer [] {1},
+                                         true, BST.Duplicates.KEEP_ALL));
+
+        assertSame(root, tree.root);
+        assertEquals(10, tree.getSize());
+        TreeInvariants.check(tree);
+    }
+
+    @Test
+    void bulkLoadReplacesContents() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        tree.setHeightCaching(true);
+        for (int i = 100; i < 150; i++)
+            tree.insert(i, i);
+
+        Integer [] keys = new Integer[1000];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = i;
+        tree.bulkLoad(keys, keys, false, BST.Duplicates.KEEP_ALL);
+
+        TreeInvariants.check(tree);
+        assertEquals(1000, tree.getSize());
+        assertEquals(10, tree.getHeight());
+
+        //The loaded tree takes ordinary updates afterwards
+        for (int i = 0; i < 1000; i += 2)
+            tree.deleteNodeByCopy(i);
+        tree.insert(-1, -1);
+        TreeInvariants.check(tree);
+        assertEquals(501, tree.getSize());
+        assertEquals(-1, (int) tree.select(0).key);
+    }
+}
@@ -0,0 +1,181 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of CachedBST: hit/miss accounting, LRU eviction and
+ * coherence with the tree behind it.
+ */
+class CachedBSTTest {
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new CachedBST<Integer,String>(new BST<Integer,String>(), 0));
+    }
+
+    @Test
+    void cachesHitsAndMisses() {
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(new BST<Integer,String>(), 4);
+        cached.insert(1, "a");
+
+        assertEquals("a", cached.search(1));
+        assertEquals("a", cached.search(1));
+        assertNull(cached.search(2));
+        assertNull(cached.search(2));
+
+        assertEquals(2, cached.getHits());
+        assertEquals(2, cached.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        CachedBST<Integer,Integer> cached = new CachedBST<Integer,Integer>(new BST<Integer,Integer>(), 2);
+        for (int i = 0; i < 3; i++)
+            cached.insert(i, i);
+
+        cached.search(0);
+        cached.search(1);
+        cached.search(0);
+        cached.search(2);   //evicts 1
+        assertEquals(1, cached.getHits());
+
+        cached.search(0);
+        cached.search(2);
+        assertEquals(3, cached.getHits());
+        cached.search(1);
+        assertEquals(4, cached.getMisses());
+    }
+
+    @Test
+    void ownChangesKeepOtherKeysCached() {
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(new BST<Integer,String>(), 8);
+        cached.insert(1, "a");
+        cached.insert(2, "b");
+        cached.search(1);
+        cached.search(2);
+
+        cached.put(2, "c");
+        assertEquals("a", cached.search(1));
+        assertEquals(1, cached.getHits());
+        assertEquals("c", cached.search(2));
+
+        cached.deleteNodeByCopy(2);
+        assertEquals("a", cached.search(1));
+        assertNull(cached.search(2));
+        assertEquals(2, cached.getHits());
+    }
+
+    @Test
+    void mapOperationsUpdateCachedKey() {
+        CachedBST<Integer,Integer> cached = new CachedBST<Integer,Integer>(new BST<Integer,Integer>(), 8);
+
+        assertNull(cached.search(1));
+        assertNull(cached.putIfAbsent(1, 10));
+        assertEquals(10, cached.search(1));
+
+        assertEquals(10, cached.put(1, 11));
+        assertEquals(11, cached.search(1));
+
+        assertEquals(12, cached.compute(1, (k, v) -> v + 1));
+        assertEquals(12, cached.search(1));
+
+        assertEquals(15, cached.merge(1, 3, Integer::sum));
+        assertEquals(15, cached.search(1));
+
+        assertNull(cached.search(2));
+        assertEquals(20, cached.computeIfAbsent(2, k -> 20));
+        assertEquals(20, cached.search(2));
+
+        assertEquals(15, cached.remove(1));
+        assertNull(cached.search(1));
+
+        assertNull(cached.merge(2, 0, (a, b) -> null));
+        assertNull(cached.search(2));
+    }
+
+    @Test
+    void directChangesThroughGetTreeDropTheCache() {
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(new BST<Integer,String>(), 8);
+        BST<Integer,String> tree = cached.getTree();
+
+        cached.insert(1, "a");
+        cached.insert(2, "b");
+        cached.search(1);
+        cached.search(2);
+
+        tree.put(1, "x");
+        tree.deleteNodeByMerge(2);
+        assertEquals("x", cached.search(1));
+        assertNull(cached.search(2));
+
+        tree.insert(3, "c");
+        assertEquals("c", cached.search(3));
+
+        tree.merge(3, "d", String::concat);
+        assertEquals("cd", cached.search(3));
+    }
+
+    @Test
+    void directChangesBeforeOwnChangeStillDropTheCache() {
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(new BST<Integer,String>(), 8);
+        cached.insert(1, "a");
+        cached.search(1);
+
+        //The tree changes key 1 directly, then the cache changes key 2
+        cached.getTree().put(1, "b");
+        cached.insert(2, "c");
+
+        assertEquals("b", cached.search(1));
+    }
+
+    @Test
+    void clearAfterWritingToANode() {
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(new BST<Integer,String>(), 8);
+        cached.insert(1, "a");
+        cached.search(1);
+
+        cached.getTree().floor(1).setInfo("b");
+        cached.clear();
+        assertEquals("b", cached.search(1));
+    }
+
+    @Test
+    void matchesTreeMapOverSplayTree() {
+        CachedBST<Integer,Integer> cached = new CachedBST<Integer,Integer>(new SplayTree<Integer,Integer>(), 16);
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(22);
+
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(64);
+            Integer value = random.nextInt(100);
+
+            switch (random.nextInt(5)) {
+                case 0:
+                    //insert keeps duplicates, so only insert absent keys
+                    if (!expected.containsKey(key)) {
+                        cached.insert(key, value);
+                        expected.put(key, value);
+                    }
+                    break;
+                case 1:
+                    assertEquals(expected.put(key, value), cached.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.merge(key, value, Integer::sum), cached.merge(key, value, Integer::sum));
+                    break;
+                case 3:
+                    assertEquals(expected.remove(key), cached.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), cached.search(key));
+            }
+        }
+        assertEquals(expected.size(), cached.getSize());
+    }
+}
@@ -0,0 +1,142 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of ConcurrentBST: single-threaded behaviour against
+ * TreeMap, and writers racing on shared and disjoint keys with lock-free
+ * readers running alongside.
+ */
+class ConcurrentBSTTest {
+
+    @Test
+    void matchesTreeMap() {
+        ConcurrentBST<Integer,Integer> tree = new ConcurrentBST<Integer,Integer>();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(10);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0)
+                assertEquals(expected.remove(key) != null, tree.delete(key));
+            else {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), tree.getSize());
+        for (int key = 0; key < 1000; key++)
+            assertEquals(expected.get(key), tree.search(key));
+    }
+
+    @Test
+    void emptyTree() {
+        ConcurrentBST<String,String> tree = new ConcurrentBST<String,String>();
+        assertNull(tree.search("a"));
+        assertFalse(tree.delete("a"));
+        assertEquals(0, tree.getSize());
+
+        tree.insert("a", "1");
+        tree.insert("a", "2");
+        assertEquals(1, tree.getSize());
+        assertEquals("2", tree.search("a"));
+        assertTrue(tree.delete("a"));
+        assertEquals(0, tree.getSize());
+    }
+
+    @Test
+    void disjointWritersWithReaders() throws Exception {
+        ConcurrentBST<Integer,Integer> tree = new ConcurrentBST<Integer,Integer>();
+        int writers = 4, perWriter = 5000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+
+        //Writer w owns keys congruent to w, inserts them all, then deletes
+        //the odd multiples
+        for (int w = 0; w < writers; w++) {
+            int id = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++)
+                    tree.insert(i * writers + id, i);
+                for (int i = 1; i < perWriter; i += 2)
+                    if (!tree.delete(i * writers + id))
+                        failure.compareAndSet(null, new AssertionError("lost " + i));
+            }));
+        }
+
+        //A reader only ever sees a key absent or holding its own info
+        Thread reader = new Thread(() -> {
+            Random random = new Random(10);
+            while (!done.get()) {
+                int key = random.nextInt(writers * perWriter);
+                Integer info = tree.search(key);
+                if (info != null && info != key / writers)
+                    failure.compareAndSet(null, new AssertionError(key + " -> " + info));
+                if (key % 64 == 0) Thread.yield();
+            }
+        });
+
+        reader.start();
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+        done.set(true);
+        reader.join();
+
+        if (failure.get() != null) throw new AssertionError(failure.get());
+        assertEquals(writers * perWriter / 2, tree.getSize());
+        for (int key = 0; key < writers * perWriter; key++) {
+            Integer info = tree.search(key);
+            if ((key / writers) % 2 == 0) assertEquals(key / writers, (int) info);
+            else assertNull(info);
+        }
+    }
+
+    @Test
+    void contendedKeysKeepSizeConsistent() throws Exception {
+        ConcurrentBST<Integer,Integer> tree = new ConcurrentBST<Integer,Integer>();
+        int threads = 4, keys = 64;
+        List<Thread> workers = new ArrayList<Thread>();
+
+        //Every thread toggles the same small key set; whatever interleaving
+        //happens, size must equal the number of keys found afterwards
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20000; i++) {
+                    int key = random.nextInt(keys);
+                    if (random.nextBoolean()) tree.insert(key, key);
+                    else tree.delete(key);
+                }
+            }));
+        }
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        int present = 0;
+        for (int key = 0; key < keys; key++) {
+            Integer info = tree.search(key);
+            if (info != null) {
+                assertEquals(key, (int) info);
+                present++;
+            }
+        }
+        assertEquals(present, tree.getSize());
+    }
+}
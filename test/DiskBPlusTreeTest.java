@@ -0,0 +1,178 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @Description:  Tests of DiskBPlusTree: mixed operations against TreeMap
+ * with small pages and a small pool (so pages split, merge and get evicted),
+ * reopening, range cursors, page reuse and mismatched files.
+ */
+class DiskBPlusTreeTest {
+
+    //Small pages hold 9 entries per leaf, so a few thousand keys make a deep tree
+    private static final int PAGE_SIZE = 128;
+    private static final int POOL_PAGES = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesTreeMapAcrossReopens() throws IOException {
+        Path file = dir.resolve("tree.db");
+        TreeMap<Integer,Long> expected = new TreeMap<Integer,Long>();
+        Random random = new Random(19);
+
+        for (int session = 0; session < 5; session++) {
+            try (DiskBPlusTree<Integer,Long> tree = open(file)) {
+                assertEquals(expected.size(), tree.getSize());
+                assertEquals(entries(expected), entries(tree.iterator()));
+
+                for (int i = 0; i < 4000; i++) {
+                    int key = random.nextInt(3000);
+                    if (random.nextInt(3) == 0)
+                        assertEquals(expected.remove(key) != null, tree.delete(key));
+                    else {
+                        tree.insert(key, (long) i);
+                        expected.put(key, (long) i);
+                    }
+                }
+
+                assertEquals(expected.size(), tree.getSize());
+                for (int key = -1; key <= 3000; key += 7) {
+                    assertEquals(expected.get(key), tree.search(key));
+                    assertEquals(expected.containsKey(key), tree.contains(key));
+                }
+                assertEquals(expected.firstEntry().getValue(), tree.findMin());
+                assertEquals(expected.lastEntry().getValue(), tree.findMax());
+                assertTrue(tree.getHeight() > 2);
+            }
+        }
+    }
+
+    @Test
+    void flushedTreeReopensWithoutClose() throws IOException {
+        Path file = dir.resolve("tree.db");
+        DiskBPlusTree<Integer,Long> tree = open(file);
+        for (int i = 0; i < 1000; i++)
+            tree.insert(i, (long) -i);
+        tree.flush();
+
+        //Read the flushed file through a second handle
+        try (DiskBPlusTree<Integer,Long> copy = open(file)) {
+            assertEquals(1000, copy.getSize());
+            assertEquals(tree.getHeight(), copy.getHeight());
+            assertEquals(-500L, (long) copy.search(500));
+        }
+        tree.close();
+    }
+
+    @Test
+    void rangeCursors() throws IOException {
+        TreeMap<Integer,Long> expected = new TreeMap<Integer,Long>();
+        try (DiskBPlusTree<Integer,Long> tree = open(dir.resolve("tree.db"))) {
+            for (int i = 0; i < 2000; i += 3) {
+                tree.insert(i, (long) i);
+                expected.put(i, (long) i);
+            }
+
+            Random random = new Random(19);
+            for (int i = 0; i < 100; i++) {
+                int lo = random.nextInt(2100) - 50, hi = lo + random.nextInt(300);
+                assertEquals(entries(expected.subMap(lo, hi)), entries(tree.cursor(lo, hi)));
+            }
+            assertEquals(entries(expected.headMap(100)), entries(tree.cursor(null, 100)));
+            assertEquals(entries(expected.tailMap(1900)), entries(tree.cursor(1900, null)));
+
+            Iterator<Map.Entry<Integer,Long>> empty = tree.cursor(1, 3);
+            assertFalse(empty.hasNext());
+            assertThrows(NoSuchElementException.class, empty::next);
+
+            Iterator<Map.Entry<Integer,Long>> cursor = tree.iterator();
+            cursor.next();
+            tree.insert(1, 1L);
+            assertThrows(ConcurrentModificationException.class, cursor::next);
+        }
+    }
+
+    @Test
+    void freedPagesAreReused() throws IOException {
+        Path file = dir.resolve("tree.db");
+        long firstSize;
+
+        try (DiskBPlusTree<Integer,Long> tree = open(file)) {
+            for (int i = 0; i < 3000; i++)
+                tree.insert(i, (long) i);
+            tree.flush();
+            firstSize = Files.size(file);
+
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 3000; i++)
+                    assertTrue(tree.delete(i));
+                assertEquals(0, tree.getSize());
+                assertEquals(1, tree.getHeight());
+                assertNull(tree.findMin());
+
+                for (int i = 2999; i >= 0; i--)
+                    tree.insert(i, (long) i);
+            }
+        }
+        assertEquals(firstSize, Files.size(file));
+    }
+
+    @Test
+    void mismatchedFilesAreRejected() throws IOException {
+        Path file = dir.resolve("tree.db");
+        try (DiskBPlusTree<Integer,Long> tree = open(file)) {
+            tree.insert(1, 1L);
+        }
+
+        assertThrows(IOException.class, () -> new DiskBPlusTree<Integer,Long>(file,
+                Codecs.INTEGER, Codecs.LONG, PAGE_SIZE * 2, POOL_PAGES));
+        assertThrows(IOException.class, () -> new DiskBPlusTree<Integer,Integer>(file,
+                Codecs.INTEGER, Codecs.INTEGER, PAGE_SIZE, POOL_PAGES));
+
+        Path other = dir.resolve("other.db");
+        Files.write(other, new byte[PAGE_SIZE]);
+        assertThrows(IOException.class, () -> open(other));
+
+        assertThrows(IllegalArgumentException.class, () -> new DiskBPlusTree<String,Long>(
+                dir.resolve("strings.db"), Codecs.STRING, Codecs.LONG));
+        assertThrows(IllegalArgumentException.class, () -> new DiskBPlusTree<Integer,Long>(
+                dir.resolve("tiny.db"), Codecs.INTEGER, Codecs.LONG, 32, POOL_PAGES));
+    }
+
+    private static DiskBPlusTree<Integer,Long> open(Path file) throws IOException {
+        return new DiskBPlusTree<Integer,Long>(file, Codecs.INTEGER, Codecs.LONG,
+                                               PAGE_SIZE, POOL_PAGES);
+    }
+
+    private static List<String> entries(Map<Integer,Long> map) {
+        List<String> out = new ArrayList<String>();
+        for (Map.Entry<Integer,Long> entry : map.entrySet())
+            out.add(entry.getKey() + "=" + entry.getValue());
+        return out;
+    }
+
+    private static List<String> entries(Iterator<Map.Entry<Integer,Long>> cursor) {
+        List<String> out = new ArrayList<String>();
+        cursor.forEachRemaining(entry -> out.add(entry.getKey() + "=" + entry.getValue()));
+        return out;
+    }
+}
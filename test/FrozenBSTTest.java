@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of FrozenBST against java.util.TreeMap for every size
+ * of implicit tree up to a few levels, plus duplicates and immutability.
+ */
+class FrozenBSTTest {
+
+    @Test
+    void matchesTreeMapForEverySize() {
+        Random random = new Random(20);
+
+        for (int n = 0; n <= 70; n++) {
+            BST<Integer,String> tree = new BST<Integer,String>();
+            TreeMap<Integer,String> expected = new TreeMap<Integer,String>();
+            while (expected.size() < n) {
+                int key = 2 * random.nextInt(200);
+                if (!expected.containsKey(key)) {
+                    tree.insert(key, "v" + key);
+                    expected.put(key, "v" + key);
+                }
+            }
+
+            FrozenBST<Integer,String> frozen = tree.freeze();
+            assertEquals(n, frozen.getSize());
+
+            for (int key = -1; key <= 400; key++) {
+                assertEquals(expected.get(key), frozen.search(key));
+                assertEquals(expected.containsKey(key), frozen.contains(key));
+                assertEquals(expected.floorKey(key), frozen.floorKey(key));
+                assertEquals(expected.ceilingKey(key), frozen.ceilingKey(key));
+                assertEntry(expected.floorEntry(key), frozen.floor(key));
+                assertEntry(expected.ceilingEntry(key), frozen.ceiling(key));
+            }
+        }
+    }
+
+    @Test
+    void laterChangesDoNotAffectTheIndex() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        tree.insert(1, "a");
+        tree.insert(2, "b");
+        FrozenBST<Integer,String> frozen = tree.freeze();
+
+        tree.put(1, "x");
+        tree.deleteNodeByCopy(2);
+        tree.insert(3, "c");
+
+        assertEquals("a", frozen.search(1));
+        assertEquals("b", frozen.search(2));
+        assertFalse(frozen.contains(3));
+        assertEquals(2, frozen.getSize());
+    }
+
+    @Test
+    void entriesAreReadOnly() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        tree.insert(1, "a");
+        FrozenBST<Integer,String> frozen = tree.freeze();
+
+        Map.Entry<Integer,String> entry = frozen.floor(5);
+        assertThrows(UnsupportedOperationException.class, () -> entry.setValue("x"));
+        assertEquals("a", frozen.search(1));
+    }
+
+    @Test
+    void duplicatesResolveToFirstOrLastOccurrence() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        tree.insert(5, "first");
+        tree.insert(1, "low");
+        tree.insert(5, "second");
+        tree.insert(5, "third");
+        tree.insert(9, "high");
+        FrozenBST<Integer,String> frozen = tree.freeze();
+
+        assertEquals("first", frozen.search(5));
+        assertEquals("first", frozen.ceiling(5).getValue());
+        assertEquals("third", frozen.floor(5).getValue());
+        assertEquals("third", frozen.floor(8).getValue());
+        assertEquals("first", frozen.ceiling(2).getValue());
+    }
+
+    @Test
+    void emptyIndex() {
+        FrozenBST<Integer,String> frozen = new BST<Integer,String>().freeze();
+
+        assertNull(frozen.search(1));
+        assertNull(frozen.floor(1));
+        assertNull(frozen.ceilingKey(1));
+        assertEquals(0, frozen.getSize());
+    }
+
+    private static void assertEntry(Map.Entry<Integer,String> expected, Map.Entry<Integer,String> actual) {
+        if (expected == null)
+            assertNull(actual);
+        else {
+            assertEquals(expected.getKey(), actual.getKey());
+            assertEquals(expected.getValue(), actual.getValue());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of LevelCursor: levels match a queue-based breadth
+ * first walk, level sizes match the depth histogram, and the level limit
+ * and modification checks hold.
+ */
+class LevelCursorTest {
+
+    @Test
+    void levelsMatchBreadthFirstOrder() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        Random random = new Random(14);
+        for (int i = 0; i < 5000; i++)
+            tree.insert(random.nextInt(10000), i);
+
+        List<BTNode<Integer,Integer>> levels = new ArrayList<BTNode<Integer,Integer>>();
+        List<Integer> sizes = new ArrayList<Integer>();
+        LevelCursor<Integer,Integer> cursor = tree.levelCursor();
+        while (cursor.nextLevel()) {
+            assertEquals(sizes.size(), cursor.getDepth());
+            sizes.add(cursor.getLevelSize());
+            for (int i = 0; i < cursor.getLevelSize(); i++) {
+                assertSame(cursor.getLevel()[i], cursor.get(i));
+                levels.add(cursor.get(i));
+            }
+        }
+
+        List<BTNode<Integer,Integer>> expected = breadthFirst(tree.root);
+        assertEquals(expected.size(), levels.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertSame(expected.get(i), levels.get(i), "position " + i);
+
+        int [] histogram = tree.getStats().getDepthHistogram();
+        assertEquals(histogram.length, sizes.size());
+        for (int d = 0; d < histogram.length; d++)
+            assertEquals(histogram[d], (int) sizes.get(d));
+        assertFalse(cursor.nextLevel());
+    }
+
+    @Test
+    void wideLevelsGrowTheBuffers() {
+        Integer [] keys = new Integer[(1 << 16) - 1];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = i;
+        BST<Integer,Integer> tree = BST.fromSorted(keys, keys);
+
+        LevelCursor<Integer,Integer> cursor = tree.levelCursor();
+        int depth = 0;
+        while (cursor.nextLevel()) {
+            assertEquals(1 << depth, cursor.getLevelSize());
+            depth++;
+        }
+        assertEquals(16, depth);
+    }
+
+    @Test
+    void levelLimit() {
+        BST<Integer,Integer> tree = TreeInvariants.chain(1000, true);
+
+        LevelCursor<Integer,Integer> cursor = tree.levelCursor(3);
+        int [] seen = new int[3];
+        for (int d = 0; d < 3; d++) {
+            assertTrue(cursor.nextLevel());
+            seen[d] = cursor.get(0).key;
+        }
+        assertFalse(cursor.nextLevel());
+        assertEquals(0, cursor.getLevelSize());
+        assertArrayEquals(new int [] {0, 1, 2}, seen);
+
+        assertFalse(tree.levelCursor(0).nextLevel());
+        assertFalse(new BST<Integer,Integer>().levelCursor().nextLevel());
+    }
+
+    @Test
+    void badIndexAndModification() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int key : new int [] {4, 2, 6})
+            tree.insert(key, key);
+
+        LevelCursor<Integer,Integer> cursor = tree.levelCursor();
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.get(0));
+        assertTrue(cursor.nextLevel());
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> cursor.get(-1));
+
+        tree.insert(1, 1);
+        assertThrows(ConcurrentModificationException.class, cursor::nextLevel);
+    }
+
+    private static List<BTNode<Integer,Integer>> breadthFirst(BTNode<Integer,Integer> root) {
+        List<BTNode<Integer,Integer>> out = new ArrayList<BTNode<Integer,Integer>>();
+        ArrayDeque<BTNode<Integer,Integer>> queue = new ArrayDeque<BTNode<Integer,Integer>>();
+
+        if (root != null) queue.add(root);
+        while (!queue.isEmpty()) {
+            BTNode<Integer,Integer> node = queue.remove();
+            out.add(node);
+            if (node.left != null) queue.add(node.left);
+            if (node.right != null) queue.add(node.right);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,283 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @Description:  Tests of LoggedBST: recovery from complete, torn and
+ * corrupted logs, compaction, and group commit under concurrent writers.
+ */
+class LoggedBSTTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenReplaysTheLog() throws IOException {
+        TreeMap<Integer,String> expected = new TreeMap<Integer,String>();
+        BST<Integer,String> live = new BST<Integer,String>();
+
+        try (LoggedBST<Integer,String> logged = open(live, LoggedBST.SyncPolicy.ALWAYS)) {
+            randomOperations(logged, expected, 2000, 1);
+        }
+
+        BST<Integer,String> recovered = new BST<Integer,String>();
+        open(recovered, LoggedBST.SyncPolicy.ALWAYS).close();
+
+        assertContents(expected, recovered);
+        assertEquals(preOrder(live), preOrder(recovered));
+    }
+
+    @Test
+    void tornRecordAtTheEndIsDropped() throws IOException {
+        try (LoggedBST<Integer,String> logged = open(new BST<Integer,String>(), LoggedBST.SyncPolicy.ALWAYS)) {
+            for (int i = 0; i < 10; i++)
+                logged.insert(i, "v" + i);
+        }
+
+        Path wal = dir.resolve("wal-0.log");
+        long complete = Files.size(wal);
+        truncate(wal, complete - 3);
+
+        BST<Integer,String> recovered = new BST<Integer,String>();
+        try (LoggedBST<Integer,String> logged = open(recovered, LoggedBST.SyncPolicy.ALWAYS)) {
+            assertEquals(9, logged.getSize());
+            assertNull(logged.search(9));
+
+            //The torn tail is cut off, so new records follow the last good one
+            logged.insert(100, "x");
+        }
+
+        BST<Integer,String> reopened = new BST<Integer,String>();
+        open(reopened, LoggedBST.SyncPolicy.ALWAYS).close();
+        assertEquals(10, reopened.getSize());
+        assertEquals("x", reopened.search(100));
+        assertEquals("v8", reopened.search(8));
+    }
+
+    @Test
+    void corruptedRecordEndsReplay() throws IOException {
+        try (LoggedBST<Integer,String> logged = open(new BST<Integer,String>(), LoggedBST.SyncPolicy.ALWAYS)) {
+            for (int i = 0; i < 10; i++)
+                logged.insert(i, "v" + i);
+        }
+
+        //Every record has the same length; damage the payload of the sixth
+        Path wal = dir.resolve("wal-0.log");
+        int record = (int) Files.size(wal) / 10;
+        flipByte(wal, 5 * record + 10);
+
+        BST<Integer,String> recovered = new BST<Integer,String>();
+        open(recovered, LoggedBST.SyncPolicy.ALWAYS).close();
+
+        assertEquals(5, recovered.getSize());
+        assertEquals("v4", recovered.search(4));
+        assertNull(recovered.search(5));
+        assertEquals(5L * record, Files.size(wal));
+    }
+
+    @Test
+    void corruptionInAnOlderLogFailsRecovery() throws IOException {
+        try (LoggedBST<Integer,String> logged = open(new BST<Integer,String>(), LoggedBST.SyncPolicy.ALWAYS)) {
+            for (int i = 0; i < 10; i++)
+                logged.insert(i, "v" + i);
+        }
+
+        //A newer log follows, so the damaged one cannot be a torn tail
+        Path wal = dir.resolve("wal-0.log");
+        Files.copy(wal, dir.resolve("wal-1.log"));
+        flipByte(wal, 10);
+
+        assertThrows(IOException.class, () -> open(new BST<Integer,String>(), LoggedBST.SyncPolicy.ALWAYS));
+    }
+
+    @Test
+    void rejectedOperationsAreNotLogged() throws IOException {
+        //A tree whose operations on key 13 fail after the record is appended
+        BST<Integer,String> picky = new BST<Integer,String>() {
+            @Override
+            public void insert(Integer key, String info) {
+                if (key == 13) throw new IllegalArgumentException("13");
+                super.insert(key, info);
+            }
+
+            @Override
+            public void deleteNodeByMerge(Integer key) {
+                if (key == 13) throw new IllegalArgumentException("13");
+                super.deleteNodeByMerge(key);
+            }
+        };
+
+        try (LoggedBST<Integer,String> logged = open(picky, LoggedBST.SyncPolicy.ALWAYS)) {
+            logged.insert(1, "a");
+            assertThrows(IllegalArgumentException.class, () -> logged.insert(13, "b"));
+            logged.insert(2, "c");
+            assertThrows(IllegalArgumentException.class, () -> logged.deleteNodeByMerge(13));
+            logged.insert(3, "e");
+        }
+
+        BST<Integer,String> recovered = new BST<Integer,String>();
+        open(recovered, LoggedBST.SyncPolicy.ALWAYS).close();
+
+        assertEquals(List.of(1, 2, 3), TreeInvariants.keys(recovered));
+    }
+
+    @Test
+    void compactionReplacesSnapshotAndLogs() throws IOException {
+        TreeMap<Integer,String> expected = new TreeMap<Integer,String>();
+        AVLTree<Integer,String> live = new AVLTree<Integer,String>();
+
+        try (LoggedBST<Integer,String> logged = open(live, LoggedBST.SyncPolicy.INTERVAL)) {
+            randomOperations(logged, expected, 3000, 2);
+            logged.compact();
+            randomOperations(logged, expected, 1000, 3);
+            logged.compact();
+            randomOperations(logged, expected, 500, 4);
+        }
+
+        assertEquals(List.of("snapshot-2.bst", "wal-2.log"), files());
+
+        AVLTree<Integer,String> recovered = new AVLTree<Integer,String>();
+        open(recovered, LoggedBST.SyncPolicy.INTERVAL).close();
+
+        assertContents(expected, recovered);
+        TreeInvariants.checkAvl(recovered);
+        assertEquals(preOrder(live), preOrder(recovered));
+    }
+
+    @Test
+    void backgroundCompactionUnderConcurrentWriters() throws Exception {
+        BST<Integer,String> live = new BST<Integer,String>();
+        int threads = 4, perThread = 3000;
+
+        try (LoggedBST<Integer,String> logged = new LoggedBST<Integer,String>(dir, live,
+                Codecs.INTEGER, Codecs.STRING, LoggedBST.SyncPolicy.ALWAYS, 10, 8 * 1024)) {
+            List<Thread> writers = new ArrayList<Thread>();
+            List<Exception> errors = java.util.Collections.synchronizedList(new ArrayList<Exception>());
+
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                writers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            int key = i * threads + id;
+                            logged.insert(key, "v" + key);
+                            if (i % 3 == 0)
+                                logged.deleteNodeByMerge(key);
+                        }
+                    }
+                    catch (IOException e) {
+                        errors.add(e);
+                    }
+                }));
+            }
+            for (Thread writer : writers)
+                writer.start();
+            for (Thread writer : writers)
+                writer.join();
+
+            assertEquals(List.of(), errors);
+        }
+
+        //Several compactions ran and removed the files they replaced
+        assertEquals(1, files().stream().filter(name -> name.startsWith("snapshot-")).count());
+
+        BST<Integer,String> recovered = new BST<Integer,String>();
+        open(recovered, LoggedBST.SyncPolicy.ALWAYS).close();
+
+        assertEquals(threads * perThread * 2 / 3, recovered.getSize());
+        for (int key = 0; key < threads * perThread; key++)
+            assertEquals((key / threads) % 3 == 0 ? null : "v" + key, recovered.search(key));
+        assertEquals(preOrder(live), preOrder(recovered));
+    }
+
+    /**
+     * @param tree - empty tree to recover into
+     * @param policy - sync policy
+     * @return logged tree over dir
+     */
+    private LoggedBST<Integer,String> open(BST<Integer,String> tree, LoggedBST.SyncPolicy policy)
+            throws IOException {
+        return new LoggedBST<Integer,String>(dir, tree, Codecs.INTEGER, Codecs.STRING, policy, 10,
+                LoggedBST.DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Applies random inserts of absent keys and deletes to both maps.
+     */
+    private static void randomOperations(LoggedBST<Integer,String> logged, TreeMap<Integer,String> expected,
+                                         int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) logged.deleteNodeByCopy(key);
+                else logged.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                logged.insert(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+        }
+    }
+
+    private static void assertContents(TreeMap<Integer,String> expected, BST<Integer,String> tree) {
+        TreeInvariants.check(tree);
+        assertEquals(new ArrayList<Integer>(expected.keySet()), TreeInvariants.keys(tree));
+        for (Integer key : expected.keySet())
+            assertEquals(expected.get(key), tree.search(key));
+    }
+
+    /**
+     * @param tree - tree to read
+     * @return keys in preorder, which determine the tree's shape
+     */
+    private static List<Integer> preOrder(BST<Integer,String> tree) {
+        List<Integer> keys = new ArrayList<Integer>();
+        tree.preOrderTraverse(node -> {
+            keys.add(node.key);
+            return true;
+        });
+        return keys;
+    }
+
+    /**
+     * @return names of the files in dir, sorted
+     */
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            buffer.put(0, (byte) ~buffer.get(0));
+            channel.write(buffer.rewind(), position);
+        }
+    }
+}
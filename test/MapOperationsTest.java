@@ -0,0 +1,159 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of put, putIfAbsent, compute, computeIfAbsent, merge
+ * and remove against java.util.TreeMap, on every tree type.
+ */
+class MapOperationsTest {
+
+    @Test
+    void plainTreeMatchesTreeMap() {
+        randomOperations(BST::new);
+    }
+
+    @Test
+    void avlTreeMatchesTreeMap() {
+        randomOperations(AVLTree::new);
+    }
+
+    @Test
+    void splayTreeMatchesTreeMap() {
+        randomOperations(SplayTree::new);
+    }
+
+    @Test
+    void heightCachingTreeMatchesTreeMap() {
+        randomOperations(() -> {
+            BST<Integer,Integer> tree = new BST<Integer,Integer>();
+            tree.setHeightCaching(true);
+            return tree;
+        });
+    }
+
+    @Test
+    void remappingThatModifiesTheTreeFails() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        tree.put(1, 1);
+
+        assertThrows(ConcurrentModificationException.class,
+                     () -> tree.compute(1, (k, v) -> { tree.insert(2, 2); return v; }));
+        assertThrows(ConcurrentModificationException.class,
+                     () -> tree.computeIfAbsent(3, k -> { tree.remove(1); return 3; }));
+    }
+
+    @Test
+    void readOnlyCallsFromCallbacksAreAllowed() {
+        for (boolean avl : new boolean [] {false, true}) {
+            BST<Integer,String> tree = avl ? new AVLTree<Integer,String>() : new BST<Integer,String>();
+            for (int key : new int [] {50, 25, 75, 10, 30, 60, 90})
+                tree.insert(key, "k" + key);
+
+            //Each callback walks path elsewhere before the result is stored
+            tree.compute(5, (k, v) -> { tree.isBalanced(); tree.remove(99); return "new"; });
+            tree.computeIfAbsent(95, k -> { tree.remove(1); return "x" + tree.search(90); });
+            tree.merge(30, "!", (old, info) -> { tree.deleteNodeByMerge(0); return old + info; });
+            tree.compute(60, (k, v) -> { tree.putIfAbsent(60, "no"); return null; });
+
+            if (avl) TreeInvariants.checkAvl(tree);
+            else TreeInvariants.check(tree);
+            assertEquals(List.of(5, 10, 25, 30, 50, 75, 90, 95), TreeInvariants.keys(tree));
+            assertEquals("new", tree.search(5));
+            assertEquals("xk90", tree.search(95));
+            assertEquals("k30!", tree.search(30));
+            assertNull(tree.search(60));
+        }
+    }
+
+    @Test
+    void infoChangesAreSeenByCachedBST() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        CachedBST<Integer,String> cached = new CachedBST<Integer,String>(tree, 8);
+
+        cached.insert(1, "a");
+        assertEquals("a", cached.search(1));
+
+        tree.put(1, "b");
+        assertEquals("b", cached.search(1));
+
+        tree.compute(1, (k, v) -> v + "c");
+        assertEquals("bc", cached.search(1));
+
+        tree.merge(1, "d", String::concat);
+        assertEquals("bcd", cached.search(1));
+    }
+
+    @Test
+    void infoChangesDoNotInvalidateCursors() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.put(i, i);
+
+        BSTCursor<Integer,Integer> cursor = tree.cursor(0, null);
+        cursor.next();
+        tree.put(5, 50);
+        tree.merge(6, 1, Integer::sum);
+
+        int sum = 0;
+        while (cursor.hasNext())
+            sum += cursor.next().info;
+        assertEquals(1 + 2 + 3 + 4 + 50 + 7 + 7 + 8 + 9, sum);
+    }
+
+    /**
+     * Applies the same random map operations to a new tree and a TreeMap.
+     * @param factory - creates the tree under test
+     */
+    private static void randomOperations(Supplier<BST<Integer,Integer>> factory) {
+        BST<Integer,Integer> tree = factory.get();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(25);
+
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(500);
+            Integer value = random.nextInt(10);
+
+            switch (random.nextInt(6)) {
+                case 0:
+                    assertEquals(expected.put(key, value), tree.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.putIfAbsent(key, value), tree.putIfAbsent(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.compute(key, (k, v) -> (v == null) ? value : (v == 0 ? null : v - 1)),
+                                 tree.compute(key, (k, v) -> (v == null) ? value : (v == 0 ? null : v - 1)));
+                    break;
+                case 3:
+                    assertEquals(expected.computeIfAbsent(key, k -> value),
+                                 tree.computeIfAbsent(key, k -> value));
+                    break;
+                case 4:
+                    assertEquals(expected.merge(key, value, (a, b) -> (a + b > 12) ? null : a + b),
+                                 tree.merge(key, value, (a, b) -> (a + b > 12) ? null : a + b));
+                    break;
+                default:
+                    assertEquals(expected.remove(key), tree.remove(key));
+            }
+        }
+
+        TreeInvariants.check(tree);
+        if (tree instanceof AVLTree)
+            TreeInvariants.checkAvl(tree);
+
+        assertEquals(expected.size(), tree.getSize());
+        assertEquals(new java.util.ArrayList<Integer>(expected.keySet()), TreeInvariants.keys(tree));
+        for (Integer key : expected.keySet())
+            assertEquals(expected.get(key), tree.search(key));
+        assertNull(tree.search(-1));
+    }
+}
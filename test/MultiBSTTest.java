@@ -0,0 +1,143 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of MultiBST over each tree type: buckets keep
+ * insertion order, each key is stored once, and sizes match a TreeMap of
+ * lists under mixed operations.
+ */
+class MultiBSTTest {
+
+    @Test
+    void plainTree() {
+        mixedOperations(new BST<Integer,List<String>>(), false);
+    }
+
+    @Test
+    void avlTree() {
+        mixedOperations(new AVLTree<Integer,List<String>>(), true);
+    }
+
+    @Test
+    void splayTree() {
+        mixedOperations(new SplayTree<Integer,List<String>>(), false);
+    }
+
+    @Test
+    void duplicatesShareOneNode() {
+        BST<Integer,List<Integer>> tree = new BST<Integer,List<Integer>>();
+        MultiBST<Integer,Integer> multi = new MultiBST<Integer,Integer>(tree);
+
+        for (int i = 0; i < 10000; i++)
+            multi.insert(i % 3, i);
+
+        assertEquals(10000, multi.getSize());
+        assertEquals(3, multi.getKeyCount());
+        //Three ascending keys make a chain of three nodes, whatever the values
+        assertEquals(3, tree.getHeight());
+        assertEquals(3334, multi.count(0));
+        assertEquals(1, (int) multi.search(1));
+        assertEquals(List.of(2, 5, 8), multi.getAll(2).subList(0, 3));
+    }
+
+    @Test
+    void bucketChangesBumpTheTreeVersion() {
+        BST<Integer,List<String>> tree = new BST<Integer,List<String>>();
+        MultiBST<Integer,String> multi = new MultiBST<Integer,String>(tree);
+        multi.insert(1, "a");
+
+        int version = tree.version();
+        multi.insert(1, "b");
+        assertNotEquals(version, tree.version());
+
+        version = tree.version();
+        assertEquals("a", multi.removeOne(1));
+        assertNotEquals(version, tree.version());
+        assertEquals(List.of("b"), multi.getAll(1));
+    }
+
+    @Test
+    void emptyKeysAndViews() {
+        MultiBST<String,Integer> multi = new MultiBST<String,Integer>();
+        assertNull(multi.search("a"));
+        assertNull(multi.removeOne("a"));
+        assertEquals(Collections.emptyList(), multi.removeAll("a"));
+        assertEquals(Collections.emptyList(), multi.getAll("a"));
+        assertEquals(0, multi.count("a"));
+
+        multi.insert("a", 1);
+        assertThrows(UnsupportedOperationException.class, () -> multi.getAll("a").add(2));
+
+        BST<String,List<Integer>> used = new BST<String,List<Integer>>();
+        used.insert("x", new ArrayList<Integer>());
+        assertThrows(IllegalArgumentException.class, () -> new MultiBST<String,Integer>(used));
+    }
+
+    /**
+     * Applies random inserts, removeOne and removeAll, checking the multimap
+     * and the underlying tree against a TreeMap of lists.
+     * @param tree - empty tree to hold the keys
+     * @param avl - true to check AVL balance as well
+     */
+    private static void mixedOperations(BST<Integer,List<String>> tree, boolean avl) {
+        MultiBST<Integer,String> multi = new MultiBST<Integer,String>(tree);
+        TreeMap<Integer,List<String>> expected = new TreeMap<Integer,List<String>>();
+        int size = 0;
+        Random random = new Random(24);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i++) {
+                int key = random.nextInt(300);
+                int op = random.nextInt(6);
+                List<String> bucket = expected.get(key);
+
+                if (op == 0) {
+                    String removed = multi.removeOne(key);
+                    if (bucket == null) assertNull(removed);
+                    else {
+                        assertEquals(bucket.remove(0), removed);
+                        size--;
+                        if (bucket.isEmpty()) expected.remove(key);
+                    }
+                }
+                else if (op == 1) {
+                    List<String> removed = multi.removeAll(key);
+                    assertEquals((bucket == null) ? Collections.emptyList() : bucket, removed);
+                    if (bucket != null) size -= bucket.size();
+                    expected.remove(key);
+                }
+                else {
+                    String info = round + "." + i;
+                    multi.insert(key, info);
+                    expected.computeIfAbsent(key, k -> new ArrayList<String>()).add(info);
+                    size++;
+                }
+            }
+
+            if (avl) TreeInvariants.checkAvl(tree);
+            else TreeInvariants.check(tree);
+            assertEquals(new ArrayList<Integer>(expected.keySet()), TreeInvariants.keys(tree));
+            assertEquals(size, multi.getSize());
+            assertEquals(expected.size(), multi.getKeyCount());
+
+            for (int key = 0; key < 300; key += 5) {
+                List<String> bucket = expected.get(key);
+                assertEquals((bucket == null) ? Collections.emptyList() : bucket, multi.getAll(key));
+                assertEquals((bucket == null) ? 0 : bucket.size(), multi.count(key));
+                assertEquals((bucket == null) ? null : bucket.get(0), multi.search(key));
+            }
+        }
+        assertTrue(size > 0);
+    }
+}
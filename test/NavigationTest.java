@@ -0,0 +1,132 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of floor, ceiling, higher, lower and the range
+ * cursors against java.util.TreeMap.
+ */
+class NavigationTest {
+
+    @Test
+    void navigationMatchesTreeMap() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(6);
+
+        for (int i = 0; i < 500; i++) {
+            int key = 2 * random.nextInt(1000);
+            if (!expected.containsKey(key)) {
+                tree.insert(key, key);
+                expected.put(key, key);
+            }
+        }
+
+        for (int key = -1; key <= 2001; key++) {
+            assertEquals(expected.floorKey(key), key(tree.floor(key)));
+            assertEquals(expected.ceilingKey(key), key(tree.ceiling(key)));
+            assertEquals(expected.higherKey(key), key(tree.higher(key)));
+            assertEquals(expected.lowerKey(key), key(tree.lower(key)));
+        }
+    }
+
+    @Test
+    void cursorsMatchSubMaps() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(6);
+
+        for (int i = 0; i < 300; i++) {
+            int key = random.nextInt(400);
+            if (!expected.containsKey(key)) {
+                tree.insert(key, key);
+                expected.put(key, key);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int lo = random.nextInt(420) - 10, hi = lo + random.nextInt(100);
+
+            assertEquals(new ArrayList<Integer>(expected.subMap(lo, hi).keySet()),
+                         keys(tree.cursor(lo, hi)));
+            assertEquals(new ArrayList<Integer>(expected.subMap(lo, true, hi, false).descendingMap().keySet()),
+                         keys(tree.descendingCursor(lo, hi)));
+        }
+
+        assertEquals(new ArrayList<Integer>(expected.headMap(50).keySet()), keys(tree.cursor(null, 50)));
+        assertEquals(new ArrayList<Integer>(expected.tailMap(350, true).descendingMap().keySet()),
+                     keys(tree.descendingCursor(350, null)));
+        assertEquals(new ArrayList<Integer>(expected.keySet()), keys(tree.iterator()));
+    }
+
+    @Test
+    void emptyRangesAndExhaustion() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i * 10, i);
+
+        assertFalse(tree.cursor(11, 19).hasNext());
+        assertFalse(tree.cursor(50, 50).hasNext());
+        assertFalse(new BST<Integer,Integer>().iterator().hasNext());
+
+        Iterator<BTNode<Integer,Integer>> cursor = tree.cursor(85, null);
+        assertEquals(90, (int) cursor.next().key);
+        assertThrows(NoSuchElementException.class, cursor::next);
+    }
+
+    @Test
+    void duplicatesAreAllVisited() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        tree.insert(5, "a");
+        tree.insert(3, "b");
+        tree.insert(5, "c");
+        tree.insert(7, "d");
+        tree.insert(5, "e");
+
+        List<String> infos = new ArrayList<String>();
+        tree.cursor(5, 6).forEachRemaining(node -> infos.add(node.info));
+        assertEquals(List.of("a", "c", "e"), infos);
+    }
+
+    @Test
+    void structuralChangeInvalidatesCursor() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i, i);
+
+        Iterator<BTNode<Integer,Integer>> cursor = tree.iterator();
+        cursor.next();
+        tree.insert(20, 20);
+        assertThrows(ConcurrentModificationException.class, cursor::next);
+    }
+
+    private static Integer key(BTNode<Integer,Integer> node) {
+        return (node == null) ? null : node.key;
+    }
+
+    private static List<Integer> keys(Iterator<BTNode<Integer,Integer>> cursor) {
+        List<Integer> keys = new ArrayList<Integer>();
+        cursor.forEachRemaining(node -> keys.add(node.key));
+        return keys;
+    }
+
+    @Test
+    void emptyTreeNavigation() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        assertNull(tree.floor(1));
+        assertNull(tree.ceiling(1));
+        assertNull(tree.higher(1));
+        assertNull(tree.lower(1));
+    }
+}
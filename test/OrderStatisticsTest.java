@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of rank, select and countInRange against a sorted
+ * list, after mixed inserts and deletes on every tree type.
+ */
+class OrderStatisticsTest {
+
+    @Test
+    void plainTree() {
+        mixedOperations(BST::new);
+    }
+
+    @Test
+    void avlTree() {
+        mixedOperations(AVLTree::new);
+    }
+
+    @Test
+    void splayTree() {
+        mixedOperations(SplayTree::new);
+    }
+
+    @Test
+    void emptyTree() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+
+        assertEquals(0, tree.rank(5));
+        assertNull(tree.select(0));
+        assertEquals(0, tree.countInRange(0, 10));
+    }
+
+    @Test
+    void invertedRangeIsEmpty() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i, i);
+
+        assertEquals(0, tree.countInRange(7, 3));
+        assertEquals(1, tree.countInRange(3, 3));
+        assertNull(tree.select(-1));
+        assertNull(tree.select(10));
+    }
+
+    @Test
+    void deepPathIsShrunkAfterUse() {
+        BST<Integer,Integer> tree = TreeInvariants.chain(5000, true);
+
+        //Deleting the deepest key walks (and grows path to) the whole chain
+        tree.deleteNodeByCopy(4999);
+        assertEquals(BST.STACK_SIZE, tree.path.length);
+        assertPathReleased(tree);
+
+        //A callback that throws still leaves path empty
+        assertThrows(IllegalStateException.class, () -> tree.compute(4998, (k, v) -> {
+            throw new IllegalStateException();
+        }));
+        assertPathReleased(tree);
+        assertEquals(4998, (int) tree.remove(4998));
+        assertPathReleased(tree);
+    }
+
+    /**
+     * Checks that no operation left nodes behind in the tree's scratch path.
+     * @param tree - tree to check
+     */
+    private static void assertPathReleased(BST<Integer,Integer> tree) {
+        assertEquals(0, tree.pathTop);
+        for (BTNode<Integer,Integer> node : tree.path)
+            assertNull(node);
+    }
+
+    /**
+     * Applies random inserts (with duplicates) and deletes, then checks the
+     * order statistics against a sorted list of the same keys.
+     * @param factory - creates the tree under test
+     */
+    private static void mixedOperations(Supplier<BST<Integer,Integer>> factory) {
+        BST<Integer,Integer> tree = factory.get();
+        List<Integer> expected = new ArrayList<Integer>();
+        Random random = new Random(4);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 500; i++) {
+                int key = random.nextInt(1000);
+                if (random.nextInt(3) == 0) {
+                    if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                    else tree.deleteNodeByMerge(key);
+                    expected.remove((Integer) key);
+                }
+                else {
+                    tree.insert(key, key);
+                    expected.add(key);
+                }
+            }
+            Collections.sort(expected);
+            assertPathReleased(tree);
+
+            TreeInvariants.check(tree);
+            assertEquals(expected.size(), tree.getSize());
+
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(expected.get(i), tree.select(i).key);
+
+            for (int k = 0; k < 20; k++) {
+                int key = random.nextInt(1002) - 1;
+                int below = 0;
+                while (below < expected.size() && expected.get(below) < key)
+                    below++;
+                assertEquals(below, tree.rank(key));
+
+                int lo = random.nextInt(1000), hi = lo + random.nextInt(200);
+                int inRange = 0;
+                for (int value : expected)
+                    if (value >= lo && value <= hi) inRange++;
+                assertEquals(inRange, tree.countInRange(lo, hi));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of BSTSpliterator, the streams and parallelReduce:
+ * splits cover every node once and in order, sizes are exact, and
+ * degenerate chains reduce without deep recursion.
+ */
+class ParallelTraversalTest {
+
+    @Test
+    void splitsCoverEveryNodeInOrder() {
+        BST<Integer,Integer> tree = random(5000);
+        List<Integer> expected = TreeInvariants.keys(tree);
+
+        List<Integer> keys = new ArrayList<Integer>();
+        drain(tree.spliterator(), keys, 0);
+
+        assertEquals(expected, keys);
+    }
+
+    @Test
+    void sizesAreExact() {
+        BST<Integer,Integer> tree = random(1000);
+        Spliterator<BTNode<Integer,Integer>> suffix = tree.spliterator();
+
+        assertEquals(1000, suffix.estimateSize());
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+                                             | Spliterator.SORTED));
+
+        Spliterator<BTNode<Integer,Integer>> prefix = suffix.trySplit();
+        assertEquals(1000, prefix.estimateSize() + suffix.estimateSize());
+
+        //Sizes stay exact part way through a traversal
+        for (int i = 0; i < 10; i++)
+            suffix.tryAdvance(node -> { });
+        assertEquals(1000 - 10, prefix.estimateSize() + suffix.estimateSize());
+        assertEquals(suffix.estimateSize(), suffix.getExactSizeIfKnown());
+    }
+
+    @Test
+    void streamsMatchInorder() {
+        BST<Integer,Integer> tree = random(20000);
+        List<Integer> expected = TreeInvariants.keys(tree);
+
+        assertEquals(expected, tree.stream().map(node -> node.key).collect(Collectors.toList()));
+        assertEquals(expected, tree.parallelStream().map(node -> node.key)
+                                   .collect(Collectors.toList()));
+
+        long sum = 0;
+        for (int key : expected)
+            sum += key;
+        assertEquals(sum, tree.parallelStream().mapToLong(node -> node.key).sum());
+        assertEquals(0, new BST<Integer,Integer>().parallelStream().count());
+    }
+
+    @Test
+    void parallelReduceKeepsInorder() {
+        BST<Integer,Integer> tree = random(20000);
+        List<Integer> expected = TreeInvariants.keys(tree);
+
+        //List concatenation is associative but not commutative
+        List<Integer> reduced = tree.parallelReduce(new ArrayList<Integer>(),
+                node -> List.of(node.key),
+                (a, b) -> {
+                    List<Integer> joined = new ArrayList<Integer>(a);
+                    joined.addAll(b);
+                    return joined;
+                });
+        assertEquals(expected, reduced);
+    }
+
+    @Test
+    void degenerateChainsReduce() {
+        BST<Integer,Integer> right = TreeInvariants.chain(200000, true);
+        BST<Integer,Integer> left = TreeInvariants.chain(200000, false);
+        TreeInvariants.check(right);
+
+        long expected = 199999L * 200000 / 2;
+        assertEquals(expected, (long) right.parallelReduce(0L, node -> (long) node.info, Long::sum));
+        assertEquals(expected, (long) left.parallelReduce(0L, node -> (long) node.info, Long::sum));
+        assertEquals(expected, right.parallelStream().mapToLong(node -> node.info).sum());
+        assertEquals(0L, (long) new BST<Integer,Integer>().parallelReduce(0L, node -> 1L, Long::sum));
+    }
+
+    @Test
+    void modificationIsDetected() {
+        BST<Integer,Integer> tree = random(100);
+        Spliterator<BTNode<Integer,Integer>> spliterator = tree.spliterator();
+
+        spliterator.tryAdvance(node -> { });
+        tree.insert(-1, -1);
+        assertThrows(ConcurrentModificationException.class,
+                     () -> spliterator.tryAdvance(node -> { }));
+    }
+
+    /**
+     * Splits recursively, then drains prefix before suffix.
+     * @param spliterator - part to drain
+     * @param keys - receives keys in encounter order
+     * @param depth - current split depth
+     */
+    private static void drain(Spliterator<BTNode<Integer,Integer>> spliterator,
+                              List<Integer> keys, int depth) {
+        Spliterator<BTNode<Integer,Integer>> prefix = (depth < 12) ? spliterator.trySplit() : null;
+
+        if (prefix == null) {
+            spliterator.forEachRemaining(node -> keys.add(node.key));
+            return;
+        }
+        drain(prefix, keys, depth + 1);
+        drain(spliterator, keys, depth + 1);
+    }
+
+    private static BST<Integer,Integer> random(int n) {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        Random random = new Random(12);
+        for (int i = 0; i < n; i++) {
+            int key = random.nextInt(n * 4);
+            tree.insert(key, key);
+        }
+        return tree;
+    }
+}
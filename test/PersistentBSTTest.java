@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of PersistentBST: it behaves like BST under mixed
+ * operations, and every snapshot keeps its contents while the live tree
+ * and other snapshots change.
+ */
+class PersistentBSTTest {
+
+    @Test
+    void matchesBstAndSnapshotsNeverChange() {
+        PersistentBST<Integer,String> tree = new PersistentBST<Integer,String>();
+        BST<Integer,String> plain = new BST<Integer,String>();
+        List<PersistentBST<Integer,String>> snapshots = new ArrayList<PersistentBST<Integer,String>>();
+        List<List<String>> contents = new ArrayList<List<String>>();
+        Random random = new Random(11);
+
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 300; i++) {
+                int key = random.nextInt(200);
+                int op = random.nextInt(4);
+                if (op == 0) {
+                    tree.deleteNodeByCopy(key);
+                    plain.deleteNodeByCopy(key);
+                }
+                else if (op == 1) {
+                    tree.deleteNodeByMerge(key);
+                    plain.deleteNodeByMerge(key);
+                }
+                else {
+                    tree.insert(key, round + "." + i);
+                    plain.insert(key, round + "." + i);
+                }
+            }
+
+            assertEquals(plain.getSize(), tree.getSize());
+            assertEquals(entries(plain), entries(tree));
+            assertEquals(plain.findMin(), tree.findMin());
+            assertEquals(plain.findMax(), tree.findMax());
+
+            snapshots.add(tree.snapshot());
+            contents.add(entries(tree));
+
+            for (int s = 0; s < snapshots.size(); s++) {
+                assertEquals(contents.get(s), entries(snapshots.get(s)), "snapshot " + s);
+                assertEquals(contents.get(s).size(), snapshots.get(s).getSize());
+            }
+        }
+    }
+
+    @Test
+    void snapshotsEvolveIndependently() {
+        PersistentBST<Integer,Integer> tree = new PersistentBST<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i, i);
+
+        PersistentBST<Integer,Integer> copy = tree.snapshot();
+        copy.deleteNodeByCopy(5);
+        copy.insert(100, 100);
+        tree.deleteNodeByMerge(0);
+
+        assertEquals(5, (int) tree.search(5));
+        assertNull(tree.search(100));
+        assertNull(tree.search(0));
+        assertEquals(9, tree.getSize());
+
+        assertNull(copy.search(5));
+        assertEquals(100, (int) copy.search(100));
+        assertEquals(0, (int) copy.search(0));
+        assertEquals(10, copy.getSize());
+    }
+
+    @Test
+    void readersSeeConsistentVersions() throws Exception {
+        PersistentBST<Integer,Integer> tree = new PersistentBST<Integer,Integer>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<String>();
+
+        //Every version a reader picks up is ordered and holds exactly as
+        //many nodes as its size says, however the writer's paths overlap
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                PersistentBST<Integer,Integer> version = tree.snapshot();
+                int size = version.getSize();
+                int [] seen = {0, -1};
+                version.inOrderTraverse(node -> {
+                    if (node.key <= seen[1]) failure.compareAndSet(null, "out of order at " + node.key);
+                    seen[1] = node.key;
+                    seen[0]++;
+                    return true;
+                });
+                if (seen[0] != size) failure.compareAndSet(null, seen[0] + " != " + size);
+                Thread.yield();
+            }
+        });
+
+        reader.start();
+        for (int i = 0; i < 20000; i++) {
+            //Insert out of order within blocks of 8 so paths are rewritten
+            tree.insert((i & ~7) + ((i * 5) & 7), i);
+            if (i % 3 == 0) tree.deleteNodeByCopy(i / 2);
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get(), failure.get());
+    }
+
+    private static List<String> entries(BST<Integer,String> tree) {
+        List<String> entries = new ArrayList<String>();
+        tree.inOrderTraverse(node -> entries.add(node.key + "=" + node.info));
+        return entries;
+    }
+
+    private static List<String> entries(PersistentBST<Integer,String> tree) {
+        List<String> entries = new ArrayList<String>();
+        tree.inOrderTraverse(node -> entries.add(node.key + "=" + node.info));
+        return entries;
+    }
+}
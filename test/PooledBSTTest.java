@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of PooledBST: it behaves exactly like BST under mixed
+ * operations, and deleted slots are reused rather than growing the pool.
+ */
+class PooledBSTTest {
+
+    @Test
+    void matchesBstUnderMixedOperations() {
+        PooledBST<Integer,String> pooled = new PooledBST<Integer,String>(4);
+        BST<Integer,String> plain = new BST<Integer,String>();
+        Random random = new Random(9);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i++) {
+                int key = random.nextInt(500);
+                int op = random.nextInt(4);
+                if (op == 0) {
+                    pooled.deleteNodeByCopy(key);
+                    plain.deleteNodeByCopy(key);
+                }
+                else if (op == 1) {
+                    pooled.deleteNodeByMerge(key);
+                    plain.deleteNodeByMerge(key);
+                }
+                else {
+                    pooled.insert(key, "v" + round + "." + i);
+                    plain.insert(key, "v" + round + "." + i);
+                }
+            }
+
+            assertEquals(plain.getSize(), pooled.getSize());
+            assertEquals(entries(plain), entries(pooled));
+            assertEquals(plain.findMin(), pooled.findMin());
+            assertEquals(plain.findMax(), pooled.findMax());
+            for (int key = 0; key < 500; key += 7)
+                assertEquals(plain.search(key), pooled.search(key));
+        }
+    }
+
+    @Test
+    void deletedSlotsAreReused() {
+        PooledBST<Integer,Integer> tree = new PooledBST<Integer,Integer>(64);
+
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 64; i++)
+                tree.insert((i * 37) % 64, i);
+            assertEquals(64, tree.getSize());
+
+            for (int i = 0; i < 64; i++)
+                if (i % 2 == 0) tree.deleteNodeByCopy(i);
+                else tree.deleteNodeByMerge(i);
+            assertEquals(0, tree.getSize());
+        }
+        assertEquals(64, tree.getCapacity());
+    }
+
+    @Test
+    void failedInsertTakesNoSlot() {
+        PooledBST<Integer,Integer> tree = new PooledBST<Integer,Integer>(4);
+        for (int key : new int [] {2, 1, 3, 4})
+            tree.insert(key, key);
+
+        //A null key fails on its first comparison, when the pool is full
+        assertThrows(NullPointerException.class, () -> tree.insert(null, 0));
+        assertEquals(4, tree.getSize());
+        assertEquals(4, tree.getCapacity());
+
+        tree.deleteNodeByCopy(4);
+        tree.insert(5, 5);
+        assertEquals(4, tree.getCapacity());
+        assertEquals(5, (int) tree.findMax());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        PooledBST<Integer,Integer> tree = new PooledBST<Integer,Integer>(1);
+        for (int i = 0; i < 1000; i++)
+            tree.insert(i, i);
+
+        assertEquals(1000, tree.getSize());
+        assertEquals(0, (int) tree.findMin());
+        assertEquals(999, (int) tree.findMax());
+
+        //A degenerate chain is traversed without recursion
+        List<Integer> keys = new ArrayList<Integer>();
+        tree.inOrderTraverse((key, info) -> keys.add(key));
+        assertEquals(1000, keys.size());
+        assertEquals(999, (int) keys.get(999));
+    }
+
+    @Test
+    void emptyTreeAndEarlyStop() {
+        PooledBST<Integer,Integer> tree = new PooledBST<Integer,Integer>();
+        assertNull(tree.search(1));
+        assertNull(tree.findMin());
+        assertNull(tree.findMax());
+        tree.deleteNodeByCopy(1);
+        tree.deleteNodeByMerge(1);
+        assertEquals(0, tree.getSize());
+
+        for (int key : new int [] {5, 2, 8, 1, 9})
+            tree.insert(key, key);
+        List<Integer> seen = new ArrayList<Integer>();
+        assertFalse(tree.inOrderTraverse((key, info) -> {
+            seen.add(key);
+            return key < 5;
+        }));
+        assertEquals(Arrays.asList(1, 2, 5), seen);
+    }
+
+    private static List<String> entries(BST<Integer,String> tree) {
+        List<String> entries = new ArrayList<String>();
+        tree.inOrderTraverse(node -> entries.add(node.key + "=" + node.info));
+        return entries;
+    }
+
+    private static List<String> entries(PooledBST<Integer,String> tree) {
+        List<String> entries = new ArrayList<String>();
+        tree.inOrderTraverse((key, info) -> entries.add(key + "=" + info));
+        return entries;
+    }
+}
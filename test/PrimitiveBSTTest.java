@@ -0,0 +1,172 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of IntBST, LongBST, IntIntBST and LongLongBST against
+ * java.util.TreeMap.
+ */
+class PrimitiveBSTTest {
+
+    @Test
+    void intBSTMatchesTreeMap() {
+        IntBST<String> tree = new IntBST<String>();
+        TreeMap<Integer,String> expected = new TreeMap<Integer,String>();
+        Random random = new Random(8);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000) - 500;
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                else tree.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                tree.insert(key, "v" + key);
+                expected.put(key, "v" + key);
+            }
+            if (i % 5000 == 0) tree.rebalance();
+        }
+
+        assertEquals(expected.size(), tree.getSize());
+        int [] keys = tree.getKeys();
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).toArray(), keys);
+        for (int key = -501; key <= 500; key++) {
+            assertEquals(expected.get(key), tree.search(key));
+            assertEquals(expected.containsKey(key), tree.contains(key));
+        }
+        assertEquals(expected.firstEntry().getValue(), tree.findMin());
+        assertEquals(expected.lastEntry().getValue(), tree.findMax());
+        assertEquals((int) expected.firstKey(), tree.findMinKey());
+        assertEquals((int) expected.lastKey(), tree.findMaxKey());
+    }
+
+    @Test
+    void longBSTMatchesTreeMap() {
+        LongBST<String> tree = new LongBST<String>();
+        TreeMap<Long,String> expected = new TreeMap<Long,String>();
+        Random random = new Random(8);
+
+        for (int i = 0; i < 20000; i++) {
+            //Keys beyond the int range
+            long key = (random.nextInt(1000) - 500) * (1L << 40);
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                else tree.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                tree.insert(key, "v" + key);
+                expected.put(key, "v" + key);
+            }
+            if (i % 5000 == 0) tree.rebalance();
+        }
+
+        assertEquals(expected.size(), tree.getSize());
+        assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).toArray(), tree.getKeys());
+        for (Long key : expected.keySet())
+            assertEquals(expected.get(key), tree.search(key));
+        assertNull(tree.search(1L));
+        assertEquals((long) expected.firstKey(), tree.findMinKey());
+        assertEquals((long) expected.lastKey(), tree.findMaxKey());
+    }
+
+    @Test
+    void intIntBSTMatchesTreeMap() {
+        IntIntBST tree = new IntIntBST();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(8);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                else tree.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                tree.insert(key, -key);
+                expected.put(key, -key);
+            }
+        }
+        tree.rebalance();
+
+        assertEquals(expected.size(), tree.getSize());
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).toArray(), tree.getKeys());
+        for (int key = 0; key < 1000; key++)
+            assertEquals(expected.containsKey(key) ? -key : 1, tree.search(key, 1));
+        assertEquals((int) expected.firstEntry().getValue(), tree.findMin(1));
+        assertEquals((int) expected.lastEntry().getValue(), tree.findMax(1));
+    }
+
+    @Test
+    void longLongBSTMatchesTreeMap() {
+        LongLongBST tree = new LongLongBST();
+        TreeMap<Long,Long> expected = new TreeMap<Long,Long>();
+        Random random = new Random(8);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(1000) * (1L << 33);
+            if (random.nextInt(3) == 0) {
+                if (random.nextBoolean()) tree.deleteNodeByCopy(key);
+                else tree.deleteNodeByMerge(key);
+                expected.remove(key);
+            }
+            else if (!expected.containsKey(key)) {
+                tree.insert(key, key + 1);
+                expected.put(key, key + 1);
+            }
+        }
+        tree.rebalance();
+
+        assertEquals(expected.size(), tree.getSize());
+        assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).toArray(), tree.getKeys());
+        for (Long key : expected.keySet())
+            assertEquals(key + 1, tree.search(key, -1L));
+        assertEquals(-1L, tree.search(7L, -1L));
+    }
+
+    @Test
+    void duplicatesAreKeptAndDeletedOneAtATime() {
+        IntBST<String> tree = new IntBST<String>();
+        tree.insert(5, "a");
+        tree.insert(3, "b");
+        tree.insert(5, "c");
+        tree.insert(5, "d");
+
+        assertArrayEquals(new int [] {3, 5, 5, 5}, tree.getKeys());
+        tree.deleteNodeByCopy(5);
+        tree.deleteNodeByMerge(5);
+        assertArrayEquals(new int [] {3, 5}, tree.getKeys());
+        assertTrue(tree.contains(5));
+
+        tree.deleteNodeByCopy(5);
+        assertFalse(tree.contains(5));
+        assertEquals(1, tree.getSize());
+    }
+
+    @Test
+    void emptyTrees() {
+        IntBST<String> tree = new IntBST<String>();
+        IntIntBST ints = new IntIntBST();
+
+        assertNull(tree.findMin());
+        assertNull(tree.search(0));
+        assertEquals(42, ints.findMax(42));
+        assertThrows(NoSuchElementException.class, tree::findMinKey);
+        assertThrows(NoSuchElementException.class, ints::findMaxKey);
+
+        tree.rebalance();
+        tree.deleteNodeByCopy(0);
+        assertEquals(0, tree.getKeys().length);
+    }
+}
@@ -0,0 +1,248 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of RingBufferQueue, SpscQueue and MpmcQueue: FIFO
+ * order across wrap-around, batch operations, and hand-off between threads.
+ */
+class QueueTest {
+
+    @Test
+    void ringBufferGrowsAndKeepsOrder() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<Integer>(2);
+        fifoAcrossWrapAround(queue, 1000);
+    }
+
+    @Test
+    void spscKeepsOrderAcrossWrapAround() {
+        fifoAcrossWrapAround(new SpscQueue<Integer>(8), 8);
+    }
+
+    @Test
+    void mpmcKeepsOrderAcrossWrapAround() {
+        fifoAcrossWrapAround(new MpmcQueue<Integer>(8), 8);
+    }
+
+    @Test
+    void boundedQueuesRejectOfferWhenFull() {
+        SpscQueue<Integer> spsc = new SpscQueue<Integer>(4);
+        MpmcQueue<Integer> mpmc = new MpmcQueue<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(spsc.offer(i));
+            assertTrue(mpmc.offer(i));
+        }
+        assertFalse(spsc.offer(4));
+        assertFalse(mpmc.offer(4));
+        assertEquals(4, spsc.size());
+        assertEquals(4, mpmc.size());
+    }
+
+    @Test
+    void drainToWithNonPositiveMaxRemovesNothing() {
+        List<Queue<Integer>> queues = Arrays.<Queue<Integer>>asList(
+                new RingBufferQueue<Integer>(4), new SpscQueue<Integer>(4), new MpmcQueue<Integer>(4));
+
+        for (Queue<Integer> queue : queues) {
+            queue.enqueueAll(Arrays.asList(1, 2, 3));
+            List<Integer> out = new ArrayList<Integer>();
+
+            assertEquals(0, queue.drainTo(out, -1));
+            assertEquals(0, queue.drainTo(out, 0));
+            assertTrue(out.isEmpty());
+
+            assertEquals(2, queue.drainTo(out, 2));
+            assertEquals(1, queue.drainTo(out, 10));
+            assertEquals(Arrays.asList(1, 2, 3), out);
+            assertTrue(queue.isEmpty());
+            assertEquals(0, queue.drainTo(out, 10));
+        }
+    }
+
+    @Test
+    void mpmcBatchesWrapAround() {
+        MpmcQueue<Integer> queue = new MpmcQueue<Integer>(8);
+        List<Integer> out = new ArrayList<Integer>();
+        int next = 0;
+
+        for (int round = 0; round < 50; round++) {
+            List<Integer> batch = new ArrayList<Integer>();
+            for (int i = 0; i < 5; i++)
+                batch.add(next++);
+            queue.enqueueAll(batch);
+            queue.drainTo(out, 4 + round % 3);
+        }
+        queue.drainTo(out, Integer.MAX_VALUE);
+
+        assertEquals(next, out.size());
+        for (int i = 0; i < next; i++)
+            assertEquals(i, out.get(i));
+        assertNull(queue.dequeue());
+    }
+
+    @Test
+    void spscHandsOffInOrder() throws InterruptedException {
+        SpscQueue<Integer> queue = new SpscQueue<Integer>(64);
+        int total = 200000;
+
+        //Alternates single enqueues with batches of 2 to 17 values
+        Thread producer = new Thread(() -> {
+            int next = 0, round = 0;
+            while (next < total) {
+                int n = Math.min(total - next, 1 + round++ % 17);
+                if (n == 1)
+                    queue.enqueue(next++);
+                else {
+                    List<Integer> batch = new ArrayList<Integer>(n);
+                    for (int i = 0; i < n; i++)
+                        batch.add(next++);
+                    queue.enqueueAll(batch);
+                }
+            }
+        });
+        producer.start();
+
+        List<Integer> out = new ArrayList<Integer>(total);
+        while (out.size() < total) {
+            int taken;
+            if (out.size() % 2 == 0) {
+                Integer value = queue.dequeue();
+                if (value != null) out.add(value);
+                taken = (value == null) ? 0 : 1;
+            }
+            else
+                taken = queue.drainTo(out, 13);
+
+            //Let the producer run on a single core
+            if (taken == 0) Thread.yield();
+        }
+        producer.join();
+
+        for (int i = 0; i < total; i++)
+            assertEquals(i, out.get(i));
+    }
+
+    @Test
+    void mpmcDeliversEveryValueExactlyOnce() throws InterruptedException {
+        MpmcQueue<Integer> queue = new MpmcQueue<Integer>(128);
+        int producers = 4, consumers = 4, perProducer = 50000;
+        int total = producers * perProducer;
+
+        AtomicInteger received = new AtomicInteger();
+        ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<Integer, Boolean>();
+        List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                await(start);
+                //Alternates single enqueues with batches of 2 to 7 values
+                int next = 0, round = 0;
+                while (next < perProducer) {
+                    int n = Math.min(perProducer - next, 1 + round++ % 7);
+                    if (n == 1)
+                        queue.enqueue(base + next++);
+                    else {
+                        List<Integer> batch = new ArrayList<Integer>(n);
+                        for (int i = 0; i < n; i++)
+                            batch.add(base + next++);
+                        queue.enqueueAll(batch);
+                    }
+                }
+            }));
+        }
+
+        for (int c = 0; c < consumers; c++) {
+            int id = c;
+            threads.add(new Thread(() -> {
+                await(start);
+                //Last value taken from each producer, to check per-producer order
+                int [] last = new int[producers];
+                Arrays.fill(last, -1);
+                List<Integer> out = new ArrayList<Integer>();
+
+                while (received.get() < total) {
+                    out.clear();
+                    if (id % 2 == 0) {
+                        Integer value = queue.dequeue();
+                        if (value != null) out.add(value);
+                    }
+                    else
+                        queue.drainTo(out, 11);
+
+                    for (Integer value : out) {
+                        if (value == null)
+                            errors.add("null value");
+                        else {
+                            if (seen.put(value, Boolean.TRUE) != null)
+                                errors.add("duplicate " + value);
+                            int producer = value / perProducer;
+                            if (value <= last[producer])
+                                errors.add("out of order " + value);
+                            last[producer] = value;
+                        }
+                    }
+                    received.addAndGet(out.size());
+                    if (out.isEmpty()) Thread.yield();
+                }
+            }));
+        }
+
+        for (Thread thread : threads)
+            thread.start();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(Collections.emptyList(), errors);
+        assertEquals(total, seen.size());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Enqueues and dequeues through several laps of a queue of the given
+     * capacity, mixing single and batch operations.
+     * @param queue - empty queue
+     * @param capacity - number of values it can hold
+     */
+    private static void fifoAcrossWrapAround(Queue<Integer> queue, int capacity) {
+        int next = 0, expected = 0;
+
+        for (int round = 0; round < 20; round++) {
+            int fill = 1 + round % capacity;
+            for (int i = 0; i < fill; i++)
+                queue.enqueue(next++);
+
+            assertEquals(expected, queue.front());
+            for (int i = 0; i < fill; i++)
+                assertEquals(expected++, queue.dequeue());
+            assertTrue(queue.isEmpty());
+        }
+        assertNull(queue.dequeue());
+    }
+
+    /**
+     * @param latch - latch to wait for
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
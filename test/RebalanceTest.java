@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of BST.rebalance (Day-Stout-Warren): the result has
+ * minimal height and the same inorder sequence, node for node.
+ */
+class RebalanceTest {
+
+    @Test
+    void degenerateChainBecomesMinimalHeight() {
+        BST<Integer,Integer> tree = TreeInvariants.chain(100000, true);
+
+        tree.rebalance();
+
+        TreeInvariants.check(tree);
+        assertEquals(17, tree.getHeight());
+        assertTrue(tree.isBalanced());
+    }
+
+    @Test
+    void everySizeGetsMinimalHeight() {
+        for (int n = 0; n <= 300; n++) {
+            BST<Integer,Integer> tree = new BST<Integer,Integer>();
+            tree.setHeightCaching(n % 2 == 0);
+            for (int i = n - 1; i >= 0; i--)
+                tree.insert(i, i);
+
+            tree.rebalance();
+
+            TreeInvariants.check(tree);
+            int minimal = 32 - Integer.numberOfLeadingZeros(n);
+            assertEquals(minimal, tree.getHeight(), "n = " + n);
+        }
+    }
+
+    @Test
+    void keepsNodesAndDuplicatesInOrder() {
+        BST<Integer,String> tree = new BST<Integer,String>();
+        Random random = new Random(2);
+        for (int i = 0; i < 5000; i++)
+            tree.insert(random.nextInt(500), "v" + i);
+
+        List<BTNode<Integer,String>> before = nodes(tree);
+        tree.rebalance();
+        List<BTNode<Integer,String>> after = nodes(tree);
+
+        //Nodes are relinked, not copied, so identity is preserved
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++)
+            assertTrue(before.get(i) == after.get(i), "node " + i);
+        TreeInvariants.check(tree);
+        assertTrue(tree.isBalanced());
+    }
+
+    @Test
+    void treeRemainsUsableAfterRebalance() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int i = 0; i < 1000; i++)
+            tree.insert(i, i);
+        tree.rebalance();
+
+        for (int i = 0; i < 1000; i += 3)
+            tree.deleteNodeByCopy(i);
+        for (int i = 1000; i < 1100; i++)
+            tree.insert(i, i);
+
+        TreeInvariants.check(tree);
+        assertEquals(766, tree.getSize());
+        assertEquals(500, tree.rank(750));
+    }
+
+    private static List<BTNode<Integer,String>> nodes(BST<Integer,String> tree) {
+        List<BTNode<Integer,String>> nodes = new ArrayList<BTNode<Integer,String>>();
+        tree.inOrderTraverse(node -> {
+            nodes.add(node);
+            return true;
+        });
+        return nodes;
+    }
+}
@@ -0,0 +1,149 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of SplayTree: every access brings its key (or the
+ * last node on its path) to the root, subtree sizes stay right, and mixed
+ * operations agree with TreeMap.
+ */
+class SplayTreeTest {
+
+    @Test
+    void matchesTreeMapUnderMixedOperations() {
+        SplayTree<Integer,Integer> tree = new SplayTree<Integer,Integer>();
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+        Random random = new Random(21);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i++) {
+                int key = random.nextInt(2000);
+                int op = random.nextInt(4);
+                if (op == 0) {
+                    tree.deleteNodeByCopy(key);
+                    expected.remove(key);
+                }
+                else if (op == 1) {
+                    assertEquals(expected.get(key), tree.search(key));
+                }
+                else if (!expected.containsKey(key)) {
+                    tree.insert(key, i);
+                    expected.put(key, i);
+                }
+            }
+
+            TreeInvariants.check(tree);
+            assertEquals(expected.size(), tree.getSize());
+            assertEquals(new ArrayList<Integer>(expected.keySet()), TreeInvariants.keys(tree));
+            for (int k = 0; k < 50; k++) {
+                int key = random.nextInt(2000);
+                assertEquals(expected.headMap(key).size(), tree.rank(key));
+            }
+        }
+    }
+
+    @Test
+    void accessedKeyBecomesRoot() {
+        SplayTree<Integer,Integer> tree = new SplayTree<Integer,Integer>();
+        Random random = new Random(21);
+        TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+
+        for (int i = 0; i < 500; i++) {
+            int key = 2 * random.nextInt(1000);
+            if (expected.containsKey(key)) continue;
+            tree.insert(key, key);
+            expected.put(key, key);
+            assertEquals(key, (int) tree.root.key);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(2000);
+            Integer info = tree.search(key);
+
+            if (expected.containsKey(key)) {
+                assertEquals(key, (int) info);
+                assertEquals(key, (int) tree.root.key);
+            }
+            else {
+                //A miss splays the last node on the path: a neighbour of key
+                assertNull(info);
+                Integer rootKey = tree.root.key;
+                assertTrue(rootKey.equals(expected.floorKey(key))
+                           || rootKey.equals(expected.ceilingKey(key)), "root " + rootKey);
+            }
+        }
+        TreeInvariants.check(tree);
+    }
+
+    @Test
+    void splayingHalvesADeepPath() {
+        SplayTree<Integer,Integer> tree = new SplayTree<Integer,Integer>();
+        for (int i = 0; i < 1024; i++)
+            tree.insert(i, i);
+
+        //Ascending inserts leave a left chain with the maximum at the root
+        assertEquals(1024, tree.getHeight());
+
+        //Splaying the deepest key roughly halves the depth of the path
+        tree.search(0);
+        assertEquals(0, (int) tree.root.key);
+        assertTrue(tree.getHeight() <= 1024 / 2 + 2, "height " + tree.getHeight());
+        TreeInvariants.check(tree);
+
+        //Touching every key in order costs O(n) rotations overall
+        tree.setMetricsEnabled(true);
+        for (int i = 0; i < 1024; i++)
+            tree.search(i);
+        assertTrue(tree.getMetrics().getRotations() < 4 * 1024,
+                   "rotations " + tree.getMetrics().getRotations());
+    }
+
+    @Test
+    void deletesAndEmptyTree() {
+        SplayTree<Integer,Integer> tree = new SplayTree<Integer,Integer>();
+        assertNull(tree.search(1));
+        tree.deleteNodeByMerge(1);
+        assertEquals(0, tree.getSize());
+
+        for (int i = 0; i < 100; i++)
+            tree.insert(i, i);
+        tree.deleteNodeByCopy(1000);
+        assertEquals(100, tree.getSize());
+
+        for (int i = 0; i < 100; i += 2)
+            tree.deleteNodeByMerge(i);
+        TreeInvariants.check(tree);
+        assertEquals(50, tree.getSize());
+        assertEquals(1, (int) tree.findMin());
+        assertEquals(99, (int) tree.findMax());
+
+        for (int i = 1; i < 100; i += 2)
+            tree.deleteNodeByCopy(i);
+        assertNull(tree.root);
+        assertEquals(0, tree.getSize());
+    }
+
+    @Test
+    void searchInvalidatesCursorsAndHeightsAreNotCached() {
+        SplayTree<Integer,Integer> tree = new SplayTree<Integer,Integer>();
+        for (int i = 0; i < 10; i++)
+            tree.insert(i, i);
+
+        Iterator<BTNode<Integer,Integer>> cursor = tree.iterator();
+        cursor.next();
+        tree.search(5);
+        assertThrows(ConcurrentModificationException.class, cursor::next);
+
+        assertThrows(UnsupportedOperationException.class, () -> tree.setHeightCaching(true));
+        tree.setHeightCaching(false);
+    }
+}
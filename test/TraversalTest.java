@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of the iterative visitor traversals: visiting order,
+ * early stop, the printing overloads and chain-shaped trees.
+ */
+class TraversalTest {
+
+    //       4
+    //     2   6
+    //    1 3 5 7
+    private static BST<Integer,Integer> sample() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int key : new int [] {4, 2, 6, 1, 3, 5, 7})
+            tree.insert(key, key);
+        return tree;
+    }
+
+    @Test
+    void visitingOrders() {
+        BST<Integer,Integer> tree = sample();
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), collect(tree, 0));
+        assertEquals(Arrays.asList(4, 2, 1, 3, 6, 5, 7), collect(tree, 1));
+        assertEquals(Arrays.asList(1, 3, 2, 5, 7, 6, 4), collect(tree, 2));
+    }
+
+    @Test
+    void visitorStopsEarly() {
+        BST<Integer,Integer> tree = sample();
+        List<Integer> seen = new ArrayList<Integer>();
+
+        assertFalse(tree.inOrderTraverse(node -> {
+            seen.add(node.key);
+            return node.key < 3;
+        }));
+        assertEquals(Arrays.asList(1, 2, 3), seen);
+
+        seen.clear();
+        assertFalse(tree.postOrderTraverse(node -> {
+            seen.add(node.key);
+            return seen.size() < 2;
+        }));
+        assertEquals(Arrays.asList(1, 3), seen);
+
+        assertTrue(tree.preOrderTraverse(node -> true));
+        assertTrue(new BST<Integer,Integer>().inOrderTraverse(node -> false));
+    }
+
+    @Test
+    void printingTraversals() {
+        BST<Integer,Integer> tree = sample();
+
+        assertEquals("1 2 3 4 5 6 7 ", printed(tree::inOrderTraverse));
+        assertEquals("4 2 1 3 6 5 7 ", printed(tree::preOrderTraverse));
+        assertEquals("1 3 2 5 7 6 4 ", printed(tree::postOrderTraverse));
+        assertEquals("4 2 6 1 3 5 7 ", printed(tree::breadthTraverse));
+    }
+
+    @Test
+    void chainsOfAnyDepth() {
+        BST<Integer,Integer> left = TreeInvariants.chain(100000, false);
+        BST<Integer,Integer> right = TreeInvariants.chain(100000, true);
+
+        for (BST<Integer,Integer> tree : Arrays.asList(left, right))
+            for (int order = 0; order < 3; order++)
+                assertEquals(100000, collect(tree, order).size());
+        assertEquals(-99999, (int) collect(left, 0).get(0));
+        assertEquals(99999, (int) collect(right, 2).get(0));
+    }
+
+    /**
+     * @param tree - tree to traverse
+     * @param order - 0 inorder, 1 preorder, 2 postorder
+     * @return keys in visiting order
+     */
+    private static List<Integer> collect(BST<Integer,Integer> tree, int order) {
+        List<Integer> keys = new ArrayList<Integer>();
+        TreeVisitor<Integer,Integer> visitor = node -> keys.add(node.key);
+
+        if (order == 0) tree.inOrderTraverse(visitor);
+        else if (order == 1) tree.preOrderTraverse(visitor);
+        else tree.postOrderTraverse(visitor);
+        return keys;
+    }
+
+    /**
+     * @param traversal - printing traversal
+     * @return what it printed to System.out
+     */
+    private static String printed(Runnable traversal) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true));
+        try {
+            traversal.run();
+        }
+        finally {
+            System.setOut(out);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description:  Structural checks shared by the tree tests.  Every walk is
+ * iterative so that degenerate (chain-shaped) trees can be checked too, and
+ * chain() links such trees directly since building them by insert is
+ * quadratic.
+ */
+final class TreeInvariants {
+
+    private TreeInvariants() {
+    }
+
+    /**
+     * Asserts that tree is ordered (left < key <= right), that every node's
+     * subtree size is right, that size matches the node count, and that
+     * cached heights are right when the tree caches them.
+     * @param tree - tree to check
+     */
+    static <K extends Comparable<K>, T> void check(BST<K,T> tree) {
+        Map<BTNode<K,T>, Integer> heights = new IdentityHashMap<BTNode<K,T>, Integer>();
+        List<BTNode<K,T>> postOrder = postOrder(tree.root);
+
+        for (BTNode<K,T> node : postOrder) {
+            int leftHeight = (node.left == null) ? 0 : heights.get(node.left);
+            int rightHeight = (node.right == null) ? 0 : heights.get(node.right);
+            heights.put(node, 1 + Math.max(leftHeight, rightHeight));
+
+            int count = 1 + ((node.left == null) ? 0 : node.left.count)
+                          + ((node.right == null) ? 0 : node.right.count);
+            assertEquals(count, node.count, "subtree size at " + node.key);
+
+            if (tree.cacheHeights)
+                assertEquals((int) heights.get(node), node.height, "height at " + node.key);
+        }
+        assertEquals(postOrder.size(), tree.getSize(), "size");
+
+        List<K> keys = keys(tree);
+        for (int i = 1; i < keys.size(); i++)
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) <= 0,
+                       "order at " + keys.get(i - 1) + ", " + keys.get(i));
+    }
+
+    /**
+     * Asserts check() and that every node's balance factor is within [-1, 1].
+     * @param tree - tree with cached heights
+     */
+    static <K extends Comparable<K>, T> void checkAvl(BST<K,T> tree) {
+        check(tree);
+        for (BTNode<K,T> node : postOrder(tree.root)) {
+            int factor = height(node.right) - height(node.left);
+            if (factor < -1 || factor > 1)
+                fail("balance factor " + factor + " at " + node.key);
+        }
+    }
+
+    /**
+     * @param tree - tree to read
+     * @return keys in inorder
+     */
+    static <K extends Comparable<K>, T> List<K> keys(BST<K,T> tree) {
+        List<K> keys = new ArrayList<K>();
+        tree.inOrderTraverse(node -> {
+            keys.add(node.key);
+            return true;
+        });
+        return keys;
+    }
+
+    /**
+     * Builds a degenerate tree in O(n), as if keys had been inserted in
+     * order.  Node i has info i and key i (right-leaning) or -i (left-leaning).
+     * @param n - number of nodes
+     * @param rightLeaning - true to link through right children
+     * @return chain-shaped tree with correct sizes and cached heights
+     */
+    static BST<Integer,Integer> chain(int n, boolean rightLeaning) {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        BTNode<Integer,Integer> below = null;
+
+        for (int i = n - 1; i >= 0; i--) {
+            BTNode<Integer,Integer> node = new BTNode<Integer,Integer>(rightLeaning ? i : -i, i);
+            if (rightLeaning) node.right = below;
+            else node.left = below;
+            node.count = n - i;
+            node.height = n - i;
+            below = node;
+        }
+
+        tree.root = below;
+        tree.size = n;
+        return tree;
+    }
+
+    /**
+     * @param node - root of subtree or null
+     * @return cached height (0 if empty)
+     */
+    private static int height(BTNode<?,?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * @param root - root of subtree or null
+     * @return nodes of the subtree, children before parents
+     */
+    private static <K extends Comparable<K>, T> List<BTNode<K,T>> postOrder(BTNode<K,T> root) {
+        List<BTNode<K,T>> out = new ArrayList<BTNode<K,T>>();
+        List<BTNode<K,T>> stack = new ArrayList<BTNode<K,T>>();
+
+        if (root != null) stack.add(root);
+        while (!stack.isEmpty()) {
+            BTNode<K,T> node = stack.remove(stack.size() - 1);
+            out.add(node);
+            if (node.left != null) stack.add(node.left);
+            if (node.right != null) stack.add(node.right);
+        }
+
+        //Reversed (node, right, left) preorder visits children first
+        java.util.Collections.reverse(out);
+        return out;
+    }
+}
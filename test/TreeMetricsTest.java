@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of TreeMetrics: operation counts and path lengths on
+ * a tree of known shape, comparisons against a counting key, rotations,
+ * rebuilds, the histogram overflow bucket and reset.
+ */
+class TreeMetricsTest {
+
+    /**
+     * Integer key that counts every compareTo call.
+     */
+    private static final class CountingKey implements Comparable<CountingKey> {
+        static long compares;
+        final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        public int compareTo(CountingKey other) {
+            compares++;
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    @Test
+    void disabledByDefault() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        assertNull(tree.getMetrics());
+
+        tree.setMetricsEnabled(true);
+        TreeMetrics metrics = tree.getMetrics();
+        tree.setMetricsEnabled(true);
+        assertSame(metrics, tree.getMetrics());
+
+        tree.setMetricsEnabled(false);
+        assertNull(tree.getMetrics());
+        tree.insert(1, 1);
+    }
+
+    @Test
+    void pathLengthsOnKnownShape() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        tree.setMetricsEnabled(true);
+        TreeMetrics metrics = tree.getMetrics();
+
+        //       4
+        //     2   6
+        //    1
+        for (int key : new int [] {4, 2, 6, 1})
+            tree.insert(key, key);
+        tree.search(1);
+        tree.search(4);
+        tree.search(5);
+
+        assertEquals(4, metrics.getInserts());
+        assertEquals(3, metrics.getSearches());
+        assertEquals(0 + 1 + 1 + 2 + 3 + 1 + 2, metrics.getComparisons());
+        assertEquals(3, metrics.getMaxPathLength());
+        assertArrayEquals(new long [] {1, 3, 2, 1}, Arrays.copyOf(metrics.getPathLengthHistogram(), 4));
+        assertEquals(10.0 / 7, metrics.getAveragePathLength(), 1e-9);
+
+        tree.deleteNodeByCopy(2);
+        tree.deleteNodeByMerge(9);
+        assertEquals(2, metrics.getDeletes());
+        assertEquals(TreeMetrics.MAX_PATH_LENGTH + 1, metrics.getPathLengthHistogram().length);
+    }
+
+    @Test
+    void comparisonsMatchCompareToCalls() {
+        BST<CountingKey,Integer> tree = new BST<CountingKey,Integer>();
+        tree.setMetricsEnabled(true);
+        Random random = new Random(16);
+
+        CountingKey.compares = 0;
+        for (int i = 0; i < 2000; i++)
+            tree.insert(new CountingKey(random.nextInt(5000)), i);
+        for (int i = 0; i < 2000; i++)
+            tree.search(new CountingKey(random.nextInt(5000)));
+
+        TreeMetrics metrics = tree.getMetrics();
+        assertEquals(CountingKey.compares, metrics.getComparisons());
+
+        long operations = 0;
+        for (long bucket : metrics.getPathLengthHistogram())
+            operations += bucket;
+        assertEquals(4000, operations);
+    }
+
+    @Test
+    void rotationsAndRebuilds() {
+        AVLTree<Integer,Integer> avl = new AVLTree<Integer,Integer>();
+        avl.setMetricsEnabled(true);
+        avl.insert(1, 1);
+        avl.insert(2, 2);
+        avl.insert(3, 3);
+        assertEquals(1, avl.getMetrics().getRotations());
+
+        //Right-left case is a double rotation
+        avl.insert(5, 5);
+        avl.insert(4, 4);
+        assertEquals(3, avl.getMetrics().getRotations());
+
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        tree.setMetricsEnabled(true);
+        tree.bulkLoad(new Integer [] {1, 2, 3}, new Integer [] {1, 2, 3}, true,
+                      BST.Duplicates.KEEP_ALL);
+        tree.rebalance();
+        assertEquals(2, tree.getMetrics().getRebuilds());
+        assertEquals(0, tree.getMetrics().getRotations());
+    }
+
+    @Test
+    void longPathsShareTheLastBucket() {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        tree.setMetricsEnabled(true);
+        for (int i = 0; i < 100; i++)
+            tree.insert(i, i);
+
+        TreeMetrics metrics = tree.getMetrics();
+        long [] histogram = metrics.getPathLengthHistogram();
+        assertEquals(100 - TreeMetrics.MAX_PATH_LENGTH, histogram[TreeMetrics.MAX_PATH_LENGTH]);
+        assertEquals(99, metrics.getMaxPathLength());
+
+        metrics.reset();
+        assertEquals(0, metrics.getInserts());
+        assertEquals(0, metrics.getComparisons());
+        assertEquals(0, metrics.getMaxPathLength());
+        assertEquals(0.0, metrics.getAveragePathLength());
+        for (long bucket : metrics.getPathLengthHistogram())
+            assertEquals(0, bucket);
+
+        tree.search(50);
+        assertEquals(51, metrics.getMaxPathLength());
+        assertTrue(metrics.toString().contains("searches=1"));
+    }
+}
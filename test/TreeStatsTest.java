@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @Description:  Tests of BST.getStats, getHeight, isFull and isBalanced on
+ * small trees of known shape and on a degenerate chain.
+ */
+class TreeStatsTest {
+
+    @Test
+    void emptyTree() {
+        TreeStats stats = new BST<Integer,Integer>().getStats();
+
+        assertEquals(0, stats.getHeight());
+        assertEquals(0, stats.getCount());
+        assertFalse(stats.isFull());
+        assertTrue(stats.isBalanced());
+        assertEquals(0, stats.getDepthHistogram().length);
+        assertEquals(0.0, stats.getAverageDepth());
+    }
+
+    @Test
+    void perfectTree() {
+        BST<Integer,Integer> tree = build(4, 2, 6, 1, 3, 5, 7);
+        TreeStats stats = tree.getStats();
+
+        assertEquals(3, stats.getHeight());
+        assertEquals(7, stats.getCount());
+        assertTrue(stats.isFull());
+        assertTrue(stats.isBalanced());
+        assertArrayEquals(new int [] {1, 2, 4}, stats.getDepthHistogram());
+        assertEquals(10.0 / 7, stats.getAverageDepth(), 1e-9);
+    }
+
+    @Test
+    void balancedButNotFull() {
+        BST<Integer,Integer> tree = build(4, 2, 6, 1);
+        TreeStats stats = tree.getStats();
+
+        assertFalse(stats.isFull());
+        assertTrue(stats.isBalanced());
+        assertArrayEquals(new int [] {1, 2, 1}, stats.getDepthHistogram());
+    }
+
+    @Test
+    void fullButNotBalanced() {
+        //Every node has 0 or 2 children, but the left side is two levels deeper
+        BST<Integer,Integer> tree = build(8, 4, 9, 2, 6, 1, 3);
+        TreeStats stats = tree.getStats();
+
+        assertTrue(stats.isFull());
+        assertFalse(stats.isBalanced());
+        assertEquals(4, stats.getHeight());
+    }
+
+    @Test
+    void cachedAndUncachedAnswersAgree() {
+        BST<Integer,Integer> plain = build(5, 3, 8, 1, 4, 7, 9, 2, 6);
+        BST<Integer,Integer> cached = build(5, 3, 8, 1, 4, 7, 9, 2, 6);
+        cached.setHeightCaching(true);
+
+        for (int key : new int [] {2, 9, 6, 4}) {
+            assertEquals(plain.getHeight(), cached.getHeight());
+            assertEquals(plain.isBalanced(), cached.isBalanced());
+            assertEquals(plain.isFull(), cached.isFull());
+            TreeInvariants.check(cached);
+
+            plain.deleteNodeByMerge(key);
+            cached.deleteNodeByMerge(key);
+        }
+    }
+
+    @Test
+    void longChainNeedsNoRecursion() {
+        BST<Integer,Integer> tree = TreeInvariants.chain(200000, true);
+
+        TreeStats stats = tree.getStats();
+        assertEquals(200000, stats.getHeight());
+        assertEquals(200000, stats.getDepthHistogram().length);
+        assertEquals(199999 / 2.0, stats.getAverageDepth(), 1e-9);
+        assertFalse(tree.isBalanced());
+    }
+
+    @Test
+    void analysisOnlyReadsNodes() throws Exception {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++)
+            tree.insert(random.nextInt(100000), i);
+
+        //Without caching, heights are never written, not even by getStats
+        TreeStats expected = tree.getStats();
+        tree.inOrderTraverse(node -> {
+            assertEquals(1, node.height);
+            return true;
+        });
+
+        //So concurrent readers of an unchanged tree all see the same answer
+        Thread [] readers = new Thread[4];
+        boolean [] agree = new boolean[readers.length];
+        for (int r = 0; r < readers.length; r++) {
+            int id = r;
+            readers[r] = new Thread(() -> {
+                boolean same = true;
+                for (int i = 0; i < 20; i++) {
+                    TreeStats stats = tree.getStats();
+                    same &= stats.getHeight() == expected.getHeight()
+                            && stats.isBalanced() == expected.isBalanced()
+                            && tree.getHeight() == expected.getHeight();
+                }
+                agree[id] = same;
+            });
+            readers[r].start();
+        }
+        for (int r = 0; r < readers.length; r++) {
+            readers[r].join();
+            assertTrue(agree[r], "reader " + r);
+        }
+    }
+
+    private static BST<Integer,Integer> build(int... keys) {
+        BST<Integer,Integer> tree = new BST<Integer,Integer>();
+        for (int key : keys)
+            tree.insert(key, key);
+        return tree;
+    }
+}